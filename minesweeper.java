@@ -1,53 +1,71 @@
 import java.util.ArrayList;
+import java.util.ArrayDeque;
+import java.util.Arrays;
 import tester.Tester;
 import javalib.impworld.*;
 import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
 import javalib.worldimages.*;
 import java.util.Random;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
 
 
 // represents the minesweeper world 
+// the game itself is played by a GameEngine, this draws it and turns
+// clicks and key presses into moves
 class Minesweeper extends World {
+  static final double MIN_ZOOM = 0.25;
+  static final double MAX_ZOOM = 4;
+
   int rows;
   int cols;
   int numMines;
   int size; // of 1 cell
   Random rand;
-  ArrayList<ArrayList<Cell>> board; //arraylist of rows 
-  boolean gameOver;
-  boolean win;
+  GameEngine engine; // the board and the rules
+  ViewTransform view; // maps screen pixels to board pixels
+  BoardRaster raster; // the board as drawn last frame
+  int viewWidth; // window size in viewport mode, 0 when the whole board is drawn
+  int viewHeight;
+  MoveJournal journal; // where moves are recorded, null when they aren't
 
   // constructor for testing
   Minesweeper(int rows, int cols, int numMines, int size, Random r) {  
-    if (numMines > rows * cols) {
-      throw new IllegalArgumentException("More mines than squares. Check again.");
-    }
-
+    this.engine = new GameEngine(rows, cols, numMines);
     this.rows = rows;
     this.cols = cols;
     this.numMines = numMines;
     this.size = size;
     this.rand = r;
-    this.board = this.makeBoard();
-    this.gameOver = false;
-    this.win = true;
+    this.view = new ViewTransform();
+    this.raster = new BoardRaster();
+    this.viewWidth = 0;
+    this.viewHeight = 0;
+    this.journal = null;
   }
 
   // constructor for playing the real game
+  // mines are placed on the first click, away from the clicked cell
   Minesweeper(int rows, int cols, int numMines, int size) {
-    ArrayList<Coord> positions = new ArrayList<Coord>();
-    if (numMines > rows * cols) {
-      throw new IllegalArgumentException("More mines than squares. Check again.");
-    }
-    this.rows = rows;
-    this.cols = cols;
-    this.numMines = numMines;
-    this.board = this.makeBoard();
-    this.size = size;
-    this.gameOver = false;
-    this.win = true;
-    positions = new Utils().randomGen(numMines, rows,cols, new Random());
-    setMine(positions);
+    this(rows, cols, numMines, size, new Random());
+    this.engine.reset(this.rand.nextLong());
   }
 
   /* MINESWEEPER TEMPLATE
@@ -57,118 +75,179 @@ class Minesweeper extends World {
    * this.numMines       -int
    * this.size           -int
    * this.rand           -Random
-   * this.board          -ArrayList<ArrayList<Cell>>
+   * this.engine         -GameEngine
+   * this.view           -ViewTransform
+   * this.raster         -BoardRaster
+   * this.viewWidth      -int
+   * this.viewHeight     -int
+   * this.journal        -MoveJournal
    * 
    * METHODS
    * this.makeScene()                    -WorldScene
-   * this.setMine(ArrayList<Coord>)      -void
-   * this.makeBoard()                    -ArrayList<ArrayList<Cell>>
-   * this.drawRow(ArrayList<Cell>, int)  -WorldImage
+   * this.makeViewportScene()            -WorldScene
+   * this.sceneWidth()                   -int
+   * this.sceneHeight()                  -int
+   * this.useViewport(int, int)          -void
+   * this.moveCamera(double, double, double)  -void
+   * this.firstVisible()                 -Coord
+   * this.lastVisible()                  -Coord
+   * this.drawRow(int, int)              -WorldImage
+   * this.drawCells(int, int, int, int)  -WorldImage
    * this.drawBoard(int)                 -WorldImage
+   * this.drawRows(int, int, int)        -WorldImage
    * 
    * this.worldEnds()                    -WorldEnd
    * this.onMouseClicked(Posn, String)   -void
-   * this.clickedCell(Posn)              -Cell
+   * this.clickedCell(Posn)              -Coord
    * this.onKeyEvent(key)                -void
+   * this.save(Path)                     -void
+   * this.load(Path)                     -void
+   * this.startJournal(Path, int)        -void
    */
 
   // draws board onto worldscene
+  // only the cells that changed since the last frame are redrawn
   public WorldScene makeScene() {
+    if (this.viewWidth > 0) {
+      return this.makeViewportScene();
+    }
     WorldScene scene = new WorldScene(this.cols * this.size, this.rows * this.size);
-    scene.placeImageXY(this.drawBoard(size),
+    scene.placeImageXY(this.raster.render(this.engine.board, this.size),
         this.cols * this.size / 2, this.rows * this.size / 2);
 
     return scene;
   }
 
-  // EFFECT: randomly places mines in cells
-  public void setMine(ArrayList<Coord> mineCoords) {
-    for (Coord coord : mineCoords) {
-      int row = coord.row;
-      int col = coord.col;
-
-      if (row >= 0 && row < rows && col >= 0 && col < cols) {
-        Cell cell = board.get(row).get(col);
-        cell.placeMine();
+  // draws the cells that can be seen through the viewport and nothing else,
+  // so a frame costs as much as the window holds no matter how big the board is.
+  // each tile reaches from its own screen corner to the next cell's, so at zooms
+  // that don't divide evenly the tiles still meet without gaps
+  WorldScene makeViewportScene() {
+    WorldScene scene = new WorldScene(this.viewWidth, this.viewHeight);
+    Coord first = this.firstVisible();
+    Coord last = this.lastVisible();
+
+    for (int row = first.row; row <= last.row; row++) {
+      for (int col = first.col; col <= last.col; col++) {
+        Posn corner = this.view.toScreen(new Posn(col * this.size, row * this.size));
+        Posn next = this.view.toScreen(new Posn((col + 1) * this.size, (row + 1) * this.size));
+        int tileSize = Math.max(1, Math.max(next.x - corner.x, next.y - corner.y));
+        scene.placeImageXY(this.engine.board.drawCell(row, col, tileSize),
+            corner.x + tileSize / 2, corner.y + tileSize / 2);
       }
     }
+    return scene;
   }
 
-  // constructs the board and adds neighbors
-  public ArrayList<ArrayList<Cell>> makeBoard() {
-    ArrayList<ArrayList<Cell>> board = new ArrayList<ArrayList<Cell>>();
-
-    for (int i = 0; i < rows; i++) {
-      ArrayList<Cell> row = new ArrayList<Cell>();
-      for (int j = 0; j < cols; j++) {
-        row.add(new Cell(false, false, false));
+  // returns the width of the scene, the window in viewport mode and the board otherwise
+  int sceneWidth() {
+    if (this.viewWidth > 0) {
+      return this.viewWidth;
+    }
+    return this.cols * this.size;
+  }
 
-      }
-      board.add(row);
+  // returns the height of the scene, the window in viewport mode and the board otherwise
+  int sceneHeight() {
+    if (this.viewWidth > 0) {
+      return this.viewHeight;
     }
+    return this.rows * this.size;
+  }
 
-    for (int i = 0; i < rows; i++) {
-      for (int j = 0; j < cols; j++ ) {
-        Cell curr = board.get(i).get(j);
-        if (i < rows - 1) {
-          Cell bottom = board.get(i + 1).get(j);
-          curr.addNeighbors(bottom);
-          if (j > 0) {
-            Cell bottomLeft = board.get(i + 1).get(j - 1);
-            curr.addNeighbors(bottomLeft);
-          }
-          if (j < cols - 1) {
-            Cell bottomRight = board.get(i + 1).get(j + 1);
-            curr.addNeighbors(bottomRight);
-          }
-        }
-        if (j < cols - 1) {
-          Cell right = board.get(i).get(j + 1);
-          curr.addNeighbors(right);
-        }
-      }
+  // EFFECT: switches to only drawing the part of the board that fits in a window
+  // of the given size, the arrow keys scroll it and + and - zoom in and out
+  void useViewport(int width, int height) {
+    if (width <= 0 || height <= 0) {
+      throw new IllegalArgumentException("Viewport must have a positive size.");
     }
-    return board;
+    this.viewWidth = width;
+    this.viewHeight = height;
+    this.moveCamera(0, 0, 1);
+  }
+
+  // EFFECT: scrolls the camera by (dx, dy) board pixels and multiplies its zoom by zoom,
+  // keeping the middle of the window where it was and the window over the board
+  void moveCamera(double dx, double dy, double zoom) {
+    double scale = Math.max(MIN_ZOOM, Math.min(MAX_ZOOM, this.view.scale * zoom));
+    double centerX = this.view.offsetX + this.viewWidth / 2.0 / this.view.scale + dx;
+    double centerY = this.view.offsetY + this.viewHeight / 2.0 / this.view.scale + dy;
+    double maxX = Math.max(0, this.cols * this.size - this.viewWidth / scale);
+    double maxY = Math.max(0, this.rows * this.size - this.viewHeight / scale);
+
+    this.view = new ViewTransform(
+        Math.max(0, Math.min(maxX, centerX - this.viewWidth / 2.0 / scale)),
+        Math.max(0, Math.min(maxY, centerY - this.viewHeight / 2.0 / scale)), scale);
+  }
+
+  // returns the top left cell that can be seen through the viewport
+  Coord firstVisible() {
+    return new Coord(Math.max(0, (int) Math.floor(this.view.offsetY / this.size)),
+        Math.max(0, (int) Math.floor(this.view.offsetX / this.size)));
   }
 
-  //draw a list of cells, represents a row 
-  public WorldImage drawRow(ArrayList<Cell> row, int size) {
-    WorldImage rowImage = new EmptyImage();
+  // returns the bottom right cell that can be seen through the viewport
+  Coord lastVisible() {
+    double right = this.view.offsetX + this.viewWidth / this.view.scale;
+    double bottom = this.view.offsetY + this.viewHeight / this.view.scale;
+    return new Coord(Math.min(this.rows - 1, (int) Math.ceil(bottom / this.size) - 1),
+        Math.min(this.cols - 1, (int) Math.ceil(right / this.size) - 1));
+  }
+
+  //draws the given row of the board
+  public WorldImage drawRow(int row, int size) {
+    return this.drawCells(row, 0, this.engine.board.cols, size);
+  }
 
-    for (Cell cell : row) {
-      rowImage = new BesideImage(rowImage, cell.drawCell(size));
+  //draws the cells of the given row from fromCol up to but not including toCol,
+  //splitting them in half each time so the image tree is only log(cols) deep
+  WorldImage drawCells(int row, int fromCol, int toCol, int size) {
+    if (toCol - fromCol <= 0) {
+      return new EmptyImage();
+    }
+    if (toCol - fromCol == 1) {
+      return this.engine.board.drawCell(row, fromCol, size);
     }
-    return rowImage;
+    int mid = fromCol + (toCol - fromCol) / 2;
+    return new BesideImage(this.drawCells(row, fromCol, mid, size),
+        this.drawCells(row, mid, toCol, size));
   }
 
   //draws the board by drawing each row and stacking them
   public WorldImage drawBoard(int size) {
-    WorldImage boardImage = new EmptyImage();
-    for (ArrayList<Cell> row : this.board) {
-      boardImage = new AboveImage(boardImage, this.drawRow(row, size));
+    return this.drawRows(0, this.engine.board.rows, size);
+  }
+
+  //draws the rows from fromRow up to but not including toRow stacked on each other,
+  //splitting them in half each time so the image tree is only log(rows) deep
+  WorldImage drawRows(int fromRow, int toRow, int size) {
+    if (toRow - fromRow <= 0) {
+      return new EmptyImage();
     }
-    return boardImage;
+    if (toRow - fromRow == 1) {
+      return this.drawRow(fromRow, size);
+    }
+    int mid = fromRow + (toRow - fromRow) / 2;
+    return new AboveImage(this.drawRows(fromRow, mid, size), this.drawRows(mid, toRow, size));
   }
 
   //world end conditions 
   public WorldEnd worldEnds() {
-    boolean winCond = new Utils().isAllRevealed(this);
+    GameStatus status = this.engine.status();
     TextImage loseText = new TextImage("YOU LOSE", size, Color.red);
     TextImage winText = new TextImage("YOU WIN", size, Color.green);
 
     WorldScene scene = this.makeScene();
 
     //lose
-    if (this.gameOver && !this.win) {
-      scene.placeImageXY(loseText, this.cols * this.size / 2,
-          this.rows * this.size / 2);
+    if (status == GameStatus.LOST) {
+      scene.placeImageXY(loseText, this.sceneWidth() / 2, this.sceneHeight() / 2);
       return new WorldEnd(true, scene);
     }
 
     //win
-    if (winCond) {
-      scene.placeImageXY(winText, this.cols * this.size / 2,
-          this.rows * this.size / 2);
+    if (status == GameStatus.WON) {
+      scene.placeImageXY(winText, this.sceneWidth() / 2, this.sceneHeight() / 2);
       return new WorldEnd(true, scene);
     }
     else {
@@ -179,1022 +258,7654 @@ class Minesweeper extends World {
   // on click events 
   // EFFECT: changes occur to the game based on which cell is clicked 
   public void onMouseClicked(Posn pos, String buttonName) {
-    Cell clickedCell = this.clickedCell(pos);
+    Coord clicked = this.clickedCell(pos);
+
+    // only moves that changed the game are recorded, so move n of the
+    // journal is the nth thing the player actually did
+    boolean record = this.journal != null;
 
     // LEFT CLICK
     if (buttonName.equals("LeftButton")) {
-      //player clicks on cell with mine: lose, reveal all mines 
-      if (clickedCell.isMine() && !clickedCell.isFlagged()) {
-        new Utils().revealBoard(this.board);
-        this.gameOver = true;
-        this.win = false;
+      if (!this.engine.reveal(clicked.row, clicked.col).isEmpty() && record) {
+        this.journal.reveal(this.engine, clicked.row, clicked.col);
       }
-      // cell clicked is unrevealed and isn't a mine - floodfill
-      if (!clickedCell.isMine() && !clickedCell.isFlagged()) {
-        clickedCell.revealNeighbors();
-      }
-      // not revealed - nothing should happen
     }
     //RIGHT CLICK
     if (buttonName.equals("RightButton")) {
-      // right and flagged - removes the flag
-      if (clickedCell.isFlagged() && !clickedCell.isRevealed()) {
-        clickedCell.removeFlag();
+      if (this.engine.flag(clicked.row, clicked.col) && record) {
+        this.journal.flag(this.engine, clicked.row, clicked.col);
       }
-      // right and not flagged - adds the flag
-      else if (!clickedCell.isFlagged() && !clickedCell.isRevealed()) {
-        clickedCell.placeFlag();
+    }
+    //MIDDLE CLICK: reveals around a number whose mines are all flagged
+    if (buttonName.equals("MiddleButton")) {
+      if (!this.engine.chord(clicked.row, clicked.col).isEmpty() && record) {
+        this.journal.chord(this.engine, clicked.row, clicked.col);
       }
-      // right and revealed - nothing
     }
   }
 
-  //given pos, returns which cell is within that pos
-  Cell clickedCell(Posn pos) {   
-    int matchingRow = 0;
-    int matchingCol = 0;
+  //given pos, returns the (row, col) of the cell within that pos
+  //a cell covers the pixels from its top/left border up to but not including
+  //its bottom/right border, so a click on a border goes to the cell below/right of it.
+  //clicks off the board give a coord that isn't inBounds
+  Coord clickedCell(Posn pos) {   
+    Posn boardPos = this.view.toBoard(pos);
+    return new Coord(Math.floorDiv(boardPos.y, this.size), 
+        Math.floorDiv(boardPos.x, this.size));
+  }
 
-    //if given x coord is within x range, update to that index
-    //if given y coord is within y range, update to that index
-    for (int i = 0; i < board.size(); i++)  { //for every row 
-      int minY = i * size;
-      int maxY = minY + size;
-      if (pos.y < maxY && pos.y > minY) {
-        matchingRow = i;
+  
+  // EFFECT: in viewport mode the arrow keys scroll one cell and + and - zoom,
+  // "r" restarts the game
+  public void onKeyEvent(String key) {
+    if (this.viewWidth > 0) {
+      if (key.equals("left")) {
+        this.moveCamera(-this.size, 0, 1);
+        return;
       }
-      for (int x = 0; x < board.get(i).size(); x++) { // for every cell in row
-        int minX = x * size;
-        int maxX = minX + size;
-        if (pos.x < maxX && pos.x > minX) {
-          matchingCol = x;
-        }
+      if (key.equals("right")) {
+        this.moveCamera(this.size, 0, 1);
+        return;
+      }
+      if (key.equals("up")) {
+        this.moveCamera(0, -this.size, 1);
+        return;
+      }
+      if (key.equals("down")) {
+        this.moveCamera(0, this.size, 1);
+        return;
+      }
+      if (key.equals("+") || key.equals("=")) {
+        this.moveCamera(0, 0, 2);
+        return;
+      }
+      if (key.equals("-")) {
+        this.moveCamera(0, 0, 0.5);
+        return;
+      }
+    }
+    // restarts on the same board, any other key does nothing
+    if (key.equals("r")) {
+      long seed = this.rand.nextLong();
+      this.engine.reset(seed);
+      if (this.journal != null) {
+        this.journal.reset(this.engine, seed);
       }
     }
-    Cell cellInRange = this.board.get(matchingRow).get(matchingCol);  
-    return cellInRange;
   }
 
-  
-  public void onKeyEvent(String key) {
-    ArrayList<Coord> positions = new ArrayList<Coord>();
-    Minesweeper newGame = new Minesweeper(this.rows, this.cols, 
-        this.numMines, this.size);
-    if (key.equals("r")) {
-      this.rows = newGame.rows;
-      this.cols = newGame.cols;
-      this.numMines = newGame.numMines;
-      this.board = newGame.makeBoard();
-      positions = new Utils().randomGen(numMines, rows, cols, new Random());
-      setMine(positions);
-      this.size = newGame.size;
-      this.gameOver = false;
-      // returning new Game
+  // EFFECT: writes the game to the file at path
+  void save(Path path) throws IOException {
+    new SaveFile().save(this.engine, path);
+  }
+
+  // EFFECT: replaces the game with the one saved in the file at path,
+  // a journal being recorded starts over from the loaded game and the
+  // viewport is moved back over the new board
+  void load(Path path) throws IOException {
+    this.engine = new SaveFile().load(path);
+    this.rows = this.engine.rows;
+    this.cols = this.engine.cols;
+    this.numMines = this.engine.numMines;
+    if (this.viewWidth > 0) {
+      this.moveCamera(0, 0, 1);
+    }
+    if (this.journal != null) {
+      this.startJournal(this.journal.path, this.journal.snapshotEvery);
+    }
+  }
+
+  // EFFECT: records every move from now on to a MoveJournal at path, with a
+  // snapshot of the game every snapshotEvery moves
+  void startJournal(Path path, int snapshotEvery) throws IOException {
+    if (this.journal != null) {
+      this.journal.close();
     }
+    this.journal = new MoveJournal(path, this.engine, snapshotEvery);
   }
 
 }
 
-//represents a cell in the game
-class Cell {
-  ArrayList<Cell> neighbors;
-  Boolean revealed;
-  Boolean mine;
-  Boolean flagged;
+// represents where a game is at
+enum GameStatus {
+  PLAYING, WON, LOST
+}
 
-  Cell(Boolean revealed, Boolean mine, Boolean flagged) {
-    this.neighbors = new ArrayList<Cell>();
-    this.revealed = revealed;
-    this.mine = mine;
-    this.flagged = flagged;
+// represents a game of minesweeper played on plain (row, col) coordinates,
+// with nothing to do with drawing, so games can be run without a window
+class GameEngine {
+  int rows;
+  int cols;
+  int numMines;
+  PackedBoard board;
+  boolean lost;
+  boolean debug; // cross-checks the running win count against a full scan
+  Solver solver; // made the first time a hint is asked for, null until then
+  MineProbabilities chances; // made the first time they're asked for, null until then
+  Random pending; // mines wait for the first reveal and are drawn from this, null once placed
+  int safeRadius; // the first reveal has no mines within this many cells, -1 for none
+  long seed; // what the mines are drawn from, if seeded
+  boolean seeded;
+  Random seedRand; // reused by every reset(long), null until the first one
+  int parallelAbove; // boards with more cells than this reveal with a ParallelRevealEngine
+  boolean useRegions; // work out ZeroRegions whenever mines are placed
+  ZeroRegions regions; // the groups of empty cells, null unless useRegions was on
+
+  GameEngine(int rows, int cols, int numMines) {
+    if (numMines > rows * cols) {
+      throw new IllegalArgumentException("More mines than squares. Check again.");
+    }
+    this.rows = rows;
+    this.cols = cols;
+    this.numMines = numMines;
+    this.board = this.makeBoard();
+    this.lost = false;
+    this.debug = false;
+    this.solver = null;
+    this.chances = null;
+    this.pending = null;
+    this.safeRadius = 1;
+    this.seed = 0;
+    this.seeded = false;
+    this.seedRand = null;
+    this.parallelAbove = 1 << 20;
+    this.useRegions = false;
+    this.regions = null;
   }
 
-  /* CELL TEMPLATE
+  /* GAMEENGINE TEMPLATE
    * FIELDS
-   * this.neighbors  -ArrayList<Cell>
-   * this.revealed   -Boolean
-   * this.mine       -Boolean
-   * this.flagged    -Boolean
+   * this.rows       -int
+   * this.cols       -int
+   * this.numMines   -int
+   * this.board      -PackedBoard
+   * this.lost       -boolean
+   * this.debug      -boolean
+   * this.solver     -Solver
+   * this.chances    -MineProbabilities
+   * this.pending    -Random
+   * this.safeRadius -int
+   * this.seed       -long
+   * this.seeded     -boolean
+   * this.seedRand   -Random
+   * this.parallelAbove   -int
+   * this.useRegions -boolean
+   * this.regions    -ZeroRegions
    * 
    * METHODS
-   * this.count()             -int
-   * this.addNeighbors(Cell)  -void
-   * this.hasNearbyMine()     -boolean
-   * this.drawCell(int)       -WorldImage
-   * this.revealNeighbors()   -void
-   * 
-   * this.placeMine()    -void
-   * this.revealCell()   -void
-   * this.placeFlag()    -void
-   * this.removeFlag()   -void
-   * this.isMine()       -boolean
-   * this.isRevealed()   -boolean
-   * this.isFlagged()    -boolean
-   * 
+   * this.makeBoard()                 -PackedBoard
+   * this.setMine(ArrayList<Coord>)   -void
+   * this.reset(Random)               -void
+   * this.reset(long)                 -void
+   * this.start(ArrayList<Coord>)     -void
+   * this.placeAround(int, int)       -void
+   * this.reveal(int, int)            -ArrayList<Coord>
+   * this.flag(int, int)              -boolean
+   * this.chord(int, int)             -ArrayList<Coord>
+   * this.hint()                      -Hint
+   * this.startSolver()               -Solver
+   * this.mineChances()               -double[]
+   * this.status()                    -GameStatus
+   * this.allRevealed()               -boolean
    */
 
-  // counts the number of mines in neighboring cells
-  public int count() {
-    int num = 0;
+  // constructs an empty board, neighbors are worked out from each cell's index
+  PackedBoard makeBoard() {
+    return new PackedBoard(this.rows, this.cols);
+  }
 
-    for (Cell c: neighbors) {
-      if (c.mine) {
-        num++;
+  // EFFECT: places mines in the given cells, skipping any that are off the board,
+  // and works out the groups of empty cells if useRegions is on
+  void setMine(ArrayList<Coord> mineCoords) {
+    for (Coord coord : mineCoords) {
+      if (this.board.inBounds(coord.row, coord.col)) {
+        this.board.placeMine(coord.row, coord.col);
       }
     }
-    return num;
+    if (this.useRegions) {
+      this.regions = new ZeroRegions(this.board);
+    }
   }
 
-  // EFFECT: adds the given cell to this cell's list of neighbors 
-  // and adds this cell to the given cell's list of neighbors
-  public void addNeighbors(Cell c) {
-    this.neighbors.add(c);
-    c.neighbors.add(this);
+  // EFFECT: starts a new game on the same board. the mines are drawn from r when
+  // the first cell is revealed, keeping clear of it, so the first reveal never loses
+  // clears the board in one pass and allocates nothing
+  void reset(Random r) {
+    this.board.wipe();
+    this.lost = false;
+    this.solver = null;
+    this.chances = null;
+    this.regions = null;
+    this.pending = r;
+    this.seeded = false;
   }
 
-  // checks neighbors list to see if there are any neighboring mines 
-  public boolean hasNearbyMine() {
-    for (Cell neighbor : neighbors) {
-      if (neighbor.mine) {
-        return true;
-      }
+  // EFFECT: starts a new game on the same board with mines drawn from a Random
+  // seeded with seed, so the game can be saved or replayed
+  void reset(long seed) {
+    if (this.seedRand == null) {
+      this.seedRand = new Random();
     }
-    return false;
+    this.seedRand.setSeed(seed);
+    this.reset(this.seedRand);
+    this.seed = seed;
+    this.seeded = true;
   }
 
-  // draws the cell
-  public WorldImage drawCell(int size) {
-    // outline
-    RectangleImage outline = new RectangleImage(size, size, OutlineMode.OUTLINE,
-        Color.black);
-    // gray square with outline
-    OverlayImage grayCell = new OverlayImage(outline,
-        new RectangleImage(size, size, OutlineMode.SOLID, Color.gray));
-    // white square with outline
-    OverlayImage whiteCell = new OverlayImage(outline,
-        new RectangleImage(size, size, OutlineMode.SOLID, Color.white));
+  // EFFECT: starts a new game on the same board with the given mines
+  void start(ArrayList<Coord> mines) {
+    this.board.wipe();
+    this.regions = null;
+    this.setMine(mines);
+    this.lost = false;
+    this.solver = null;
+    this.chances = null;
+    this.pending = null;
+    this.seeded = false;
+  }
 
-    // draw cell that is flagged 
-    if (this.flagged) {
-      return new OverlayImage(new EquilateralTriangleImage(size / 2, 
-          OutlineMode.SOLID, Color.ORANGE), grayCell);
+  // EFFECT: places the mines waiting for the first reveal, none of them within
+  // safeRadius cells of (row, col), or closer if there isn't room for them all
+  void placeAround(int row, int col) {
+    int radius = this.safeRadius;
+    while (radius >= 0 && this.numMines > this.rows * this.cols 
+        - (Math.min(this.rows - 1, row + radius) - Math.max(0, row - radius) + 1)
+        * (Math.min(this.cols - 1, col + radius) - Math.max(0, col - radius) + 1)) {
+      radius--;
     }
-    // draw cell that is revelead and has a mine
-    if (this.revealed && this.mine) {
-      return new OverlayImage(new CircleImage(size / 4, OutlineMode.SOLID, Color.BLACK),
-          whiteCell);
+    if (radius < 0) {
+      this.setMine(new Utils().randomGen(this.numMines, this.rows, this.cols, this.pending));
     }
-    // draw hidden cell 
-    else if (!this.revealed && !this.flagged) {
-      return grayCell;
+    else {
+      this.setMine(new Utils().randomGenAvoiding(this.numMines, this.rows, this.cols,
+          new Coord(row, col), radius, this.pending));
     }
-    // draw cell that is revealed and has neighboring mines, different colors for each num 
-    else if (this.revealed && this.hasNearbyMine()) {
-      if (this.count() == 1) {
-        return new OverlayImage(new TextImage(Integer.toString(this.count()), size / 2,
-            Color.BLUE), whiteCell);
-      }
-      if (this.count() == 2) {
-        return new OverlayImage(new TextImage(Integer.toString(this.count()), size / 2,
-            Color.GREEN), whiteCell);
-      }
-      if (this.count() == 3) {
-        return new OverlayImage(new TextImage(Integer.toString(this.count()), size / 2,
-            Color.ORANGE), whiteCell);
-      }
-      if (this.count() == 4) {
-        return new OverlayImage(new TextImage(Integer.toString(this.count()), size / 2,
-            Color.RED), whiteCell);
-      }
-      if (this.count() == 5) {
-        return new OverlayImage(new TextImage(Integer.toString(this.count()), size / 2,
-            Color.MAGENTA), whiteCell);
-      }
-      else {
-        return new OverlayImage(new TextImage(Integer.toString(this.count()), size / 2,
-            Color.BLACK), whiteCell);
-      }
+    this.pending = null;
+  }
+
+  // EFFECT: uncovers the cell at (row, col), flooding out from it if it has no
+  // neighboring mines. uncovering a mine loses the game and reveals the board.
+  // flagged cells, cells off the board and moves after the game is over do nothing
+  // returns the coords of the newly revealed cells
+  ArrayList<Coord> reveal(int row, int col) {
+    if (!this.board.inBounds(row, col) || this.status() != GameStatus.PLAYING
+        || this.board.isFlagged(row, col)) {
+      return new ArrayList<Coord>();
+    }
+    if (this.pending != null) {
+      this.placeAround(row, col);
+    }
+    //player uncovers a mine: lose, reveal all mines 
+    if (this.board.isMine(row, col)) {
+      new Utils().revealBoard(this.board);
+      this.lost = true;
+      ArrayList<Coord> mine = new ArrayList<Coord>();
+      mine.add(new Coord(row, col));
+      return mine;
+    }
+    // a cell in a group of empty cells reveals the whole group in one pass
+    ArrayList<Coord> revealed = null;
+    if (this.regions != null) {
+      revealed = this.regions.reveal(this.board, this.board.index(row, col));
+    }
+    if (revealed == null && this.board.cells.length > this.parallelAbove) {
+      revealed = new ParallelRevealEngine().reveal(this.board, row, col);
     }
-    // draw cell that is revealed and doesnt have neighboring mines 
-    else { 
-      return whiteCell;
+    else if (revealed == null) {
+      revealed = new RevealEngine().reveal(this.board, row, col);
     }
+    if (this.solver != null) {
+      this.solver.revealed(revealed);
+    }
+    return revealed;
   }
 
-  // EFFECT: loops through reveals all of the neighbors 
-  // of the cell that aren't mines
-  public void revealNeighbors() {
-    if (!this.revealed && !this.flagged) {
-      this.revealed = true;
+  // EFFECT: flags the hidden cell at (row, col), or unflags it if it was flagged
+  // revealed cells, cells off the board and moves after the game is over do nothing
+  // returns whether anything changed
+  boolean flag(int row, int col) {
+    if (!this.board.inBounds(row, col) || this.status() != GameStatus.PLAYING
+        || this.board.isRevealed(row, col)) {
+      return false;
+    }
+    if (this.board.isFlagged(row, col)) {
+      this.board.removeFlag(row, col);
+    }
+    else {
+      this.board.placeFlag(row, col);
+    }
+    if (this.regions != null) {
+      this.regions.flagChanged(this.board, this.board.index(row, col));
+    }
+    return true;
+  }
 
-      if (this.count() == 0 && !this.mine) {
-        new Utils().floodfill(this.neighbors);
+  // EFFECT: if (row, col) is a revealed number with exactly that many flags around
+  // it, reveals every other hidden cell around it and the openings they lead to in
+  // one flood. if one of them is a mine the flags were wrong and the game is lost
+  // returns the coords of the newly revealed cells, or of the mines that were hit
+  ArrayList<Coord> chord(int row, int col) {
+    ArrayList<Coord> revealed = new ArrayList<Coord>();
+    if (!this.board.inBounds(row, col) || this.status() != GameStatus.PLAYING
+        || !this.board.isRevealed(row, col)
+        || this.board.isMine(row, col) || this.board.count(row, col) == 0) {
+      return revealed;
+    }
+    int[] around = new int[8];
+    int n = this.board.neighbors(this.board.index(row, col), around);
+    int flags = 0;
+    for (int i = 0; i < n; i++) {
+      if (this.board.has(around[i], PackedBoard.FLAGGED)) {
+        flags++;
       }
     }
-  }
+    if (flags != this.board.count(row, col)) {
+      return revealed;
+    }
 
-  // Effect: places mines in cells
-  public void placeMine() {
-    this.mine = true;
-  }
+    // a wrong flag means one of the cells is a mine: the game is lost
+    int hidden = 0;
+    for (int i = 0; i < n; i++) {
+      if (!this.board.has(around[i], PackedBoard.REVEALED | PackedBoard.FLAGGED)) {
+        around[hidden++] = around[i];
+        if (this.board.has(around[i], PackedBoard.MINE)) {
+          revealed.add(new Coord(around[i] / this.cols, around[i] % this.cols));
+        }
+      }
+    }
+    if (!revealed.isEmpty()) {
+      new Utils().revealBoard(this.board);
+      this.lost = true;
+      return revealed;
+    }
 
-  // Effect: reveals cell
-  public void revealCell() {
-    this.revealed = true;
+    // otherwise they're all revealed in one flood, and the solver hears about it once
+    if (this.board.cells.length > this.parallelAbove) {
+      revealed = new ParallelRevealEngine().revealFrom(this.board, around, hidden);
+    }
+    else {
+      revealed = new RevealEngine().revealFrom(this.board, around, hidden);
+    }
+    if (this.solver != null) {
+      this.solver.revealed(revealed);
+    }
+    return revealed;
   }
 
-  // Effect: flags cell
-  public void placeFlag() {
-    this.flagged = true;
-
+  // returns a move the numbers on the board prove is right, or null if there isn't one
+  Hint hint() {
+    return this.startSolver().hint();
   }
 
-  // Effect: unflags cell 
-  public void removeFlag() {
-    this.flagged = false;
+  // EFFECT: makes the solver if there isn't one yet
+  // returns the solver
+  Solver startSolver() {
+    if (this.solver == null) {
+      this.solver = new Solver(this.board);
+    }
+    return this.solver;
   }
 
-  // returns whether the cell contains a mine
-  public boolean isMine() {
-    return this.mine;
+  // returns the chance that each cell is a mine, indexed like the board,
+  // given the revealed numbers and how many mines there are
+  double[] mineChances() {
+    if (this.chances == null) {
+      this.chances = new MineProbabilities(this);
+    }
+    return this.chances.compute();
   }
 
-  // returns whether the cell is revealed
-  public boolean isRevealed() {
-    return this.revealed;
+  // returns whether the game is still going, won or lost
+  GameStatus status() {
+    if (this.lost) {
+      return GameStatus.LOST;
+    }
+    else if (this.pending == null && this.allRevealed()) {
+      return GameStatus.WON;
+    }
+    else {
+      return GameStatus.PLAYING;
+    }
   }
 
-  // returns whether the cell is revealed
-  public boolean isFlagged() {
-    return this.flagged;
+  // checks if all cells without mines are revealed using the board's
+  // running count, so it doesn't have to look at every cell
+  // in debug mode, throws if the running count has drifted from a full scan
+  boolean allRevealed() {
+    if (this.debug 
+        && (this.board.revealedSafe != new Utils().countRevealedSafe(this.board)
+        || this.board.revealedSafe != this.board.countRevealedSafe())) {
+      throw new IllegalStateException("Revealed cell count drifted from the board.");
+    }
+    return this.board.revealedSafe == this.cols * this.rows - this.numMines;
   }
-
 }
 
-// represents a coordinate (row,col)
-class Coord {
-  int row;
-  int col;
+// represents a move the solver is sure of: cell is a mine or it's safe to reveal
+class Hint {
+  Coord cell;
+  boolean mine;
 
-  Coord(int row, int col) {
-    this.row = row;
-    this.col = col;
+  Hint(Coord cell, boolean mine) {
+    this.cell = cell;
+    this.mine = mine;
   }
 
-  /* COORD TEMPLATE
+  /* HINT TEMPLATE
    * FIELDS
-   * this.row    -int
-   * this.col    -int
+   * this.cell   -Coord
+   * this.mine   -boolean
    */
 }
 
-//util class for random methods 
-class Utils {
-  Random rand = new Random();
+// represents a first in, first out list of cell indices that grows as needed
+class IntQueue {
+  int[] items;
+  int head; // next item to take
+  int tail; // where the next item goes
 
-  //produces a random list of n distinct coords
-  ArrayList<Coord> randomGen(int n, int rows, int cols, Random r) {
-    ArrayList<Coord> currentList = new ArrayList<Coord>();
+  IntQueue() {
+    this.items = new int[16];
+    this.head = 0;
+    this.tail = 0;
+  }
 
-    while (currentList.size() < n) {
-      //generate a random coord
-      Coord randCoord = randomCoord(rows, cols, r);
-      if (!currentList.contains(randCoord)) {
-        currentList.add(randCoord);
+  /* INTQUEUE TEMPLATE
+   * FIELDS
+   * this.items   -int[]
+   * this.head    -int
+   * this.tail    -int
+   * 
+   * METHODS
+   * this.add(int)      -void
+   * this.take()        -int
+   * this.isEmpty()     -boolean
+   */
+
+  // EFFECT: adds idx to the back of the queue
+  void add(int idx) {
+    if (this.tail == this.items.length) {
+      if (this.head > this.items.length / 2) {
+        // more than half the array has been taken, slide what's left to the front
+        System.arraycopy(this.items, this.head, this.items, 0, this.tail - this.head);
       }
-      //if it doesnt exist in currentlist, add to currentlist
-      //else generate another random coord 
+      else {
+        this.items = Arrays.copyOf(this.items, this.items.length * 2);
+        System.arraycopy(this.items, this.head, this.items, 0, this.tail - this.head);
+      }
+      this.tail -= this.head;
+      this.head = 0;
     }
-    return currentList; 
+    this.items[this.tail++] = idx;
   }
 
-  //randomCoord method for testing 
-  Coord randomCoord(int rows, int cols, Random r) {
-    return new Coord(r.nextInt(rows), r.nextInt(cols));
-
+  // EFFECT: removes the item at the front of the queue
+  // returns that item
+  int take() {
+    int idx = this.items[this.head++];
+    if (this.head == this.tail) {
+      this.head = 0;
+      this.tail = 0;
+    }
+    return idx;
   }
 
-  //EFFECT: given a board, reveals all cells
-  void revealBoard(ArrayList<ArrayList<Cell>> board) {
-    for (int i = 0; i < board.size(); i++) { //row 
+  // is the queue empty?
+  boolean isEmpty() {
+    return this.head == this.tail;
+  }
+}
 
-      ArrayList<Cell> row = board.get(i);
-      for (Cell c : row) {
-        c.revealCell();
+// works out which hidden cells are certainly safe or certainly mines from what a
+// player can see: the revealed numbers. flags are ignored, since they might be wrong.
+// single cell and pair rules come first, and only when they run out are the
+// frontier components they couldn't settle enumerated exactly.
+// the solver is told about each move, so it only looks again at the numbers
+// around cells that changed
+class Solver {
+  static final byte SAFE = 1;
+  static final byte MINE = 2;
+  static final byte QUEUED = 1; // in work
+  static final byte CANDIDATE = 2; // in candidates
+  static final byte SEEN = 4; // already put in a component this round
+  static final int MAX_COMPONENT = 32; // most hidden cells to enumerate together
+
+  PackedBoard board;
+  byte[] known; // SAFE or MINE for hidden cells the solver is sure of, 0 otherwise
+  byte[] marks; // QUEUED and CANDIDATE bits
+  IntQueue work; // numbers to check again
+  IntQueue candidates; // numbers the rules couldn't finish, for enumeration
+  IntQueue safe; // cells found safe, some may have been revealed since
+  IntQueue mines; // cells found to be mines
+  IntQueue seen; // numbers and cells marked SEEN, so the marks can be cleared
+  int[] around;
+  int componentsEnumerated;
+
+  Solver(PackedBoard board) {
+    this.board = board;
+    this.known = new byte[board.cells.length];
+    this.marks = new byte[board.cells.length];
+    this.work = new IntQueue();
+    this.candidates = new IntQueue();
+    this.safe = new IntQueue();
+    this.mines = new IntQueue();
+    this.seen = new IntQueue();
+    this.around = new int[8];
+    this.componentsEnumerated = 0;
+    // only revealed cells can be numbers, so walk the set bits of the revealed bitset
+    // instead of every cell
+    for (int w = 0; w < board.revealedBits.length; w++) {
+      long word = board.revealedBits[w];
+      while (word != 0) {
+        this.queue((w << 6) + Long.numberOfTrailingZeros(word));
+        word &= word - 1;
       }
     }
   }
 
-  //given arraylist<cells> checks if all cells 
-  //without mines are revealed
-  boolean isAllRevealed(Minesweeper ms) {
-    ArrayList<ArrayList<Cell>> board = ms.board;
-    int count = 0;
+  /* SOLVER TEMPLATE
+   * FIELDS
+   * this.board                 -PackedBoard
+   * this.known                 -byte[]
+   * this.marks                 -byte[]
+   * this.work                  -IntQueue
+   * this.candidates            -IntQueue
+   * this.safe                  -IntQueue
+   * this.mines                 -IntQueue
+   * this.seen                  -IntQueue
+   * this.around                -int[]
+   * this.componentsEnumerated  -int
+   * 
+   * METHODS
+   * this.revealed(ArrayList<Coord>)   -void
+   * this.hint()                       -Hint
+   * this.nextSafe()                   -int
+   * this.isKnownSafe(int, int)        -boolean
+   * this.isKnownMine(int, int)        -boolean
+   * this.queue(int)                   -void
+   * this.queueAround(int)             -void
+   * this.isUnknown(int)               -boolean
+   * this.propagate()                  -void
+   * this.check(int)                   -void
+   * this.unknownsAround(int, int[])   -int
+   * this.minesAround(int)             -int
+   * this.comparePair(int[], int, int, int[], int, int)   -void
+   * this.contains(int[], int, int)    -boolean
+   * this.markAll(int[], int, int[], int, byte)           -void
+   * this.settle(int, byte)            -void
+   * this.enumerate()                  -void
+   * this.enumerateFrom(int)          -void
+   * this.isSeen(int)                 -boolean
+   * this.markSeen(int)               -void
+   * this.clearSeen()                 -void
+   * this.component(int)              -FrontierComponent
+   * this.solveAll()                   -void
+   */
 
-    //if its not a mine and revealed add to result
-    for (int i = 0; i < board.size(); i++) {
-      for (int x = 0; x < board.get(i).size(); x++) {
-        if (!board.get(i).get(x).mine 
-            && board.get(i).get(x).revealed ) {
-          count = count + 1;
-        }
-      }
+  // EFFECT: notes that the given cells were just revealed, so the numbers
+  // on and around them need checking again
+  void revealed(ArrayList<Coord> cells) {
+    for (Coord c : cells) {
+      int idx = this.board.index(c.row, c.col);
+      this.queue(idx);
+      this.queueAround(idx);
     }
-    // check if count is correct number  
-    return count == ms.cols * ms.rows - ms.numMines; 
   }
 
-  // EFFECT: checks its neighbors to floodfill
-  public void floodfill(ArrayList<Cell> arr) {
-    for (int i = 0; i < arr.size(); i++) {
-      arr.get(i).revealNeighbors();
+  // returns a cell that is certainly safe to reveal if there is one, otherwise
+  // a hidden cell that is certainly a mine and isn't flagged, or null if nothing is certain
+  Hint hint() {
+    int idx = this.nextSafe();
+    if (idx >= 0) {
+      return new Hint(new Coord(idx / this.board.cols, idx % this.board.cols), false);
     }
+    for (int i = this.mines.head; i < this.mines.tail; i++) {
+      int mine = this.mines.items[i];
+      if (!this.board.has(mine, PackedBoard.FLAGGED)) {
+        return new Hint(new Coord(mine / this.board.cols, mine % this.board.cols), true);
+      }
+    }
+    return null;
   }
-}
 
-class ExampleMinesweeper {
-  Minesweeper ms;
-  Minesweeper ms2;
-  Minesweeper ms3;
-  Minesweeper ms4;
+  // EFFECT: runs the rules, then enumeration, until a safe hidden cell turns up
+  // or there is nothing left to learn
+  // returns the index of that cell, or -1 if there isn't one
+  int nextSafe() {
+    while (true) {
+      while (!this.safe.isEmpty()) {
+        int idx = this.safe.items[this.safe.head];
+        if (!this.board.has(idx, PackedBoard.REVEALED)) {
+          return idx;
+        }
+        this.safe.take();
+      }
+      if (!this.work.isEmpty()) {
+        this.propagate();
+      }
+      else if (!this.candidates.isEmpty()) {
+        this.enumerate();
+      }
+      else {
+        return -1;
+      }
+    }
+  }
+
+  // is the hidden cell at (row, col) certainly safe, as far as the solver knows so far?
+  boolean isKnownSafe(int row, int col) {
+    return this.known[this.board.index(row, col)] == SAFE;
+  }
+
+  // is the cell at (row, col) certainly a mine, as far as the solver knows so far?
+  boolean isKnownMine(int row, int col) {
+    return this.known[this.board.index(row, col)] == MINE;
+  }
+
+  // EFFECT: adds the cell at idx to the work queue if it's a revealed number
+  // and isn't queued already
+  void queue(int idx) {
+    if ((this.marks[idx] & QUEUED) == 0 && this.board.has(idx, PackedBoard.REVEALED)
+        && !this.board.has(idx, PackedBoard.MINE) && this.board.count(idx) > 0) {
+      this.marks[idx] |= QUEUED;
+      this.work.add(idx);
+    }
+  }
+
+  // EFFECT: queues the numbers around the cell at idx
+  void queueAround(int idx) {
+    int n = this.board.neighbors(idx, this.around);
+    for (int i = 0; i < n; i++) {
+      this.queue(this.around[i]);
+    }
+  }
+
+  // is the cell at idx hidden with nothing known about it?
+  boolean isUnknown(int idx) {
+    return !this.board.has(idx, PackedBoard.REVEALED) && this.known[idx] == 0;
+  }
+
+  // EFFECT: checks numbers until none of them can tell the solver anything new
+  // but stops as soon as a safe cell is found
+  void propagate() {
+    while (!this.work.isEmpty() && this.safe.isEmpty()) {
+      int idx = this.work.take();
+      this.marks[idx] &= ~QUEUED;
+      this.check(idx);
+    }
+  }
+
+  // EFFECT: applies the single cell rule to the number at idx, then the pair rule
+  // with every number close enough to share a hidden cell with it. if neither
+  // settles all its hidden cells, keeps it for enumeration
+  void check(int idx) {
+    int[] cellsA = new int[8];
+    int unknownA = this.unknownsAround(idx, cellsA);
+    if (unknownA == 0) {
+      return;
+    }
+    int minesA = this.board.count(idx) - this.minesAround(idx);
+    if (minesA == 0) {
+      this.markAll(cellsA, unknownA, null, 0, SAFE);
+      return;
+    }
+    if (minesA == unknownA) {
+      this.markAll(cellsA, unknownA, null, 0, MINE);
+      return;
+    }
+
+    int row = idx / this.board.cols;
+    int col = idx % this.board.cols;
+    int[] cellsB = new int[8];
+    for (int r = row - 2; r <= row + 2; r++) {
+      for (int c = col - 2; c <= col + 2; c++) {
+        if ((r != row || c != col) && this.board.inBounds(r, c)) {
+          int other = this.board.index(r, c);
+          if (this.board.has(other, PackedBoard.REVEALED) 
+              && !this.board.has(other, PackedBoard.MINE)) {
+            int unknownB = this.unknownsAround(other, cellsB);
+            if (unknownB > 0) {
+              int minesB = this.board.count(other) - this.minesAround(other);
+              this.comparePair(cellsA, unknownA, minesA, cellsB, unknownB, minesB);
+            }
+          }
+        }
+      }
+    }
+
+    if (this.unknownsAround(idx, cellsA) > 0 && (this.marks[idx] & CANDIDATE) == 0) {
+      this.marks[idx] |= CANDIDATE;
+      this.candidates.add(idx);
+    }
+  }
+
+  // EFFECT: puts the unknown cells around idx at the front of cells
+  // returns how many there are
+  int unknownsAround(int idx, int[] cells) {
+    int n = this.board.neighbors(idx, cells);
+    int count = 0;
+    for (int i = 0; i < n; i++) {
+      if (this.isUnknown(cells[i])) {
+        cells[count++] = cells[i];
+      }
+    }
+    return count;
+  }
+
+  // returns how many cells around idx the solver knows are mines
+  int minesAround(int idx) {
+    int n = this.board.neighbors(idx, this.around);
+    int count = 0;
+    for (int i = 0; i < n; i++) {
+      if (this.known[this.around[i]] == MINE) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  // EFFECT: settles cells using two numbers with unknown cells a and b that need
+  // mA and mB more mines. the cells they share hold the same mines for both, so
+  // if A needs as many more mines than B as it has cells of its own, all of A's own
+  // cells are mines and none of B's own cells are (and the same the other way round)
+  void comparePair(int[] a, int countA, int mA, int[] b, int countB, int mB) {
+    int onlyA = 0;
+    for (int i = 0; i < countA; i++) {
+      if (!this.contains(b, countB, a[i])) {
+        onlyA++;
+      }
+    }
+    int onlyB = countB - (countA - onlyA);
+    if (onlyA == countA) {
+      return; // nothing shared
+    }
+    if (mA - mB == onlyA && (onlyA > 0 || onlyB > 0)) {
+      this.markAll(a, countA, b, countB, MINE);
+      this.markAll(b, countB, a, countA, SAFE);
+    }
+    else if (mB - mA == onlyB && (onlyA > 0 || onlyB > 0)) {
+      this.markAll(b, countB, a, countA, MINE);
+      this.markAll(a, countA, b, countB, SAFE);
+    }
+  }
+
+  // does the start of cells, count long, contain idx?
+  boolean contains(int[] cells, int count, int idx) {
+    for (int i = 0; i < count; i++) {
+      if (cells[i] == idx) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  // EFFECT: settles every one of the first count cells that isn't one of the
+  // first exceptCount cells of except (except may be null) as what
+  void markAll(int[] cells, int count, int[] except, int exceptCount, byte what) {
+    for (int i = 0; i < count; i++) {
+      if (except == null || !this.contains(except, exceptCount, cells[i])) {
+        this.settle(cells[i], what);
+      }
+    }
+  }
+
+  // EFFECT: records that the hidden cell at idx is what, if it wasn't known yet,
+  // and queues the numbers around it
+  void settle(int idx, byte what) {
+    if (!this.isUnknown(idx)) {
+      return;
+    }
+    this.known[idx] = what;
+    if (what == SAFE) {
+      this.safe.add(idx);
+    }
+    else {
+      this.mines.add(idx);
+    }
+    this.queueAround(idx);
+  }
+
+  // EFFECT: enumerates the component of every candidate number that hasn't been
+  // looked at yet this round, settling the cells that are the same in every
+  // arrangement of mines that fits the numbers
+  void enumerate() {
+    while (!this.candidates.isEmpty()) {
+      int idx = this.candidates.take();
+      this.marks[idx] &= ~CANDIDATE;
+      if (!this.isSeen(idx)) {
+        this.enumerateFrom(idx);
+      }
+    }
+    this.clearSeen();
+  }
+
+  // EFFECT: if the component of the number at start has few enough cells, tries every
+  // arrangement of mines in them that fits all of its numbers and settles the cells
+  // that agree in all of them. if counting stops at FrontierComponent.MAX_STEPS
+  // nothing in the component is settled, since a partial count can't prove anything,
+  // and MineProbabilities gives its cells the same chance as the cells off the frontier
+  // every number and cell visited is marked SEEN
+  void enumerateFrom(int start) {
+    FrontierComponent component = this.component(start);
+    if (component == null || component.cells.length > MAX_COMPONENT) {
+      return;
+    }
+    this.componentsEnumerated++;
+    ComponentCount count = component.count();
+    double total = count.total();
+    if (!count.complete || total == 0) {
+      return;
+    }
+    for (int i = 0; i < count.cells.length; i++) {
+      double mineIn = count.minesIn(i);
+      if (mineIn == 0) {
+        this.settle(count.cells[i], SAFE);
+      }
+      else if (mineIn == total) {
+        this.settle(count.cells[i], MINE);
+      }
+    }
+  }
+
+  // has the number or cell at idx been put in a component since the last clearSeen?
+  boolean isSeen(int idx) {
+    return (this.marks[idx] & SEEN) != 0;
+  }
+
+  // EFFECT: marks the number or cell at idx SEEN
+  void markSeen(int idx) {
+    this.marks[idx] |= SEEN;
+    this.seen.add(idx);
+  }
+
+  // EFFECT: clears every SEEN mark
+  void clearSeen() {
+    while (!this.seen.isEmpty()) {
+      this.marks[this.seen.take()] &= ~SEEN;
+    }
+  }
+
+  // EFFECT: marks every number and cell visited SEEN
+  // returns the numbers linked to the number at start through unknown cells they
+  // share, with those cells, or null if start has no unknown cells around it
+  FrontierComponent component(int start) {
+    ArrayList<Integer> numbers = new ArrayList<Integer>();
+    ArrayList<Integer> cells = new ArrayList<Integer>();
+    HashMap<Integer, Integer> cellSlot = new HashMap<Integer, Integer>();
+    int[] nearby = new int[8];
+    int[] next = new int[8];
+    this.markSeen(start);
+    numbers.add(start);
+    for (int i = 0; i < numbers.size(); i++) {
+      int count = this.unknownsAround(numbers.get(i), nearby);
+      for (int j = 0; j < count; j++) {
+        int cell = nearby[j];
+        if (!this.isSeen(cell)) {
+          cellSlot.put(cell, cells.size());
+          cells.add(cell);
+          this.markSeen(cell);
+          // numbers around this cell share it, so they belong to the same component
+          int n = this.board.neighbors(cell, next);
+          for (int k = 0; k < n; k++) {
+            if (!this.isSeen(next[k]) && this.board.has(next[k], PackedBoard.REVEALED)
+                && !this.board.has(next[k], PackedBoard.MINE)) {
+              this.markSeen(next[k]);
+              numbers.add(next[k]);
+            }
+          }
+        }
+      }
+    }
+    if (cells.isEmpty()) {
+      return null;
+    }
+
+    // for each cell, the numbers it touches, and for each number, the mines it
+    // still needs and how many unknown cells it has
+    int[] cellArray = new int[cells.size()];
+    int[] need = new int[numbers.size()];
+    int[] open = new int[numbers.size()];
+    int[][] touchedBy = new int[cells.size()][8];
+    int[] touchCount = new int[cells.size()];
+    for (int i = 0; i < cells.size(); i++) {
+      cellArray[i] = cells.get(i);
+    }
+    for (int i = 0; i < numbers.size(); i++) {
+      int idx = numbers.get(i);
+      need[i] = this.board.count(idx) - this.minesAround(idx);
+      open[i] = this.unknownsAround(idx, nearby);
+      for (int j = 0; j < open[i]; j++) {
+        int slot = cellSlot.get(nearby[j]);
+        touchedBy[slot][touchCount[slot]++] = i;
+      }
+    }
+    int[][] touches = new int[cells.size()][];
+    for (int i = 0; i < cells.size(); i++) {
+      touches[i] = Arrays.copyOf(touchedBy[i], touchCount[i]);
+    }
+    return new FrontierComponent(cellArray, touches, need, open);
+  }
+
+  // EFFECT: runs the rules and enumeration until there is nothing left to learn
+  void solveAll() {
+    while (!this.work.isEmpty() || !this.candidates.isEmpty()) {
+      while (!this.work.isEmpty()) {
+        int idx = this.work.take();
+        this.marks[idx] &= ~QUEUED;
+        this.check(idx);
+      }
+      this.enumerate();
+    }
+  }
+}
+
+// represents hidden cells next to revealed numbers that are linked by the numbers
+// they share, so how mines sit in them doesn't depend on any other cells
+class FrontierComponent {
+  static final int MAX_STEPS = 1 << 20; // most choices to try before giving up on a count
+
+  int[] cells; // board indices
+  int[][] touches; // for each cell, the numbers it's next to
+  int[] need; // for each number, the mines it still needs
+  int[] open; // for each number, how many of the cells it's next to
+  String key; // the same for any component whose numbers need the same mines from
+               // the same cells
+
+  FrontierComponent(int[] cells, int[][] touches, int[] need, int[] open) {
+    this.cells = cells;
+    this.touches = touches;
+    this.need = need;
+    this.open = open;
+    // each number as the mines it needs and the sorted cells it touches, sorted so
+    // the order the numbers were found in doesn't matter
+    int[][] cellsOf = new int[need.length][];
+    int[] filled = new int[need.length];
+    for (int j = 0; j < need.length; j++) {
+      cellsOf[j] = new int[open[j]];
+    }
+    for (int i = 0; i < cells.length; i++) {
+      for (int number : touches[i]) {
+        cellsOf[number][filled[number]++] = cells[i];
+      }
+    }
+    String[] numbers = new String[need.length];
+    for (int j = 0; j < need.length; j++) {
+      Arrays.sort(cellsOf[j]);
+      numbers[j] = need[j] + Arrays.toString(cellsOf[j]);
+    }
+    Arrays.sort(numbers);
+    this.key = String.join(";", numbers);
+  }
+
+  /* FRONTIERCOMPONENT TEMPLATE
+   * FIELDS
+   * this.cells     -int[]
+   * this.touches   -int[][]
+   * this.need      -int[]
+   * this.open      -int[]
+   * this.key       -String
+   * 
+   * METHODS
+   * this.count()                                              -ComponentCount
+   * this.countFrom(int, int, int[], int[], boolean[], ComponentCount)   -void
+   */
+
+  // returns how many arrangements of mines fit the numbers, by how many mines they use,
+  // and how many of those have a mine in each cell
+  ComponentCount count() {
+    ComponentCount result = new ComponentCount(this.cells);
+    this.countFrom(0, 0, this.need.clone(), this.open.clone(), new boolean[this.cells.length],
+        result);
+    return result;
+  }
+
+  // EFFECT: tries cell i and every later cell as safe and as a mine, backing out of
+  // any choice that leaves a number needing more mines than it has cells left or
+  // fewer than none, and adds every arrangement that fits to result. after
+  // MAX_STEPS calls it stops and marks result incomplete
+  void countFrom(int i, int mines, int[] need, int[] open, boolean[] mine, 
+      ComponentCount result) {
+    if (!result.complete) {
+      return;
+    }
+    if (++result.steps > MAX_STEPS) {
+      result.complete = false;
+      return;
+    }
+    if (i == this.cells.length) {
+      result.ways[mines]++;
+      for (int j = 0; j < mine.length; j++) {
+        if (mine[j]) {
+          result.mineWays[j][mines]++;
+        }
+      }
+      return;
+    }
+    for (int choice = 0; choice < 2; choice++) {
+      boolean isMine = choice == 1;
+      boolean fits = true;
+      for (int number : this.touches[i]) {
+        open[number]--;
+        if (isMine) {
+          need[number]--;
+        }
+        if (need[number] < 0 || need[number] > open[number]) {
+          fits = false;
+        }
+      }
+      if (fits) {
+        mine[i] = isMine;
+        this.countFrom(i + 1, mines + choice, need, open, mine, result);
+        mine[i] = false;
+      }
+      for (int number : this.touches[i]) {
+        open[number]++;
+        if (isMine) {
+          need[number]++;
+        }
+      }
+    }
+  }
+}
+
+// represents the arrangements of mines that fit a FrontierComponent
+class ComponentCount {
+  int[] cells; // board indices, in the order of mineWays
+  double[] ways; // arrangements using k mines, by k
+  double[][] mineWays; // for each cell, arrangements using k mines with a mine in it
+  int steps; // calls to countFrom so far
+  boolean complete; // false if counting gave up, so ways and mineWays are partial
+
+  ComponentCount(int[] cells) {
+    this.cells = cells;
+    this.ways = new double[cells.length + 1];
+    this.mineWays = new double[cells.length][cells.length + 1];
+    this.steps = 0;
+    this.complete = true;
+  }
+
+  /* COMPONENTCOUNT TEMPLATE
+   * FIELDS
+   * this.cells      -int[]
+   * this.ways       -double[]
+   * this.mineWays   -double[][]
+   * this.steps      -int
+   * this.complete   -boolean
+   * 
+   * METHODS
+   * this.total()        -double
+   * this.minesIn(int)   -double
+   */
+
+  // returns how many arrangements fit
+  double total() {
+    double total = 0;
+    for (double w : this.ways) {
+      total += w;
+    }
+    return total;
+  }
+
+  // returns how many arrangements that fit have a mine in cell i
+  double minesIn(int i) {
+    double total = 0;
+    for (double w : this.mineWays[i]) {
+      total += w;
+    }
+    return total;
+  }
+}
+
+// counts one component's arrangements on a fork join worker
+class CountTask extends RecursiveTask<ComponentCount> {
+  private static final long serialVersionUID = 1L;
+
+  FrontierComponent component;
+
+  CountTask(FrontierComponent component) {
+    this.component = component;
+  }
+
+  /* COUNTTASK TEMPLATE
+   * FIELDS
+   * this.component   -FrontierComponent
+   * 
+   * METHODS
+   * this.compute()   -ComponentCount
+   */
+
+  // returns the component's count
+  protected ComponentCount compute() {
+    return this.component.count();
+  }
+}
+
+// works out the chance that each cell of a game is a mine, given what the player
+// can see and how many mines the game has. the frontier is split into components
+// that are counted separately, in parallel, and counts are kept for the next move
+// for any component that didn't change
+class MineProbabilities {
+  static final int EXACT_CELLS = 200; // most frontier cells to combine exactly
+
+  GameEngine game;
+  HashMap<String, ComponentCount> counts; // by FrontierComponent key, from the last call
+  int componentsCounted; // components that weren't in counts and had to be counted
+
+  MineProbabilities(GameEngine game) {
+    this.game = game;
+    this.counts = new HashMap<String, ComponentCount>();
+    this.componentsCounted = 0;
+  }
+
+  /* MINEPROBABILITIES TEMPLATE
+   * FIELDS
+   * this.game                -GameEngine
+   * this.counts              -HashMap<String, ComponentCount>
+   * this.componentsCounted   -int
+   * 
+   * METHODS
+   * this.compute()                                         -double[]
+   * this.combineExactly(ArrayList<ComponentCount>, int, int, double[])   -void
+   * this.combineApproximately(ArrayList<ComponentCount>, int, int, double[])   -void
+   * this.fillOthers(int, double, double[])                 -void
+   * this.convolve(double[], double[])                      -double[]
+   * this.mineCountWeights(int, int, int)                   -double[]
+   */
+
+  // returns the chance that each cell is a mine, indexed like the board.
+  // revealed cells and cells the solver has proved safe are 0, proved mines are 1
+  double[] compute() {
+    Solver solver = this.game.startSolver();
+    solver.solveAll();
+    PackedBoard board = this.game.board;
+    double[] chance = new double[board.cells.length];
+
+    // settle known cells, then split the rest of the numbers' cells into components
+    int knownMines = 0;
+    int unknown = 0;
+    ArrayList<FrontierComponent> components = new ArrayList<FrontierComponent>();
+    for (int idx = 0; idx < board.cells.length; idx++) {
+      if (solver.known[idx] == Solver.MINE) {
+        chance[idx] = 1;
+        knownMines++;
+      }
+      else if (solver.isUnknown(idx)) {
+        unknown++;
+      }
+      else if (board.has(idx, PackedBoard.REVEALED) && !solver.isSeen(idx)
+          && !board.has(idx, PackedBoard.MINE) && board.count(idx) > 0) {
+        FrontierComponent component = solver.component(idx);
+        if (component != null) {
+          components.add(component);
+        }
+      }
+    }
+    solver.clearSeen();
+
+    // count the components that changed in parallel, reusing the rest
+    HashMap<String, ComponentCount> nextCounts = new HashMap<String, ComponentCount>();
+    ArrayList<CountTask> tasks = new ArrayList<CountTask>();
+    ArrayList<ComponentCount> counted = new ArrayList<ComponentCount>();
+    for (FrontierComponent component : components) {
+      // components too big to count have their cells treated like the rest
+      if (component.cells.length <= Solver.MAX_COMPONENT) {
+        ComponentCount count = this.counts.get(component.key);
+        if (count == null) {
+          CountTask task = new CountTask(component);
+          task.fork();
+          tasks.add(task);
+        }
+        else {
+          nextCounts.put(component.key, count);
+          counted.add(count);
+        }
+      }
+    }
+    for (int i = 0; i < tasks.size(); i++) {
+      ComponentCount count = tasks.get(i).join();
+      nextCounts.put(tasks.get(i).component.key, count);
+      counted.add(count);
+      this.componentsCounted++;
+    }
+    this.counts = nextCounts;
+
+    // so do components with too many arrangements to finish counting
+    ArrayList<ComponentCount> results = new ArrayList<ComponentCount>();
+    int frontier = 0;
+    for (ComponentCount count : counted) {
+      if (count.complete) {
+        results.add(count);
+        frontier += count.cells.length;
+      }
+    }
+
+    int remaining = this.game.numMines - knownMines;
+    int others = unknown - frontier; // unknown cells not in a counted component
+    if (frontier <= EXACT_CELLS) {
+      this.combineExactly(results, remaining, others, chance);
+    }
+    else {
+      this.combineApproximately(results, remaining, others, chance);
+    }
+    return chance;
+  }
+
+  // EFFECT: fills in chance for every unknown cell, weighing each way the remaining
+  // mines can be split between the components and the other cells by how many
+  // ways the other cells can hold their share
+  void combineExactly(ArrayList<ComponentCount> results, int remaining, int others,
+      double[] chance) {
+    // before[i] combines components 0 to i - 1, after[i] components i + 1 on
+    int size = results.size();
+    double[][] before = new double[size + 1][];
+    double[][] after = new double[size + 1][];
+    before[0] = new double[] {1};
+    after[size] = new double[] {1};
+    for (int i = 0; i < size; i++) {
+      before[i + 1] = this.convolve(before[i], results.get(i).ways);
+    }
+    for (int i = size - 1; i >= 0; i--) {
+      after[i] = this.convolve(results.get(i).ways, after[i + 1]);
+    }
+    double[] all = before[size];
+    double[] weight = this.mineCountWeights(remaining, others, all.length - 1);
+    double total = 0;
+    double otherMines = 0;
+    for (int k = 0; k < all.length; k++) {
+      total += all[k] * weight[k];
+      otherMines += all[k] * weight[k] * (remaining - k);
+    }
+    if (total == 0) {
+      return; // the numbers can't be right, nothing to work out
+    }
+
+    for (int c = 0; c < size; c++) {
+      ComponentCount count = results.get(c);
+      double[] rest = this.convolve(before[c], after[c + 1]);
+      // weight of this component using k mines, summed over everything else
+      double[] given = new double[count.ways.length];
+      for (int k = 0; k < given.length; k++) {
+        for (int j = 0; j < rest.length && k + j < weight.length; j++) {
+          given[k] += rest[j] * weight[k + j];
+        }
+      }
+      for (int i = 0; i < count.cells.length; i++) {
+        double p = 0;
+        for (int k = 0; k < given.length; k++) {
+          p += count.mineWays[i][k] * given[k];
+        }
+        chance[count.cells[i]] = p / total;
+      }
+    }
+    this.fillOthers(others, otherMines / total, chance);
+  }
+
+  // EFFECT: fills in chance for every unknown cell, treating the components as
+  // independent, each extra mine in one weighted by the odds of a mine among the
+  // other cells. those odds come from the expected mines left over, worked out
+  // again a few times. close to exact when there are many more other cells than
+  // frontier cells, which is the only time it's used
+  void combineApproximately(ArrayList<ComponentCount> results, int remaining, int others,
+      double[] chance) {
+    double expected = 0; // mines expected in the components
+    double odds = 1;
+    for (int round = 0; round < 4; round++) {
+      double left = Math.max(0, remaining - expected);
+      odds = left / Math.max(1, others - left + 1);
+      expected = 0;
+      for (ComponentCount count : results) {
+        double total = 0;
+        double mines = 0;
+        double power = 1;
+        for (int k = 0; k < count.ways.length; k++) {
+          total += count.ways[k] * power;
+          mines += count.ways[k] * power * k;
+          power *= odds;
+        }
+        if (total > 0) {
+          expected += mines / total;
+        }
+      }
+    }
+    for (ComponentCount count : results) {
+      double total = 0;
+      double power = 1;
+      for (int k = 0; k < count.ways.length; k++) {
+        total += count.ways[k] * power;
+        power *= odds;
+      }
+      for (int i = 0; i < count.cells.length && total > 0; i++) {
+        double p = 0;
+        power = 1;
+        for (int k = 0; k < count.ways.length; k++) {
+          p += count.mineWays[i][k] * power;
+          power *= odds;
+        }
+        chance[count.cells[i]] = p / total;
+      }
+    }
+    this.fillOthers(others, Math.max(0, remaining - expected), chance);
+  }
+
+  // EFFECT: spreads mines evenly over the unknown cells that haven't been given a chance,
+  // including the cells of components whose count gave up
+  void fillOthers(int others, double mines, double[] chance) {
+    if (others <= 0) {
+      return;
+    }
+    Solver solver = this.game.solver;
+    boolean[] counted = new boolean[chance.length];
+    for (ComponentCount count : this.counts.values()) {
+      if (count.complete) {
+        for (int cell : count.cells) {
+          counted[cell] = true;
+        }
+      }
+    }
+    double p = Math.min(1, mines / others);
+    for (int idx = 0; idx < chance.length; idx++) {
+      if (solver.isUnknown(idx) && !counted[idx]) {
+        chance[idx] = p;
+      }
+    }
+  }
+
+  // returns the product of the polynomials with coefficients a and b
+  double[] convolve(double[] a, double[] b) {
+    double[] result = new double[a.length + b.length - 1];
+    for (int i = 0; i < a.length; i++) {
+      if (a[i] != 0) {
+        for (int j = 0; j < b.length; j++) {
+          result[i + j] += a[i] * b[j];
+        }
+      }
+    }
+    return result;
+  }
+
+  // returns, for k from 0 to most, the number of ways to put the other remaining - k
+  // mines in others cells, scaled so the biggest is 1 so big boards can't overflow
+  double[] mineCountWeights(int remaining, int others, int most) {
+    double[] logs = new double[most + 1];
+    double best = Double.NEGATIVE_INFINITY;
+    // log C(others, m) for m = remaining - k, built up from m = 0
+    double logChoose = 0;
+    int m = 0;
+    for (int k = most; k >= 0; k--) {
+      int want = remaining - k;
+      if (want < 0 || want > others) {
+        logs[k] = Double.NEGATIVE_INFINITY;
+        continue;
+      }
+      while (m < want) {
+        logChoose += Math.log(others - m) - Math.log(m + 1);
+        m++;
+      }
+      logs[k] = logChoose;
+      best = Math.max(best, logChoose);
+    }
+    double[] weight = new double[most + 1];
+    for (int k = 0; k <= most; k++) {
+      if (logs[k] != Double.NEGATIVE_INFINITY) {
+        weight[k] = Math.exp(logs[k] - best);
+      }
+    }
+    return weight;
+  }
+}
+
+// represents a way of picking the next cell to uncover in a game
+interface MoveStrategy {
+  // returns the cell to reveal next in the given game
+  Coord nextMove(GameEngine game, Random rand);
+}
+
+// represents a player who uncovers hidden, unflagged cells at random
+class RandomStrategy implements MoveStrategy {
+
+  /* RANDOMSTRATEGY TEMPLATE
+   * METHODS
+   * this.nextMove(GameEngine, Random)   -Coord
+   */
+
+  // returns a random cell that is still hidden and not flagged
+  public Coord nextMove(GameEngine game, Random rand) {
+    PackedBoard board = game.board;
+    int idx = rand.nextInt(board.cells.length);
+    while (board.has(idx, PackedBoard.REVEALED | PackedBoard.FLAGGED)) {
+      idx = rand.nextInt(board.cells.length);
+    }
+    return new Coord(idx / board.cols, idx % board.cols);
+  }
+}
+
+// represents a player who reveals cells the solver proves are safe and
+// guesses at random, avoiding known mines, when there aren't any
+class SolverStrategy implements MoveStrategy {
+
+  /* SOLVERSTRATEGY TEMPLATE
+   * METHODS
+   * this.nextMove(GameEngine, Random)   -Coord
+   */
+
+  // returns a cell that's certainly safe, or a random hidden cell that isn't a known mine
+  public Coord nextMove(GameEngine game, Random rand) {
+    Hint hint = game.hint();
+    if (hint != null && !hint.mine) {
+      return hint.cell;
+    }
+    PackedBoard board = game.board;
+    int idx = rand.nextInt(board.cells.length);
+    while (board.has(idx, PackedBoard.REVEALED | PackedBoard.FLAGGED)
+        || game.solver.known[idx] == Solver.MINE) {
+      idx = rand.nextInt(board.cells.length);
+    }
+    return new Coord(idx / board.cols, idx % board.cols);
+  }
+}
+
+// represents the totals from a batch of simulated games
+class BatchResult {
+  int games;
+  int wins;
+  long clicks;
+  long nanos; // time spent playing, added up over every worker
+
+  BatchResult() {
+    this.games = 0;
+    this.wins = 0;
+    this.clicks = 0;
+    this.nanos = 0;
+  }
+
+  /* BATCHRESULT TEMPLATE
+   * FIELDS
+   * this.games    -int
+   * this.wins     -int
+   * this.clicks   -long
+   * this.nanos    -long
+   * 
+   * METHODS
+   * this.add(BatchResult)    -BatchResult
+   * this.winRate()           -double
+   * this.clicksPerGame()     -double
+   * this.msPerGame()         -double
+   */
+
+  // EFFECT: adds the other totals into these ones
+  // returns this result
+  BatchResult add(BatchResult other) {
+    this.games += other.games;
+    this.wins += other.wins;
+    this.clicks += other.clicks;
+    this.nanos += other.nanos;
+    return this;
+  }
+
+  // returns the fraction of games won
+  double winRate() {
+    if (this.games == 0) {
+      return 0;
+    }
+    return (double) this.wins / this.games;
+  }
+
+  // returns the average number of reveals per game
+  double clicksPerGame() {
+    if (this.games == 0) {
+      return 0;
+    }
+    return (double) this.clicks / this.games;
+  }
+
+  // returns the average milliseconds spent on one game
+  double msPerGame() {
+    if (this.games == 0) {
+      return 0;
+    }
+    return this.nanos / 1e6 / this.games;
+  }
+}
+
+// represents a batch of games played by one strategy on boards of one shape.
+// game i always gets the same mines and the same moves for a given seed, so
+// a batch comes out the same however many threads play it
+class BatchSimulator {
+  int rows;
+  int cols;
+  int numMines;
+  long seed;
+  MoveStrategy strategy;
+
+  BatchSimulator(int rows, int cols, int numMines, long seed, MoveStrategy strategy) {
+    if (numMines > rows * cols) {
+      throw new IllegalArgumentException("More mines than squares. Check again.");
+    }
+    this.rows = rows;
+    this.cols = cols;
+    this.numMines = numMines;
+    this.seed = seed;
+    this.strategy = strategy;
+  }
+
+  /* BATCHSIMULATOR TEMPLATE
+   * FIELDS
+   * this.rows       -int
+   * this.cols       -int
+   * this.numMines   -int
+   * this.seed       -long
+   * this.strategy   -MoveStrategy
+   * 
+   * METHODS
+   * this.run(int, int)                       -BatchResult
+   * this.playRange(int, int)                 -BatchResult
+   * this.playGame(GameEngine, Random, int)   -int
+   * this.gameSeed(int)                       -long
+   */
+
+  // plays games 0 to games - 1 split across the given number of threads
+  // returns their totals
+  BatchResult run(int games, int threads) {
+    if (threads < 1) {
+      throw new IllegalArgumentException("Need at least one thread.");
+    }
+    ForkJoinPool pool = new ForkJoinPool(threads);
+    try {
+      return pool.invoke(new SimulateTask(this, 0, games, threads));
+    }
+    finally {
+      pool.shutdown();
+    }
+  }
+
+  // plays games from to to - 1 on one board and one Random, reseeded for every game
+  // returns their totals
+  BatchResult playRange(int from, int to) {
+    BatchResult result = new BatchResult();
+    GameEngine game = new GameEngine(this.rows, this.cols, this.numMines);
+    Random rand = new Random();
+    long start = System.nanoTime();
+    for (int i = from; i < to; i++) {
+      int clicks = this.playGame(game, rand, i);
+      result.games++;
+      result.clicks += clicks;
+      if (game.status() == GameStatus.WON) {
+        result.wins++;
+      }
+    }
+    result.nanos = System.nanoTime() - start;
+    return result;
+  }
+
+  // EFFECT: resets the game to game number i and plays it to the end
+  // returns the number of reveals it took
+  int playGame(GameEngine game, Random rand, int i) {
+    rand.setSeed(this.gameSeed(i));
+    game.reset(rand);
+    int clicks = 0;
+    while (game.status() == GameStatus.PLAYING) {
+      Coord move = this.strategy.nextMove(game, rand);
+      game.reveal(move.row, move.col);
+      clicks++;
+    }
+    return clicks;
+  }
+
+  // returns the seed for game number i
+  long gameSeed(int i) {
+    return new Utils().mixSeed(this.seed, i);
+  }
+}
+
+// represents part of a batch, split in half until each piece is one thread's share
+class SimulateTask extends RecursiveTask<BatchResult> {
+  private static final long serialVersionUID = 1L;
+
+  BatchSimulator sim;
+  int from;
+  int to;
+  int pieces; // how many workers this range should be shared between
+
+  SimulateTask(BatchSimulator sim, int from, int to, int pieces) {
+    this.sim = sim;
+    this.from = from;
+    this.to = to;
+    this.pieces = pieces;
+  }
+
+  /* SIMULATETASK TEMPLATE
+   * FIELDS
+   * this.sim      -BatchSimulator
+   * this.from     -int
+   * this.to       -int
+   * this.pieces   -int
+   * 
+   * METHODS
+   * this.compute()   -BatchResult
+   */
+
+  // plays this range, forking half of it off if there's more than one worker for it
+  // each worker keeps its own totals, which are only added together once it's done
+  protected BatchResult compute() {
+    if (this.pieces <= 1 || this.to - this.from <= 1) {
+      return this.sim.playRange(this.from, this.to);
+    }
+    int half = this.pieces / 2;
+    int mid = this.from + (int) ((long) (this.to - this.from) * half / this.pieces);
+    SimulateTask left = new SimulateTask(this.sim, this.from, mid, half);
+    SimulateTask right = new SimulateTask(this.sim, mid, this.to, this.pieces - half);
+    left.fork();
+    BatchResult result = right.compute();
+    return result.add(left.join());
+  }
+}
+
+// represents how a NoGuessGenerator has done so far
+class GeneratorStats {
+  long attempts; // candidate boards made
+  long repairs; // mines moved to get a stuck candidate going again
+  int accepted; // boards handed back
+  int timeouts; // calls that ran out of time
+  long nanos; // time spent generating
+
+  GeneratorStats() {
+    this.attempts = 0;
+    this.repairs = 0;
+    this.accepted = 0;
+    this.timeouts = 0;
+    this.nanos = 0;
+  }
+
+  /* GENERATORSTATS TEMPLATE
+   * FIELDS
+   * this.attempts   -long
+   * this.repairs    -long
+   * this.accepted   -int
+   * this.timeouts   -int
+   * this.nanos      -long
+   * 
+   * METHODS
+   * this.attemptsPerBoard()   -double
+   * this.msPerBoard()         -double
+   */
+
+  // returns the average number of candidates made for each board handed back
+  double attemptsPerBoard() {
+    if (this.accepted == 0) {
+      return 0;
+    }
+    return (double) this.attempts / this.accepted;
+  }
+
+  // returns the average milliseconds spent on each board handed back
+  double msPerBoard() {
+    if (this.accepted == 0) {
+      return 0;
+    }
+    return this.nanos / 1e6 / this.accepted;
+  }
+}
+
+// makes boards that the Solver can clear from the first click without ever guessing.
+// candidates keep the first click and its neighbors clear of mines, and when the
+// solver gets stuck on one a mine it couldn't place is moved somewhere out of sight,
+// a few times, before the candidate is thrown away.
+// candidate i is always made and repaired from the same seed, and the lowest numbered
+// candidate that works is the one handed back, so the board for a seed doesn't
+// depend on the number of threads
+class NoGuessGenerator {
+  static final int MAX_REPAIRS = 8;
+  static final long DEFAULT_BUDGET = 10000000000L; // 10 seconds
+
+  int rows;
+  int cols;
+  int numMines;
+  int threads;
+  long budgetNanos; // give up on a board after this long
+  GeneratorStats stats;
+
+  NoGuessGenerator(int rows, int cols, int numMines, int threads, long budgetNanos) {
+    if (numMines > rows * cols - 9) {
+      throw new IllegalArgumentException("Too many mines to keep the first click clear.");
+    }
+    if (threads < 1) {
+      throw new IllegalArgumentException("Need at least one thread.");
+    }
+    this.rows = rows;
+    this.cols = cols;
+    this.numMines = numMines;
+    this.threads = threads;
+    this.budgetNanos = budgetNanos;
+    this.stats = new GeneratorStats();
+  }
+
+  /* NOGUESSGENERATOR TEMPLATE
+   * FIELDS
+   * this.rows          -int
+   * this.cols          -int
+   * this.numMines      -int
+   * this.threads       -int
+   * this.budgetNanos   -long
+   * this.stats         -GeneratorStats
+   * 
+   * METHODS
+   * this.generate(Coord, long)                                  -ArrayList<Coord>
+   * this.attempt(Coord, long, int, GameEngine, Random, GenerateRun)   -ArrayList<Coord>
+   * this.candidate(Coord, Random)                               -ArrayList<Coord>
+   * this.nearFirst(Coord, int, int)                             -boolean
+   * this.solves(GameEngine, ArrayList<Coord>, Coord)            -boolean
+   * this.solves(GameEngine, ArrayList<Coord>, Coord, long)      -boolean
+   * this.repair(GameEngine, ArrayList<Coord>, Coord, Random)    -boolean
+   */
+
+  // returns mines for a board that can be solved without guessing starting with a
+  // click on first, or null if none was found within the time budget
+  ArrayList<Coord> generate(Coord first, long seed) {
+    long start = System.nanoTime();
+    GenerateRun run = new GenerateRun(this, first, seed, start + this.budgetNanos);
+    ForkJoinPool pool = new ForkJoinPool(this.threads);
+    try {
+      ArrayList<GenerateTask> tasks = new ArrayList<GenerateTask>();
+      for (int i = 0; i < this.threads; i++) {
+        tasks.add(new GenerateTask(run));
+        pool.execute(tasks.get(i));
+      }
+      for (GenerateTask task : tasks) {
+        task.join();
+      }
+    }
+    finally {
+      pool.shutdown();
+    }
+    synchronized (this.stats) {
+      this.stats.attempts += run.attempts.get();
+      this.stats.repairs += run.repairs.get();
+      this.stats.nanos += System.nanoTime() - start;
+      if (run.mines == null) {
+        this.stats.timeouts++;
+      }
+      else {
+        this.stats.accepted++;
+      }
+    }
+    return run.mines;
+  }
+
+  // returns the mines of candidate number i, repaired until the solver can clear it,
+  // or null if it couldn't be repaired before the run's deadline. game and rand are
+  // reused between candidates
+  ArrayList<Coord> attempt(Coord first, long seed, int i, GameEngine game, Random rand,
+      GenerateRun run) {
+    rand.setSeed(new Utils().mixSeed(seed, i));
+    ArrayList<Coord> mines = this.candidate(first, rand);
+    for (int repair = 0; !this.solves(game, mines, first, run.deadline); repair++) {
+      if (repair == MAX_REPAIRS || System.nanoTime() > run.deadline
+          || !this.repair(game, mines, first, rand)) {
+        return null;
+      }
+      run.repairs.incrementAndGet();
+    }
+    return mines;
+  }
+
+  // returns numMines random mines, none of them on or next to first
+  ArrayList<Coord> candidate(Coord first, Random rand) {
+    ArrayList<Coord> mines = new Utils().randomGen(this.numMines, this.rows, this.cols, rand);
+    boolean[] taken = new boolean[this.rows * this.cols];
+    for (Coord mine : mines) {
+      taken[mine.row * this.cols + mine.col] = true;
+    }
+    for (int i = 0; i < mines.size(); i++) {
+      Coord mine = mines.get(i);
+      if (this.nearFirst(first, mine.row, mine.col)) {
+        int idx = rand.nextInt(taken.length);
+        while (taken[idx] || this.nearFirst(first, idx / this.cols, idx % this.cols)) {
+          idx = rand.nextInt(taken.length);
+        }
+        taken[idx] = true;
+        mines.set(i, new Coord(idx / this.cols, idx % this.cols));
+      }
+    }
+    return mines;
+  }
+
+  // is (row, col) first or one of its neighbors?
+  boolean nearFirst(Coord first, int row, int col) {
+    return Math.abs(row - first.row) <= 1 && Math.abs(col - first.col) <= 1;
+  }
+
+  // EFFECT: starts game with the given mines and plays only the moves the solver
+  // is sure of, starting at first
+  // returns whether that cleared the board
+  boolean solves(GameEngine game, ArrayList<Coord> mines, Coord first) {
+    return this.solves(game, mines, first, Long.MAX_VALUE);
+  }
+
+  // EFFECT: like solves, but gives up once System.nanoTime() passes deadline
+  // returns whether the board was cleared in time
+  boolean solves(GameEngine game, ArrayList<Coord> mines, Coord first, long deadline) {
+    game.start(mines);
+    game.reveal(first.row, first.col);
+    while (game.status() == GameStatus.PLAYING) {
+      if (System.nanoTime() > deadline) {
+        return false;
+      }
+      Hint hint = game.hint();
+      if (hint == null || hint.mine) {
+        return false;
+      }
+      game.reveal(hint.cell.row, hint.cell.col);
+    }
+    return game.status() == GameStatus.WON;
+  }
+
+  // EFFECT: moves one of the mines the solver got stuck on in game to a random hidden
+  // cell that isn't next to anything revealed, so the numbers around it change
+  // returns whether there was a mine to move and somewhere to put it
+  boolean repair(GameEngine game, ArrayList<Coord> mines, Coord first, Random rand) {
+    PackedBoard board = game.board;
+    ArrayList<Integer> stuck = new ArrayList<Integer>();
+    ArrayList<Integer> hideouts = new ArrayList<Integer>();
+    int[] around = new int[8];
+    for (int idx = 0; idx < board.cells.length; idx++) {
+      if (board.has(idx, PackedBoard.REVEALED)) {
+        continue;
+      }
+      boolean frontier = false;
+      int n = board.neighbors(idx, around);
+      for (int i = 0; i < n; i++) {
+        frontier = frontier || board.has(around[i], PackedBoard.REVEALED);
+      }
+      if (frontier && board.has(idx, PackedBoard.MINE) && game.solver.known[idx] == 0) {
+        stuck.add(idx);
+      }
+      else if (!frontier && !board.has(idx, PackedBoard.MINE)
+          && !this.nearFirst(first, idx / this.cols, idx % this.cols)) {
+        hideouts.add(idx);
+      }
+    }
+    if (stuck.isEmpty() || hideouts.isEmpty()) {
+      return false;
+    }
+    int from = stuck.get(rand.nextInt(stuck.size()));
+    int to = hideouts.get(rand.nextInt(hideouts.size()));
+    mines.set(mines.indexOf(new Coord(from / this.cols, from % this.cols)),
+        new Coord(to / this.cols, to % this.cols));
+    return true;
+  }
+}
+
+// represents one call to NoGuessGenerator.generate, shared by its worker threads
+class GenerateRun {
+  NoGuessGenerator generator;
+  Coord first;
+  long seed;
+  long deadline; // System.nanoTime() to give up at
+  AtomicInteger next; // the next candidate number to try
+  AtomicInteger attempts;
+  AtomicInteger repairs;
+  int found; // lowest candidate number that worked so far, Integer.MAX_VALUE if none
+  ArrayList<Coord> mines; // its mines
+
+  GenerateRun(NoGuessGenerator generator, Coord first, long seed, long deadline) {
+    this.generator = generator;
+    this.first = first;
+    this.seed = seed;
+    this.deadline = deadline;
+    this.next = new AtomicInteger(0);
+    this.attempts = new AtomicInteger(0);
+    this.repairs = new AtomicInteger(0);
+    this.found = Integer.MAX_VALUE;
+    this.mines = null;
+  }
+
+  /* GENERATERUN TEMPLATE
+   * FIELDS
+   * this.generator   -NoGuessGenerator
+   * this.first       -Coord
+   * this.seed        -long
+   * this.deadline    -long
+   * this.next        -AtomicInteger
+   * this.attempts    -AtomicInteger
+   * this.repairs     -AtomicInteger
+   * this.found       -int
+   * this.mines       -ArrayList<Coord>
+   * 
+   * METHODS
+   * this.isDone(int)                      -boolean
+   * this.offer(int, ArrayList<Coord>)     -void
+   */
+
+  // should a worker about to try candidate i stop instead?
+  // only once a lower numbered candidate has worked, or time is up
+  synchronized boolean isDone(int i) {
+    return i > this.found || System.nanoTime() > this.deadline;
+  }
+
+  // EFFECT: keeps candidate i's mines if no lower numbered candidate has worked
+  synchronized void offer(int i, ArrayList<Coord> mines) {
+    if (i < this.found) {
+      this.found = i;
+      this.mines = mines;
+    }
+  }
+}
+
+// tries candidates in number order on one worker until a GenerateRun is done
+class GenerateTask extends RecursiveTask<Boolean> {
+  private static final long serialVersionUID = 1L;
+
+  GenerateRun run;
+
+  GenerateTask(GenerateRun run) {
+    this.run = run;
+  }
+
+  /* GENERATETASK TEMPLATE
+   * FIELDS
+   * this.run   -GenerateRun
+   * 
+   * METHODS
+   * this.compute()   -Boolean
+   */
+
+  // returns whether this worker found a board
+  protected Boolean compute() {
+    NoGuessGenerator generator = this.run.generator;
+    GameEngine game = new GameEngine(generator.rows, generator.cols, generator.numMines);
+    Random rand = new Random();
+    boolean foundOne = false;
+    int i = this.run.next.getAndIncrement();
+    while (!this.run.isDone(i)) {
+      this.run.attempts.incrementAndGet();
+      ArrayList<Coord> mines = generator.attempt(this.run.first, this.run.seed, i, game, rand,
+          this.run);
+      if (mines != null) {
+        this.run.offer(i, mines);
+        foundOne = true;
+      }
+      i = this.run.next.getAndIncrement();
+    }
+    return foundOne;
+  }
+}
+
+// reads and writes games as binary save files:
+// a 32 byte header, then three bit planes (mines, revealed, flagged) with bit i of
+// word i / 64 for cell i, written as big-endian longs. the neighbor counts aren't
+// saved, they're worked out again from the mines when a game is loaded.
+//   0  int    MAGIC
+//   4  short  VERSION
+//   6  short  LOST | SEEDED | PENDING
+//   8  int    rows
+//  12  int    cols
+//  16  int    numMines
+//  20  int    safeRadius
+//  24  long   seed
+class SaveFile {
+  static final int MAGIC = 0x4D535356; // "MSSV"
+  static final short VERSION = 1;
+  static final int HEADER = 32;
+  static final int LOST = 1;
+  static final int SEEDED = 2; // seed holds what the mines come from
+  static final int PENDING = 4; // no mines yet, they're placed on the first reveal
+  static final int CHUNK = 1 << 16; // bytes written at a time
+
+  long mapAbove; // files bigger than this are memory-mapped instead of read in
+
+  SaveFile() {
+    this.mapAbove = 1 << 20;
+  }
+
+  /* SAVEFILE TEMPLATE
+   * FIELDS
+   * this.mapAbove   -long
+   * 
+   * METHODS
+   * this.save(GameEngine, Path)                      -void
+   * this.save(GameEngine, Path, boolean)             -void
+   * this.writePlane(FileChannel, PackedBoard, int)   -void
+   * this.open(Path)                                  -SavedGame
+   * this.load(Path)                                  -GameEngine
+   */
+
+  // EFFECT: writes the game to the file at path, replacing what was there
+  void save(GameEngine game, Path path) throws IOException {
+    this.save(game, path, false);
+  }
+
+  // EFFECT: writes the game to the file at path, replacing what was there, and if
+  // force is set doesn't return until it's on the disk
+  void save(GameEngine game, Path path, boolean force) throws IOException {
+    FileChannel out = FileChannel.open(path, StandardOpenOption.CREATE,
+        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+    try {
+      ByteBuffer header = ByteBuffer.allocate(HEADER);
+      int flags = 0;
+      if (game.lost) {
+        flags |= LOST;
+      }
+      if (game.seeded) {
+        flags |= SEEDED;
+      }
+      if (game.pending != null) {
+        flags |= PENDING;
+      }
+      header.putInt(MAGIC).putShort(VERSION).putShort((short) flags)
+          .putInt(game.rows).putInt(game.cols).putInt(game.numMines)
+          .putInt(game.safeRadius).putLong(game.seed);
+      header.flip();
+      while (header.hasRemaining()) {
+        out.write(header);
+      }
+      this.writePlane(out, game.board, PackedBoard.MINE);
+      this.writePlane(out, game.board, PackedBoard.REVEALED);
+      this.writePlane(out, game.board, PackedBoard.FLAGGED);
+      if (force) {
+        out.force(false);
+      }
+    }
+    finally {
+      out.close();
+    }
+  }
+
+  // EFFECT: writes one bit per cell of the board, set if the cell has the bit,
+  // a chunk at a time
+  void writePlane(FileChannel out, PackedBoard board, int bit) throws IOException {
+    ByteBuffer chunk = ByteBuffer.allocate(CHUNK);
+    long[] words = board.bits(bit);
+    for (int w = 0; w < words.length; w++) {
+      chunk.putLong(words[w]);
+      if (!chunk.hasRemaining() || w == words.length - 1) {
+        chunk.flip();
+        while (chunk.hasRemaining()) {
+          out.write(chunk);
+        }
+        chunk.clear();
+      }
+    }
+  }
+
+  // returns the save file at path, memory-mapped if it's big, without building a game
+  SavedGame open(Path path) throws IOException {
+    FileChannel in = FileChannel.open(path, StandardOpenOption.READ);
+    try {
+      long size = in.size();
+      if (size < HEADER) {
+        throw new IOException("Not a minesweeper save file.");
+      }
+      ByteBuffer data;
+      if (size > this.mapAbove) {
+        data = in.map(FileChannel.MapMode.READ_ONLY, 0, size);
+      }
+      else {
+        data = ByteBuffer.allocate((int) size);
+        while (data.hasRemaining() && in.read(data) >= 0) {
+          // keep reading until the buffer is full
+        }
+        data.flip();
+      }
+      return new SavedGame(data);
+    }
+    finally {
+      in.close();
+    }
+  }
+
+  // returns the game saved in the file at path
+  GameEngine load(Path path) throws IOException {
+    return this.open(path).toEngine();
+  }
+}
+
+// represents a save file that has been opened but not turned into a game.
+// cells can be looked up straight from the file's bit planes
+class SavedGame {
+  int flags;
+  int rows;
+  int cols;
+  int numMines;
+  int safeRadius;
+  long seed;
+  LongBuffer mines;
+  LongBuffer revealed;
+  LongBuffer flagged;
+
+  SavedGame(ByteBuffer data) throws IOException {
+    if (data.getInt(0) != SaveFile.MAGIC) {
+      throw new IOException("Not a minesweeper save file.");
+    }
+    if (data.getShort(4) != SaveFile.VERSION) {
+      throw new IOException("Unsupported save file version: " + data.getShort(4));
+    }
+    this.flags = data.getShort(6);
+    this.rows = data.getInt(8);
+    this.cols = data.getInt(12);
+    this.numMines = data.getInt(16);
+    this.safeRadius = data.getInt(20);
+    this.seed = data.getLong(24);
+    if (this.rows < 0 || this.cols < 0) {
+      throw new IOException("Not a minesweeper save file.");
+    }
+    long words = ((long) this.rows * this.cols + 63) / 64;
+    if (data.limit() != SaveFile.HEADER + 3 * words * 8) {
+      throw new IOException("Save file is the wrong size.");
+    }
+    LongBuffer planes = data.position(SaveFile.HEADER).slice().asLongBuffer();
+    this.mines = planes.position(0).limit((int) words).slice();
+    this.revealed = planes.limit((int) (2 * words)).position((int) words).slice();
+    this.flagged = planes.limit((int) (3 * words)).position((int) (2 * words)).slice();
+  }
+
+  /* SAVEDGAME TEMPLATE
+   * FIELDS
+   * this.flags        -int
+   * this.rows         -int
+   * this.cols         -int
+   * this.numMines     -int
+   * this.safeRadius   -int
+   * this.seed         -long
+   * this.mines        -LongBuffer
+   * this.revealed     -LongBuffer
+   * this.flagged      -LongBuffer
+   * 
+   * METHODS
+   * this.bit(LongBuffer, int, int)   -boolean
+   * this.isMine(int, int)            -boolean
+   * this.isRevealed(int, int)        -boolean
+   * this.isFlagged(int, int)         -boolean
+   * this.count(int, int)             -int
+   * this.toEngine()                  -GameEngine
+   */
+
+  // is the bit for (row, col) set in the plane?
+  boolean bit(LongBuffer plane, int row, int col) {
+    int idx = row * this.cols + col;
+    return (plane.get(idx >>> 6) & (1L << idx)) != 0;
+  }
+
+  // is there a mine at (row, col)?
+  boolean isMine(int row, int col) {
+    return this.bit(this.mines, row, col);
+  }
+
+  // is the cell at (row, col) revealed?
+  boolean isRevealed(int row, int col) {
+    return this.bit(this.revealed, row, col);
+  }
+
+  // is the cell at (row, col) flagged?
+  boolean isFlagged(int row, int col) {
+    return this.bit(this.flagged, row, col);
+  }
+
+  // returns the number of mines around (row, col)
+  int count(int row, int col) {
+    int count = 0;
+    for (int r = Math.max(0, row - 1); r <= Math.min(this.rows - 1, row + 1); r++) {
+      for (int c = Math.max(0, col - 1); c <= Math.min(this.cols - 1, col + 1); c++) {
+        if ((r != row || c != col) && this.isMine(r, c)) {
+          count++;
+        }
+      }
+    }
+    return count;
+  }
+
+  // returns a game in the saved state, only visiting the set bits of each plane
+  GameEngine toEngine() {
+    GameEngine game = new GameEngine(this.rows, this.cols, this.numMines);
+    game.safeRadius = this.safeRadius;
+    if ((this.flags & SaveFile.PENDING) != 0) {
+      if ((this.flags & SaveFile.SEEDED) != 0) {
+        game.reset(this.seed);
+      }
+      else {
+        game.reset(new Random());
+      }
+    }
+    else if ((this.flags & SaveFile.SEEDED) != 0) {
+      game.seed = this.seed;
+      game.seeded = true;
+    }
+    PackedBoard board = game.board;
+    int[] planeBits = {PackedBoard.MINE, PackedBoard.REVEALED, PackedBoard.FLAGGED};
+    LongBuffer[] planes = {this.mines, this.revealed, this.flagged};
+    for (int p = 0; p < planes.length; p++) {
+      LongBuffer plane = planes[p];
+      for (int w = 0; w < plane.limit(); w++) {
+        long word = plane.get(w);
+        while (word != 0) {
+          int idx = (w << 6) + Long.numberOfTrailingZeros(word);
+          word &= word - 1;
+          if (planeBits[p] == PackedBoard.MINE) {
+            board.placeMine(idx / this.cols, idx % this.cols);
+          }
+          else {
+            board.set(idx, planeBits[p]);
+          }
+        }
+      }
+    }
+    game.lost = (this.flags & SaveFile.LOST) != 0;
+    return game;
+  }
+}
+
+// records the moves of a game to an append-only file so it can be replayed.
+// the file is a 24 byte header (MAGIC, VERSION, rows, cols, the seed of the game
+// when recording started) and then one record per move: a type byte, then the row
+// and column as varints, or for RESET the 8 byte seed it drew the mines from.
+// every snapshotEvery moves the game is saved next to the journal and a CHECKPOINT
+// record with the move number says so, so a replay can start from there
+class MoveJournal {
+  static final int MAGIC = 0x4D534A4C; // "MSJL"
+  static final short VERSION = 1;
+  static final int HEADER = 24;
+  static final byte REVEAL = 1;
+  static final byte FLAG = 2;
+  static final byte CHORD = 3;
+  static final byte RESET = 4;
+  static final byte CHECKPOINT = 5;
+
+  Path path;
+  FileChannel out;
+  ByteBuffer record; // reused for every record
+  int moves; // moves written so far
+  int snapshotEvery;
+
+  // starts a new journal at path for game, replacing what was there, with a
+  // snapshot of the game as it is now
+  MoveJournal(Path path, GameEngine game, int snapshotEvery) throws IOException {
+    if (snapshotEvery < 1) {
+      throw new IllegalArgumentException("Snapshots need at least one move between them.");
+    }
+    this.path = path;
+    this.out = FileChannel.open(path, StandardOpenOption.CREATE,
+        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+    this.record = ByteBuffer.allocate(32);
+    this.moves = 0;
+    this.snapshotEvery = snapshotEvery;
+    this.record.putInt(MAGIC).putShort(VERSION).putShort((short) 0)
+        .putInt(game.rows).putInt(game.cols).putLong(game.seed);
+    this.flush();
+    this.snapshot(game);
+  }
+
+  /* MOVEJOURNAL TEMPLATE
+   * FIELDS
+   * this.path            -Path
+   * this.out             -FileChannel
+   * this.record          -ByteBuffer
+   * this.moves           -int
+   * this.snapshotEvery   -int
+   * 
+   * METHODS
+   * this.reveal(GameEngine, int, int)   -void
+   * this.flag(GameEngine, int, int)     -void
+   * this.chord(GameEngine, int, int)    -void
+   * this.reset(GameEngine, long)        -void
+   * this.move(GameEngine, byte, int, int)   -void
+   * this.moveDone(GameEngine)           -void
+   * this.snapshot(GameEngine)           -void
+   * this.snapshotPath(int)              -Path
+   * this.putVarint(int)                 -void
+   * this.flush()                        -void
+   * this.close()                        -void
+   */
+
+  // EFFECT: records that (row, col) was revealed in game, which is now in the state after it
+  void reveal(GameEngine game, int row, int col) {
+    this.move(game, REVEAL, row, col);
+  }
+
+  // EFFECT: records that (row, col) was flagged or unflagged in game
+  void flag(GameEngine game, int row, int col) {
+    this.move(game, FLAG, row, col);
+  }
+
+  // EFFECT: records that (row, col) was chorded in game
+  void chord(GameEngine game, int row, int col) {
+    this.move(game, CHORD, row, col);
+  }
+
+  // EFFECT: records that game was restarted with mines drawn from seed
+  void reset(GameEngine game, long seed) {
+    this.record.put(RESET).putLong(seed);
+    this.moveDone(game);
+  }
+
+  // EFFECT: records a move of the given type at (row, col)
+  void move(GameEngine game, byte type, int row, int col) {
+    this.record.put(type);
+    this.putVarint(row);
+    this.putVarint(col);
+    this.moveDone(game);
+  }
+
+  // EFFECT: writes out the move just put in the record buffer, and a snapshot
+  // if it's time for one
+  void moveDone(GameEngine game) {
+    this.moves++;
+    try {
+      this.flush();
+      if (this.moves % this.snapshotEvery == 0) {
+        this.snapshot(game);
+      }
+    }
+    catch (IOException e) {
+      throw new UncheckedIOException("Couldn't write to the move journal.", e);
+    }
+  }
+
+  // EFFECT: saves game next to the journal and records a CHECKPOINT for it. the
+  // snapshot is on disk before the record that points to it
+  void snapshot(GameEngine game) throws IOException {
+    new SaveFile().save(game, this.snapshotPath(this.moves), true);
+    this.record.put(CHECKPOINT);
+    this.putVarint(this.moves);
+    this.flush();
+    this.out.force(false);
+  }
+
+  // returns where the snapshot taken after the given number of moves goes
+  Path snapshotPath(int move) {
+    return this.path.resolveSibling(this.path.getFileName() + "." + move + ".snap");
+  }
+
+  // EFFECT: puts n in the record buffer 7 bits at a time, low bits first,
+  // with the top bit of each byte set if more follow
+  void putVarint(int n) {
+    while ((n & ~0x7F) != 0) {
+      this.record.put((byte) ((n & 0x7F) | 0x80));
+      n >>>= 7;
+    }
+    this.record.put((byte) n);
+  }
+
+  // EFFECT: appends the record buffer to the file and empties it
+  void flush() throws IOException {
+    this.record.flip();
+    while (this.record.hasRemaining()) {
+      this.out.write(this.record);
+    }
+    this.record.clear();
+  }
+
+  // EFFECT: closes the file
+  void close() throws IOException {
+    this.out.close();
+  }
+}
+
+// rebuilds games from a MoveJournal, starting from the last snapshot before the
+// wanted move and reapplying the moves after it to a headless GameEngine
+class Replayer {
+  Path path;
+  ByteBuffer data; // the whole journal
+  int snapshotUsed; // the move number of the snapshot the last replay started from
+
+  Replayer(Path path) throws IOException {
+    this.path = path;
+    FileChannel in = FileChannel.open(path, StandardOpenOption.READ);
+    try {
+      this.data = in.map(FileChannel.MapMode.READ_ONLY, 0, in.size());
+    }
+    finally {
+      in.close();
+    }
+    if (this.data.limit() < MoveJournal.HEADER || this.data.getInt(0) != MoveJournal.MAGIC) {
+      throw new IOException("Not a minesweeper move journal.");
+    }
+    if (this.data.getShort(4) != MoveJournal.VERSION) {
+      throw new IOException("Unsupported move journal version: " + this.data.getShort(4));
+    }
+    this.snapshotUsed = -1;
+  }
+
+  /* REPLAYER TEMPLATE
+   * FIELDS
+   * this.path           -Path
+   * this.data           -ByteBuffer
+   * this.snapshotUsed   -int
+   * 
+   * METHODS
+   * this.moveCount()            -int
+   * this.replay(int)            -GameEngine
+   * this.getVarint(ByteBuffer)  -int
+   */
+
+  // returns how many moves the journal holds, a record cut off by a crash doesn't count
+  int moveCount() {
+    ByteBuffer in = this.data.duplicate().position(MoveJournal.HEADER);
+    int moves = 0;
+    try {
+      while (in.hasRemaining()) {
+        byte type = in.get();
+        if (type == MoveJournal.RESET) {
+          in.getLong();
+          moves++;
+        }
+        else if (type == MoveJournal.CHECKPOINT) {
+          this.getVarint(in);
+        }
+        else {
+          this.getVarint(in);
+          this.getVarint(in);
+          moves++;
+        }
+      }
+    }
+    catch (BufferUnderflowException e) {
+      // the last record was only partly written
+    }
+    return moves;
+  }
+
+  // returns the game as it was after the first upTo moves, or after every move if the
+  // journal has fewer
+  GameEngine replay(int upTo) throws IOException {
+    // find the checkpoints at or before upTo
+    ByteBuffer in = this.data.duplicate().position(MoveJournal.HEADER);
+    int moves = 0;
+    ArrayList<Integer> checkpoints = new ArrayList<Integer>();
+    ArrayList<Integer> checkpointsAt = new ArrayList<Integer>();
+    try {
+      while (in.hasRemaining()) {
+        byte type = in.get();
+        if (type == MoveJournal.CHECKPOINT) {
+          checkpoints.add(this.getVarint(in));
+          checkpointsAt.add(in.position());
+        }
+        else if (moves == upTo) {
+          break;
+        }
+        else if (type == MoveJournal.RESET) {
+          in.getLong();
+          moves++;
+        }
+        else {
+          this.getVarint(in);
+          this.getVarint(in);
+          moves++;
+        }
+      }
+    }
+    catch (BufferUnderflowException e) {
+      // the last record was only partly written
+    }
+
+    // start from the last one whose snapshot can be read, a crash can leave
+    // the newest one cut short
+    GameEngine game = null;
+    int i = checkpoints.size() - 1;
+    while (game == null && i >= 0) {
+      try {
+        game = new SaveFile().load(this.path.resolveSibling(
+            this.path.getFileName() + "." + checkpoints.get(i) + ".snap"));
+      }
+      catch (IOException e) {
+        i--;
+      }
+    }
+    if (game == null) {
+      throw new IOException("Move journal has no snapshot to start from.");
+    }
+
+    // then play forward from it
+    this.snapshotUsed = checkpoints.get(i);
+    in.position(checkpointsAt.get(i));
+    moves = checkpoints.get(i);
+    try {
+      while (in.hasRemaining() && moves < upTo) {
+        byte type = in.get();
+        if (type == MoveJournal.CHECKPOINT) {
+          this.getVarint(in);
+        }
+        else if (type == MoveJournal.RESET) {
+          game.reset(in.getLong());
+          moves++;
+        }
+        else {
+          int row = this.getVarint(in);
+          int col = this.getVarint(in);
+          if (type == MoveJournal.REVEAL) {
+            game.reveal(row, col);
+          }
+          else if (type == MoveJournal.FLAG) {
+            game.flag(row, col);
+          }
+          else if (type == MoveJournal.CHORD) {
+            game.chord(row, col);
+          }
+          else {
+            throw new IOException("Unknown move journal record: " + type);
+          }
+          moves++;
+        }
+      }
+    }
+    catch (BufferUnderflowException e) {
+      // the last record was only partly written, everything before it is replayed
+    }
+    return game;
+  }
+
+  // returns the varint at the buffer's position, moving past it
+  int getVarint(ByteBuffer in) {
+    int n = 0;
+    int shift = 0;
+    byte b = in.get();
+    while ((b & 0x80) != 0) {
+      n |= (b & 0x7F) << shift;
+      shift += 7;
+      b = in.get();
+    }
+    return n | (b << shift);
+  }
+}
+
+// represents an endless board split into CHUNK x CHUNK chunks that are only made
+// the first time something looks at them. each chunk is a PackedBoard. whether a
+// cell is a mine comes from hashing the seed, its chunk and its place in the chunk,
+// so a chunk can be made, dropped and made again and always come out the same.
+// the cells around (0, 0) are never mines so the game can start there.
+// chunks far from the last move are evicted: ones nobody has played on are
+// dropped, played ones are written to spillDir (or kept if there isn't one)
+class InfiniteBoard {
+  static final int CHUNK_BITS = 6;
+  static final int CHUNK = 1 << CHUNK_BITS; // cells along each side of a chunk
+  // below this, cells with no mines around them join up into openings with no end
+  static final double MIN_DENSITY = 0.12;
+
+  long seed;
+  double density; // chance of a cell being a mine
+  long threshold; // a cell is a mine when the top 53 bits of its hash are below this
+  HashMap<Long, PackedBoard> chunks; // the chunks in memory, by key
+  HashSet<Long> played; // keys of the chunks with revealed or flagged cells
+  Path spillDir; // where evicted played chunks are written, null to keep them in memory
+  int maxLoaded; // chunks are evicted once there are more than this in memory
+  int keepRadius; // chunks this close to the last move are never evicted
+  boolean lost;
+  long revealedSafe; // number of revealed cells without mines
+  long lastKey; // key of the chunk looked up last
+  PackedBoard lastChunk; // the chunk looked up last, null after evicting
+
+  InfiniteBoard(long seed, double density) {
+    if (density < MIN_DENSITY || density >= 1) {
+      throw new IllegalArgumentException("Mine density must be at least " + MIN_DENSITY
+          + " and less than 1.");
+    }
+    this.seed = seed;
+    this.density = density;
+    this.threshold = (long) (density * (1L << 53));
+    this.chunks = new HashMap<Long, PackedBoard>();
+    this.played = new HashSet<Long>();
+    this.spillDir = null;
+    this.maxLoaded = 256;
+    this.keepRadius = 2;
+    this.lost = false;
+    this.revealedSafe = 0;
+    this.lastKey = 0;
+    this.lastChunk = null;
+  }
+
+  /* INFINITEBOARD TEMPLATE
+   * FIELDS
+   * this.seed           -long
+   * this.density        -double
+   * this.threshold      -long
+   * this.chunks         -HashMap<Long, PackedBoard>
+   * this.played         -HashSet<Long>
+   * this.spillDir       -Path
+   * this.maxLoaded      -int
+   * this.keepRadius     -int
+   * this.lost           -boolean
+   * this.revealedSafe   -long
+   * this.lastKey        -long
+   * this.lastChunk      -PackedBoard
+   * 
+   * METHODS
+   * this.key(int, int)              -long
+   * this.local(int, int)            -int
+   * this.hashMine(int, int)         -boolean
+   * this.chunk(int, int)            -PackedBoard
+   * this.makeChunk(int, int)        -PackedBoard
+   * this.spillPath(long)            -Path
+   * this.isMine(int, int)           -boolean
+   * this.isRevealed(int, int)       -boolean
+   * this.isFlagged(int, int)        -boolean
+   * this.count(int, int)            -int
+   * this.drawCell(int, int, int)    -WorldImage
+   * this.reveal(int, int)           -ArrayList<Coord>
+   * this.flag(int, int)             -void
+   * this.evictAround(int, int)      -void
+   */
+
+  // returns the key of the chunk at chunk coordinates (chunkRow, chunkCol)
+  long key(int chunkRow, int chunkCol) {
+    return ((long) chunkRow << 32) | (chunkCol & 0xFFFFFFFFL);
+  }
+
+  // returns the index of (row, col) in its chunk
+  int local(int row, int col) {
+    return ((row & (CHUNK - 1)) << CHUNK_BITS) | (col & (CHUNK - 1));
+  }
+
+  // is there a mine at (row, col)? worked out from the seed without making the chunk
+  boolean hashMine(int row, int col) {
+    if (Math.abs((long) row) <= 1 && Math.abs((long) col) <= 1) {
+      return false;
+    }
+    Utils u = new Utils();
+    long chunkSeed = u.mixSeed(u.mixSeed(this.seed, row >> CHUNK_BITS), col >> CHUNK_BITS);
+    return (u.mixSeed(chunkSeed, this.local(row, col)) >>> 11) < this.threshold;
+  }
+
+  // returns the chunk holding (row, col), making it or reading it back from
+  // spillDir if it isn't in memory
+  PackedBoard chunk(int row, int col) {
+    long key = this.key(row >> CHUNK_BITS, col >> CHUNK_BITS);
+    if (this.lastChunk != null && key == this.lastKey) {
+      return this.lastChunk;
+    }
+    PackedBoard chunk = this.chunks.get(key);
+    if (chunk == null) {
+      if (this.played.contains(key)) {
+        // played chunks are only ever evicted to spillDir
+        chunk = new PackedBoard(CHUNK, CHUNK);
+        try {
+          chunk.cells = Files.readAllBytes(this.spillPath(key));
+          chunk.syncBits();
+        }
+        catch (IOException e) {
+          throw new UncheckedIOException("Couldn't read an evicted chunk.", e);
+        }
+      }
+      else {
+        chunk = this.makeChunk(row >> CHUNK_BITS, col >> CHUNK_BITS);
+      }
+      this.chunks.put(key, chunk);
+    }
+    this.lastKey = key;
+    this.lastChunk = chunk;
+    return chunk;
+  }
+
+  // returns a new chunk at chunk coordinates (chunkRow, chunkCol) with its mines and counts,
+  // the counts along its edges look at the mines of the chunks around it
+  PackedBoard makeChunk(int chunkRow, int chunkCol) {
+    int top = chunkRow << CHUNK_BITS;
+    int left = chunkCol << CHUNK_BITS;
+    // the chunk plus a ring of one cell around it
+    int side = CHUNK + 2;
+    boolean[] mines = new boolean[side * side];
+    for (int r = 0; r < side; r++) {
+      for (int c = 0; c < side; c++) {
+        mines[r * side + c] = this.hashMine(top + r - 1, left + c - 1);
+      }
+    }
+
+    PackedBoard chunk = new PackedBoard(CHUNK, CHUNK);
+    for (int r = 0; r < CHUNK; r++) {
+      for (int c = 0; c < CHUNK; c++) {
+        int count = 0;
+        for (int dr = 0; dr <= 2; dr++) {
+          for (int dc = 0; dc <= 2; dc++) {
+            if ((dr != 1 || dc != 1) && mines[(r + dr) * side + c + dc]) {
+              count++;
+            }
+          }
+        }
+        int cell = count << PackedBoard.COUNT_SHIFT;
+        if (mines[(r + 1) * side + c + 1]) {
+          cell |= PackedBoard.MINE;
+        }
+        chunk.cells[r * CHUNK + c] = (byte) cell;
+      }
+    }
+    chunk.syncBits();
+    return chunk;
+  }
+
+  // returns the file the chunk with the given key is evicted to
+  Path spillPath(long key) {
+    return this.spillDir.resolve("chunk" + (int) (key >> 32) + "_" + (int) key);
+  }
+
+  // returns whether the cell at (row, col) contains a mine
+  boolean isMine(int row, int col) {
+    return this.chunk(row, col).has(this.local(row, col), PackedBoard.MINE);
+  }
+
+  // returns whether the cell at (row, col) has been revealed
+  boolean isRevealed(int row, int col) {
+    return this.chunk(row, col).has(this.local(row, col), PackedBoard.REVEALED);
+  }
+
+  // returns whether the cell at (row, col) is flagged
+  boolean isFlagged(int row, int col) {
+    return this.chunk(row, col).has(this.local(row, col), PackedBoard.FLAGGED);
+  }
+
+  // returns the number of mines around the cell at (row, col)
+  int count(int row, int col) {
+    return this.chunk(row, col).count(this.local(row, col));
+  }
+
+  // draws the cell at (row, col)
+  WorldImage drawCell(int row, int col, int size) {
+    int idx = this.local(row, col);
+    return this.chunk(row, col).drawCell(idx >> CHUNK_BITS, idx & (CHUNK - 1), size);
+  }
+
+  // EFFECT: reveals the cell at (row, col) and, if it has no neighboring mines,
+  // every cell connected to it through cells with no neighboring mines, making
+  // chunks as the opening reaches them. revealing a mine loses the game.
+  // returns the coords of the newly revealed cells
+  ArrayList<Coord> reveal(int row, int col) {
+    ArrayList<Coord> revealed = new ArrayList<Coord>();
+    PackedBoard start = this.chunk(row, col);
+    int startIdx = this.local(row, col);
+    if (this.lost || start.has(startIdx, PackedBoard.REVEALED | PackedBoard.FLAGGED)) {
+      return revealed;
+    }
+    start.set(startIdx, PackedBoard.REVEALED);
+    this.played.add(this.lastKey);
+    revealed.add(new Coord(row, col));
+    if (start.has(startIdx, PackedBoard.MINE)) {
+      this.lost = true;
+      return revealed;
+    }
+    this.revealedSafe++;
+
+    IntQueue rows = new IntQueue();
+    IntQueue cols = new IntQueue();
+    rows.add(row);
+    cols.add(col);
+    while (!rows.isEmpty()) {
+      int r = rows.take();
+      int c = cols.take();
+      if (this.count(r, c) != 0) {
+        continue;
+      }
+      // around a cell with no mines there are no mines, and no edges either
+      for (int nr = r - 1; nr <= r + 1; nr++) {
+        for (int nc = c - 1; nc <= c + 1; nc++) {
+          PackedBoard chunk = this.chunk(nr, nc);
+          int idx = this.local(nr, nc);
+          if (!chunk.has(idx, PackedBoard.REVEALED | PackedBoard.FLAGGED)) {
+            chunk.set(idx, PackedBoard.REVEALED);
+            this.played.add(this.lastKey);
+            this.revealedSafe++;
+            revealed.add(new Coord(nr, nc));
+            rows.add(nr);
+            cols.add(nc);
+          }
+        }
+      }
+    }
+    this.evictAround(row, col);
+    return revealed;
+  }
+
+  // EFFECT: flags the hidden cell at (row, col), or unflags it if it was flagged
+  // revealed cells and moves after the game is lost do nothing
+  void flag(int row, int col) {
+    PackedBoard chunk = this.chunk(row, col);
+    int idx = this.local(row, col);
+    if (this.lost || chunk.has(idx, PackedBoard.REVEALED)) {
+      return;
+    }
+    if (chunk.has(idx, PackedBoard.FLAGGED)) {
+      chunk.clear(idx, PackedBoard.FLAGGED);
+    }
+    else {
+      chunk.set(idx, PackedBoard.FLAGGED);
+    }
+    this.played.add(this.lastKey);
+    this.evictAround(row, col);
+  }
+
+  // EFFECT: if more than maxLoaded chunks are in memory, evicts every chunk more than
+  // keepRadius chunks from the one holding (row, col)
+  void evictAround(int row, int col) {
+    if (this.chunks.size() <= this.maxLoaded) {
+      return;
+    }
+    long chunkRow = row >> CHUNK_BITS;
+    long chunkCol = col >> CHUNK_BITS;
+    for (Long key : new ArrayList<Long>(this.chunks.keySet())) {
+      long far = Math.max(Math.abs((key >> 32) - chunkRow), Math.abs((int) (long) key - chunkCol));
+      if (far <= this.keepRadius) {
+        continue;
+      }
+      if (this.played.contains(key)) {
+        if (this.spillDir == null) {
+          continue;
+        }
+        try {
+          Files.write(this.spillPath(key), this.chunks.get(key).cells);
+        }
+        catch (IOException e) {
+          throw new UncheckedIOException("Couldn't evict a chunk.", e);
+        }
+      }
+      this.chunks.remove(key);
+    }
+    this.lastChunk = null;
+  }
+}
+
+// the endless version of the game, played through a window of
+// width x height cells whose top left cell is (top, left)
+class InfiniteMinesweeper extends World {
+  InfiniteBoard board;
+  Random rand;
+  int size; // of 1 cell
+  int width; // cells across the window
+  int height; // cells down the window
+  int top;
+  int left;
+
+  InfiniteMinesweeper(int width, int height, int size, double density, Random r) {
+    this.rand = r;
+    this.board = new InfiniteBoard(r.nextLong(), density);
+    this.size = size;
+    this.width = width;
+    this.height = height;
+    // (0, 0) is never a mine, start with it in the middle
+    this.top = -height / 2;
+    this.left = -width / 2;
+  }
+
+  /* INFINITEMINESWEEPER TEMPLATE
+   * FIELDS
+   * this.board    -InfiniteBoard
+   * this.rand     -Random
+   * this.size     -int
+   * this.width    -int
+   * this.height   -int
+   * this.top      -int
+   * this.left     -int
+   * 
+   * METHODS
+   * this.makeScene()                    -WorldScene
+   * this.worldEnds()                    -WorldEnd
+   * this.onMouseClicked(Posn, String)   -void
+   * this.clickedCell(Posn)              -Coord
+   * this.onKeyEvent(String)             -void
+   */
+
+  // draws the cells in the window
+  public WorldScene makeScene() {
+    WorldScene scene = new WorldScene(this.width * this.size, this.height * this.size);
+    for (int r = 0; r < this.height; r++) {
+      for (int c = 0; c < this.width; c++) {
+        scene.placeImageXY(this.board.drawCell(this.top + r, this.left + c, this.size),
+            c * this.size + this.size / 2, r * this.size + this.size / 2);
+      }
+    }
+    return scene;
+  }
+
+  // the game ends when a mine is revealed, there's no winning an endless board
+  public WorldEnd worldEnds() {
+    WorldScene scene = this.makeScene();
+    if (this.board.lost) {
+      scene.placeImageXY(new TextImage("YOU LOSE", this.size, Color.red),
+          this.width * this.size / 2, this.height * this.size / 2);
+      return new WorldEnd(true, scene);
+    }
+    return new WorldEnd(false, scene);
+  }
+
+  // EFFECT: reveals the clicked cell on a left click and flags it on a right click
+  public void onMouseClicked(Posn pos, String buttonName) {
+    Coord clicked = this.clickedCell(pos);
+    if (buttonName.equals("LeftButton")) {
+      this.board.reveal(clicked.row, clicked.col);
+    }
+    if (buttonName.equals("RightButton")) {
+      this.board.flag(clicked.row, clicked.col);
+    }
+  }
+
+  // returns the (row, col) of the cell at pos in the window
+  Coord clickedCell(Posn pos) {
+    return new Coord(this.top + Math.floorDiv(pos.y, this.size),
+        this.left + Math.floorDiv(pos.x, this.size));
+  }
+
+  // EFFECT: the arrow keys scroll the window a quarter of its size, letting go of
+  // chunks it left behind, and "r" starts over on a new board
+  public void onKeyEvent(String key) {
+    if (key.equals("left")) {
+      this.left -= Math.max(1, this.width / 4);
+    }
+    if (key.equals("right")) {
+      this.left += Math.max(1, this.width / 4);
+    }
+    if (key.equals("up")) {
+      this.top -= Math.max(1, this.height / 4);
+    }
+    if (key.equals("down")) {
+      this.top += Math.max(1, this.height / 4);
+    }
+    if (key.equals("r")) {
+      Path spillDir = this.board.spillDir;
+      this.board = new InfiniteBoard(this.rand.nextLong(), this.board.density);
+      this.board.spillDir = spillDir;
+      this.top = -this.height / 2;
+      this.left = -this.width / 2;
+    }
+    this.board.evictAround(this.top + this.height / 2, this.left + this.width / 2);
+  }
+}
+
+// represents the board as one byte per cell, indexed by row * cols + col.
+// the low bits hold whether the cell is a mine, revealed or flagged and the
+// high bits hold the number of neighboring mines, neighbors are worked out
+// from the index instead of being stored. the mine, revealed and flagged bits are
+// also kept as bitsets, 64 cells to a long, so whole-board checks go a word at a time
+class PackedBoard {
+  static final int MINE = 1;
+  static final int REVEALED = 2;
+  static final int FLAGGED = 4;
+  static final int COUNT_SHIFT = 4;
+
+  int rows;
+  int cols;
+  byte[] cells;
+  long[] mineBits; // bit idx % 64 of word idx / 64 is the MINE bit of cell idx
+  long[] revealedBits;
+  long[] flaggedBits;
+  int revealedSafe; // number of revealed cells without mines
+  DirtyCells dirty; // cells changed since they were last drawn, null if nobody is drawing
+
+  PackedBoard(int rows, int cols) {
+    this.rows = rows;
+    this.cols = cols;
+    this.cells = new byte[rows * cols];
+    this.mineBits = new long[(rows * cols + 63) >>> 6];
+    this.revealedBits = new long[this.mineBits.length];
+    this.flaggedBits = new long[this.mineBits.length];
+    this.revealedSafe = 0;
+    this.dirty = null;
+  }
+
+  /* PACKEDBOARD TEMPLATE
+   * FIELDS
+   * this.rows    -int
+   * this.cols    -int
+   * this.cells   -byte[]
+   * this.mineBits       -long[]
+   * this.revealedBits   -long[]
+   * this.flaggedBits    -long[]
+   * this.revealedSafe   -int
+   * this.dirty          -DirtyCells
+   * 
+   * METHODS
+   * this.index(int, int)            -int
+   * this.inBounds(int, int)         -boolean
+   * this.neighbors(int, int[])      -int
+   * this.has(int, int)              -boolean
+   * this.set(int, int)              -void
+   * this.clear(int, int)            -void
+   * this.setBits(int, int, boolean) -void
+   * this.syncBits()                 -void
+   * this.bits(int)                  -long[]
+   * this.lastWordMask()             -long
+   * this.revealAll()                -void
+   * this.allSafeRevealed()          -boolean
+   * this.countRevealedSafe()        -int
+   * this.flagCount()                -int
+   * this.revealedSafe(int)          -int
+   * this.trackChanges()             -DirtyCells
+   * this.wipe()                     -void
+   * this.count(int)                 -int
+   * this.count(int, int)            -int
+   * this.drawCell(int, int, int)    -WorldImage
+   * this.footprintBytes()           -long
+   * 
+   * this.placeMine(int, int)    -void
+   * this.removeMine(int, int)   -void
+   * this.moveMine(int, int, int, int)   -void
+   * this.addToCounts(int, int, int)     -void
+   * this.revealCell(int, int)   -void
+   * this.placeFlag(int, int)    -void
+   * this.removeFlag(int, int)   -void
+   * this.isMine(int, int)       -boolean
+   * this.isRevealed(int, int)   -boolean
+   * this.isFlagged(int, int)    -boolean
+   */
+
+  // returns the index of the cell at (row, col)
+  int index(int row, int col) {
+    return row * this.cols + col;
+  }
+
+  // is (row, col) on the board?
+  boolean inBounds(int row, int col) {
+    return row >= 0 && row < this.rows && col >= 0 && col < this.cols;
+  }
+
+  // EFFECT: fills out with the indices of the cells around the cell at idx
+  // returns how many of them there are (3 in a corner, 5 on an edge, 8 otherwise)
+  int neighbors(int idx, int[] out) {
+    int row = idx / this.cols;
+    int col = idx % this.cols;
+    int n = 0;
+    for (int r = row - 1; r <= row + 1; r++) {
+      for (int c = col - 1; c <= col + 1; c++) {
+        if ((r != row || c != col) && this.inBounds(r, c)) {
+          out[n] = r * this.cols + c;
+          n++;
+        }
+      }
+    }
+    return n;
+  }
+
+  // does the cell at idx have any of the given state bits?
+  boolean has(int idx, int bits) {
+    return (this.cells[idx] & bits) != 0;
+  }
+
+  // EFFECT: turns on the given state bits of the cell at idx
+  // and keeps revealedSafe up to date
+  void set(int idx, int bits) {
+    int before = this.cells[idx];
+    this.cells[idx] |= bits;
+    this.setBits(idx, bits, true);
+    this.revealedSafe += this.revealedSafe(this.cells[idx]) - this.revealedSafe(before);
+    if (this.dirty != null && this.cells[idx] != before) {
+      this.dirty.mark(idx);
+    }
+  }
+
+  // EFFECT: turns off the given state bits of the cell at idx
+  // and keeps revealedSafe up to date
+  void clear(int idx, int bits) {
+    int before = this.cells[idx];
+    this.cells[idx] &= ~bits;
+    this.setBits(idx, bits, false);
+    this.revealedSafe += this.revealedSafe(this.cells[idx]) - this.revealedSafe(before);
+    if (this.dirty != null && this.cells[idx] != before) {
+      this.dirty.mark(idx);
+    }
+  }
+
+  // EFFECT: turns the given state bits of the cell at idx on or off in the bitsets
+  void setBits(int idx, int bits, boolean on) {
+    int w = idx >>> 6;
+    long bit = 1L << idx;
+    if (!on) {
+      if ((bits & MINE) != 0) {
+        this.mineBits[w] &= ~bit;
+      }
+      if ((bits & REVEALED) != 0) {
+        this.revealedBits[w] &= ~bit;
+      }
+      if ((bits & FLAGGED) != 0) {
+        this.flaggedBits[w] &= ~bit;
+      }
+      return;
+    }
+    if ((bits & MINE) != 0) {
+      this.mineBits[w] |= bit;
+    }
+    if ((bits & REVEALED) != 0) {
+      this.revealedBits[w] |= bit;
+    }
+    if ((bits & FLAGGED) != 0) {
+      this.flaggedBits[w] |= bit;
+    }
+  }
+
+  // EFFECT: rebuilds the bitsets from cells, after cells were written directly
+  void syncBits() {
+    Arrays.fill(this.mineBits, 0);
+    Arrays.fill(this.revealedBits, 0);
+    Arrays.fill(this.flaggedBits, 0);
+    for (int idx = 0; idx < this.cells.length; idx++) {
+      this.setBits(idx, this.cells[idx], true);
+    }
+  }
+
+  // returns the bitset of the given state bit (MINE, REVEALED or FLAGGED)
+  long[] bits(int bit) {
+    if (bit == MINE) {
+      return this.mineBits;
+    }
+    if (bit == REVEALED) {
+      return this.revealedBits;
+    }
+    if (bit == FLAGGED) {
+      return this.flaggedBits;
+    }
+    throw new IllegalArgumentException("Not a single state bit: " + bit);
+  }
+
+  // returns the bits of the last word that belong to cells, the rest are always 0
+  long lastWordMask() {
+    if ((this.cells.length & 63) == 0) {
+      return -1L;
+    }
+    return (1L << this.cells.length) - 1;
+  }
+
+  // EFFECT: reveals every cell. works out which cells change a word at a time,
+  // so only the cells that weren't revealed yet are written
+  void revealAll() {
+    int words = this.revealedBits.length;
+    for (int w = 0; w < words; w++) {
+      long hidden = ~this.revealedBits[w];
+      if (w == words - 1) {
+        hidden &= this.lastWordMask();
+      }
+      if (hidden == 0) {
+        continue;
+      }
+      this.revealedSafe += Long.bitCount(hidden & ~this.mineBits[w]);
+      this.revealedBits[w] |= hidden;
+      while (hidden != 0) {
+        int idx = (w << 6) + Long.numberOfTrailingZeros(hidden);
+        hidden &= hidden - 1;
+        this.cells[idx] |= REVEALED;
+        if (this.dirty != null) {
+          this.dirty.mark(idx);
+        }
+      }
+    }
+  }
+
+  // is every cell without a mine revealed? compares ~mineBits against revealedBits
+  boolean allSafeRevealed() {
+    int words = this.revealedBits.length;
+    for (int w = 0; w < words; w++) {
+      long hiddenSafe = ~this.mineBits[w] & ~this.revealedBits[w];
+      if (w == words - 1) {
+        hiddenSafe &= this.lastWordMask();
+      }
+      if (hiddenSafe != 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  // returns the number of revealed cells without mines, counted from the bitsets
+  int countRevealedSafe() {
+    int count = 0;
+    for (int w = 0; w < this.revealedBits.length; w++) {
+      count += Long.bitCount(this.revealedBits[w] & ~this.mineBits[w]);
+    }
+    return count;
+  }
+
+  // returns the number of flagged cells
+  int flagCount() {
+    int count = 0;
+    for (long word : this.flaggedBits) {
+      count += Long.bitCount(word);
+    }
+    return count;
+  }
+
+  // EFFECT: starts remembering which cells change, if it wasn't already
+  // returns the cells changed since tracking started or was last reset
+  DirtyCells trackChanges() {
+    if (this.dirty == null) {
+      this.dirty = new DirtyCells(this.cells.length);
+    }
+    return this.dirty;
+  }
+
+  // EFFECT: empties every cell so the board can be used for a new game
+  void wipe() {
+    for (int idx = 0; idx < this.cells.length; idx++) {
+      if (this.cells[idx] != 0) {
+        this.cells[idx] = 0;
+        if (this.dirty != null) {
+          this.dirty.mark(idx);
+        }
+      }
+    }
+    Arrays.fill(this.mineBits, 0);
+    Arrays.fill(this.revealedBits, 0);
+    Arrays.fill(this.flaggedBits, 0);
+    this.revealedSafe = 0;
+  }
+
+  // returns 1 if a cell with the given byte is revealed and isn't a mine, 0 otherwise
+  int revealedSafe(int cell) {
+    if ((cell & (MINE | REVEALED)) == REVEALED) {
+      return 1;
+    }
+    return 0;
+  }
+
+  // returns the number of mines around the cell at idx
+  int count(int idx) {
+    return (this.cells[idx] & 0xFF) >>> COUNT_SHIFT;
+  }
+
+  // returns the number of mines around the cell at (row, col)
+  int count(int row, int col) {
+    return this.count(this.index(row, col));
+  }
+
+  // draws the cell at (row, col)
+  WorldImage drawCell(int row, int col, int size) {
+    int idx = this.index(row, col);
+    return new Utils().drawTile(this.has(idx, REVEALED), this.has(idx, MINE),
+        this.has(idx, FLAGGED), this.count(idx), size);
+  }
+
+  // estimates the heap bytes used by this board (64-bit JVM, compressed references):
+  // the object itself is a 12 byte header, 3 ints and 5 references rounded up to 8,
+  // then the cell array and the three bitsets
+  long footprintBytes() {
+    long self = (12 + 3 * 4 + 5 * 4 + 7) / 8 * 8;
+    return self + 16 + ((this.cells.length + 7) / 8) * 8L
+        + 3 * (16 + this.mineBits.length * 8L);
+  }
+
+  // EFFECT: places a mine at (row, col) and adds one to the count
+  // of every cell around it
+  void placeMine(int row, int col) {
+    int idx = this.index(row, col);
+    if (!this.has(idx, MINE)) {
+      this.set(idx, MINE);
+      this.addToCounts(row, col, 1);
+    }
+  }
+
+  // EFFECT: removes the mine at (row, col) and takes one off the count
+  // of every cell around it
+  void removeMine(int row, int col) {
+    int idx = this.index(row, col);
+    if (this.has(idx, MINE)) {
+      this.clear(idx, MINE);
+      this.addToCounts(row, col, -1);
+    }
+  }
+
+  // EFFECT: moves the mine at (fromRow, fromCol) to (toRow, toCol), only the
+  // counts around the two cells change (used to keep a first click safe)
+  void moveMine(int fromRow, int fromCol, int toRow, int toCol) {
+    if (this.isMine(fromRow, fromCol) && !this.isMine(toRow, toCol)) {
+      this.removeMine(fromRow, fromCol);
+      this.placeMine(toRow, toCol);
+    }
+  }
+
+  // EFFECT: adds delta to the count of every cell around (row, col)
+  void addToCounts(int row, int col, int delta) {
+    for (int r = row - 1; r <= row + 1; r++) {
+      for (int c = col - 1; c <= col + 1; c++) {
+        if ((r != row || c != col) && this.inBounds(r, c)) {
+          this.cells[r * this.cols + c] += delta << COUNT_SHIFT;
+          if (this.dirty != null) {
+            this.dirty.mark(r * this.cols + c);
+          }
+        }
+      }
+    }
+  }
+
+  // EFFECT: reveals the cell at (row, col)
+  void revealCell(int row, int col) {
+    this.set(this.index(row, col), REVEALED);
+  }
+
+  // EFFECT: flags the cell at (row, col)
+  void placeFlag(int row, int col) {
+    this.set(this.index(row, col), FLAGGED);
+  }
+
+  // EFFECT: unflags the cell at (row, col)
+  void removeFlag(int row, int col) {
+    this.clear(this.index(row, col), FLAGGED);
+  }
+
+  // returns whether the cell at (row, col) contains a mine
+  boolean isMine(int row, int col) {
+    return this.has(this.index(row, col), MINE);
+  }
+
+  // returns whether the cell at (row, col) is revealed
+  boolean isRevealed(int row, int col) {
+    return this.has(this.index(row, col), REVEALED);
+  }
+
+  // returns whether the cell at (row, col) is flagged
+  boolean isFlagged(int row, int col) {
+    return this.has(this.index(row, col), FLAGGED);
+  }
+}
+
+// remembers which cells of a board changed since they were last drawn,
+// listing each cell at most once
+class DirtyCells {
+  int[] list; // indices of the changed cells, the first count are in use
+  int count;
+  long[] listed; // bitset of the cells already in the list
+
+  DirtyCells(int cells) {
+    this.list = new int[16];
+    this.count = 0;
+    this.listed = new long[(cells + 63) / 64];
+  }
+
+  /* DIRTYCELLS TEMPLATE
+   * FIELDS
+   * this.list     -int[]
+   * this.count    -int
+   * this.listed   -long[]
+   * 
+   * METHODS
+   * this.mark(int)   -void
+   * this.reset()     -void
+   */
+
+  // EFFECT: adds the cell at idx to the list if it isn't in it already
+  void mark(int idx) {
+    long bit = 1L << idx;
+    if ((this.listed[idx >>> 6] & bit) == 0) {
+      this.listed[idx >>> 6] |= bit;
+      if (this.count == this.list.length) {
+        this.list = Arrays.copyOf(this.list, this.list.length * 2);
+      }
+      this.list[this.count] = idx;
+      this.count++;
+    }
+  }
+
+  // EFFECT: empties the list, only touching the bitset words that were used
+  void reset() {
+    for (int i = 0; i < this.count; i++) {
+      this.listed[this.list[i] >>> 6] = 0;
+    }
+    this.count = 0;
+  }
+}
+
+// holds one image for every way a cell of a given size can look, so drawing
+// a cell hands back a shared image instead of building a new one.
+// atlases are built once per size and kept for the rest of the program
+class TileAtlas {
+  // tile kinds: 0-8 are revealed cells with that many neighboring mines
+  static final int HIDDEN = 9;
+  static final int FLAG = 10;
+  static final int MINE = 11;
+
+  static final HashMap<Integer, TileAtlas> ATLASES = new HashMap<Integer, TileAtlas>();
+
+  int size; // of 1 cell
+  WorldImage[] tiles; // indexed by kind
+
+  TileAtlas(int size) {
+    this.size = size;
+    this.tiles = new WorldImage[MINE + 1];
+
+    // outline
+    RectangleImage outline = new RectangleImage(size, size, OutlineMode.OUTLINE,
+        Color.black);
+    // gray square with outline
+    OverlayImage grayCell = new OverlayImage(outline,
+        new RectangleImage(size, size, OutlineMode.SOLID, Color.gray));
+    // white square with outline
+    OverlayImage whiteCell = new OverlayImage(outline,
+        new RectangleImage(size, size, OutlineMode.SOLID, Color.white));
+    // different colors for each num, 6 and up are black
+    Color[] numColors = {Color.BLUE, Color.GREEN, Color.ORANGE, Color.RED, Color.MAGENTA,
+        Color.BLACK, Color.BLACK, Color.BLACK};
+
+    this.tiles[0] = whiteCell;
+    for (int count = 1; count <= 8; count++) {
+      this.tiles[count] = new OverlayImage(new TextImage(Integer.toString(count), size / 2,
+          numColors[count - 1]), whiteCell);
+    }
+    this.tiles[HIDDEN] = grayCell;
+    this.tiles[FLAG] = new OverlayImage(new EquilateralTriangleImage(size / 2, 
+        OutlineMode.SOLID, Color.ORANGE), grayCell);
+    this.tiles[MINE] = new OverlayImage(new CircleImage(size / 4, OutlineMode.SOLID,
+        Color.BLACK), whiteCell);
+  }
+
+  /* TILEATLAS TEMPLATE
+   * FIELDS
+   * this.size    -int
+   * this.tiles   -WorldImage[]
+   * 
+   * METHODS
+   * TileAtlas.forSize(int)                          -TileAtlas
+   * this.kind(boolean, boolean, boolean, int)       -int
+   * this.tile(boolean, boolean, boolean, int)       -WorldImage
+   */
+
+  // returns the atlas for cells of the given size, building it the first time
+  static synchronized TileAtlas forSize(int size) {
+    TileAtlas atlas = ATLASES.get(size);
+    if (atlas == null) {
+      atlas = new TileAtlas(size);
+      ATLASES.put(size, atlas);
+    }
+    return atlas;
+  }
+
+  // returns the kind of tile that shows a cell in the given state
+  int kind(boolean revealed, boolean mine, boolean flagged, int count) {
+    if (flagged) {
+      return FLAG;
+    }
+    else if (!revealed) {
+      return HIDDEN;
+    }
+    else if (mine) {
+      return MINE;
+    }
+    else {
+      return count;
+    }
+  }
+
+  // returns the shared image of a cell in the given state
+  WorldImage tile(boolean revealed, boolean mine, boolean flagged, int count) {
+    return this.tiles[this.kind(revealed, mine, flagged, count)];
+  }
+}
+
+// keeps the board drawn as one image and redraws only the cells that
+// changed since the last frame, so a frame costs as much as the changes in it
+class BoardRaster {
+  PackedBoard board; // the board drawn last time
+  int size; // of 1 cell
+  ComputedPixelImage image;
+  Color[][] tiles; // pixels of each TileAtlas kind, row by row
+  int cellsPainted; // cells drawn in the last render
+
+  BoardRaster() {
+    this.board = null;
+    this.size = 0;
+    this.image = null;
+    this.tiles = null;
+    this.cellsPainted = 0;
+  }
+
+  /* BOARDRASTER TEMPLATE
+   * FIELDS
+   * this.board          -PackedBoard
+   * this.size           -int
+   * this.image          -ComputedPixelImage
+   * this.tiles          -Color[][]
+   * this.cellsPainted   -int
+   * 
+   * METHODS
+   * this.render(PackedBoard, int)   -WorldImage
+   * this.paint(int)                 -void
+   * this.kind(byte)                 -int
+   * this.makeTile(int, int)         -Color[]
+   */
+
+  // EFFECT: brings the image up to date with the board, redrawing every cell if the
+  // board or size changed and only the cells that changed otherwise
+  // returns the image of the board
+  WorldImage render(PackedBoard board, int size) {
+    DirtyCells dirty = board.trackChanges();
+    this.cellsPainted = 0;
+
+    if (board != this.board || size != this.size) {
+      if (size != this.size) {
+        this.tiles = new Color[TileAtlas.MINE + 1][];
+        for (int kind = 0; kind <= TileAtlas.MINE; kind++) {
+          this.tiles[kind] = this.makeTile(kind, size);
+        }
+      }
+      this.board = board;
+      this.size = size;
+      this.image = new ComputedPixelImage(board.cols * size, board.rows * size);
+      for (int idx = 0; idx < board.cells.length; idx++) {
+        this.paint(idx);
+      }
+    }
+    else {
+      for (int i = 0; i < dirty.count; i++) {
+        this.paint(dirty.list[i]);
+      }
+    }
+    dirty.reset();
+    return this.image;
+  }
+
+  // EFFECT: draws the cell at idx onto the image
+  void paint(int idx) {
+    Color[] tile = this.tiles[this.kind(this.board.cells[idx])];
+    int left = (idx % this.board.cols) * this.size;
+    int top = (idx / this.board.cols) * this.size;
+    for (int y = 0; y < this.size; y++) {
+      for (int x = 0; x < this.size; x++) {
+        this.image.setPixel(left + x, top + y, tile[y * this.size + x]);
+      }
+    }
+    this.cellsPainted++;
+  }
+
+  // returns the TileAtlas kind of tile that shows a cell with the given byte
+  int kind(byte cell) {
+    if ((cell & PackedBoard.FLAGGED) != 0) {
+      return TileAtlas.FLAG;
+    }
+    else if ((cell & PackedBoard.REVEALED) == 0) {
+      return TileAtlas.HIDDEN;
+    }
+    else if ((cell & PackedBoard.MINE) != 0) {
+      return TileAtlas.MINE;
+    }
+    else {
+      return (cell & 0xFF) >>> PackedBoard.COUNT_SHIFT;
+    }
+  }
+
+  // draws a tile of the given kind and size to look like the TileAtlas one
+  // returns its pixels row by row
+  Color[] makeTile(int kind, int size) {
+    BufferedImage tile = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
+    Graphics2D g = tile.createGraphics();
+    int mid = size / 2;
+
+    // gray or white square with outline
+    if (kind == TileAtlas.HIDDEN || kind == TileAtlas.FLAG) {
+      g.setColor(Color.gray);
+    }
+    else {
+      g.setColor(Color.white);
+    }
+    g.fillRect(0, 0, size, size);
+    g.setColor(Color.black);
+    g.drawRect(0, 0, size - 1, size - 1);
+
+    if (kind == TileAtlas.FLAG) {
+      int side = size / 2;
+      int height = (int) Math.round(side * Math.sqrt(3) / 2);
+      g.setColor(Color.ORANGE);
+      g.fillPolygon(new int[] {mid - side / 2, mid, mid + side / 2},
+          new int[] {mid + height / 2, mid - height / 2, mid + height / 2}, 3);
+    }
+    else if (kind == TileAtlas.MINE) {
+      int radius = size / 4;
+      g.setColor(Color.BLACK);
+      g.fillOval(mid - radius, mid - radius, 2 * radius, 2 * radius);
+    }
+    else if (kind > 0 && kind < TileAtlas.HIDDEN) {
+      Color[] numColors = {Color.BLUE, Color.GREEN, Color.ORANGE, Color.RED, Color.MAGENTA};
+      g.setColor(Color.BLACK);
+      if (kind <= numColors.length) {
+        g.setColor(numColors[kind - 1]);
+      }
+      g.setFont(new Font(Font.SANS_SERIF, Font.PLAIN, Math.max(1, size / 2)));
+      FontMetrics metrics = g.getFontMetrics();
+      String text = Integer.toString(kind);
+      g.drawString(text, mid - metrics.stringWidth(text) / 2,
+          mid + (metrics.getAscent() - metrics.getDescent()) / 2);
+    }
+    g.dispose();
+
+    Color[] pixels = new Color[size * size];
+    for (int y = 0; y < size; y++) {
+      for (int x = 0; x < size; x++) {
+        pixels[y * size + x] = new Color(tile.getRGB(x, y), true);
+      }
+    }
+    return pixels;
+  }
+}
+
+//represents a cell in the game
+class Cell {
+  ArrayList<Cell> neighbors;
+  Boolean revealed;
+  Boolean mine;
+  Boolean flagged;
+  int adjacent; // number of neighboring mines, kept up to date as mines and neighbors are added
+
+  Cell(Boolean revealed, Boolean mine, Boolean flagged) {
+    this.neighbors = new ArrayList<Cell>();
+    this.revealed = revealed;
+    this.mine = mine;
+    this.flagged = flagged;
+    this.adjacent = 0;
+  }
+
+  /* CELL TEMPLATE
+   * FIELDS
+   * this.neighbors  -ArrayList<Cell>
+   * this.revealed   -Boolean
+   * this.mine       -Boolean
+   * this.flagged    -Boolean
+   * this.adjacent   -int
+   * 
+   * METHODS
+   * this.count()             -int
+   * this.addNeighbors(Cell)  -void
+   * this.hasNearbyMine()     -boolean
+   * this.drawCell(int)       -WorldImage
+   * this.revealNeighbors()   -void
+   * 
+   * this.placeMine()    -void
+   * this.removeMine()   -void
+   * this.revealCell()   -void
+   * this.placeFlag()    -void
+   * this.removeFlag()   -void
+   * this.isMine()       -boolean
+   * this.isRevealed()   -boolean
+   * this.isFlagged()    -boolean
+   * 
+   */
+
+  // returns the number of mines in neighboring cells
+  public int count() {
+    return this.adjacent;
+  }
+
+  // EFFECT: adds the given cell to this cell's list of neighbors 
+  // and adds this cell to the given cell's list of neighbors
+  // and counts each of them if it is a mine
+  public void addNeighbors(Cell c) {
+    this.neighbors.add(c);
+    c.neighbors.add(this);
+    if (c.mine) {
+      this.adjacent++;
+    }
+    if (this.mine) {
+      c.adjacent++;
+    }
+  }
+
+  // are there any neighboring mines?
+  public boolean hasNearbyMine() {
+    return this.adjacent > 0;
+  }
+
+  // draws the cell
+  public WorldImage drawCell(int size) {
+    return new Utils().drawTile(this.revealed, this.mine, this.flagged, this.count(), size);
+  }
+
+  // EFFECT: loops through reveals all of the neighbors 
+  // of the cell that aren't mines
+  // uses a work queue instead of recursion so big empty regions can't overflow the stack
+  public void revealNeighbors() {
+    ArrayDeque<Cell> work = new ArrayDeque<Cell>();
+    if (!this.revealed && !this.flagged) {
+      this.revealed = true;
+      work.add(this);
+    }
+
+    while (!work.isEmpty()) {
+      Cell curr = work.poll();
+      if (curr.count() == 0 && !curr.mine) {
+        for (Cell neighbor : curr.neighbors) {
+          if (!neighbor.revealed && !neighbor.flagged) {
+            neighbor.revealed = true;
+            work.add(neighbor);
+          }
+        }
+      }
+    }
+  }
+
+  // Effect: places mines in cells and counts it in its neighbors
+  public void placeMine() {
+    if (!this.mine) {
+      this.mine = true;
+      for (Cell neighbor : this.neighbors) {
+        neighbor.adjacent++;
+      }
+    }
+  }
+
+  // Effect: removes the mine from this cell and its neighbors' counts
+  public void removeMine() {
+    if (this.mine) {
+      this.mine = false;
+      for (Cell neighbor : this.neighbors) {
+        neighbor.adjacent--;
+      }
+    }
+  }
+
+  // Effect: reveals cell
+  public void revealCell() {
+    this.revealed = true;
+  }
+
+  // Effect: flags cell
+  public void placeFlag() {
+    this.flagged = true;
+
+  }
+
+  // Effect: unflags cell 
+  public void removeFlag() {
+    this.flagged = false;
+  }
+
+  // returns whether the cell contains a mine
+  public boolean isMine() {
+    return this.mine;
+  }
+
+  // returns whether the cell is revealed
+  public boolean isRevealed() {
+    return this.revealed;
+  }
+
+  // returns whether the cell is revealed
+  public boolean isFlagged() {
+    return this.flagged;
+  }
+
+}
+
+// represents how the board is panned and zoomed on the screen:
+// the screen pixel (x, y) shows the board pixel (x / scale + offsetX, y / scale + offsetY)
+class ViewTransform {
+  double offsetX; // board pixel at the left edge of the screen
+  double offsetY; // board pixel at the top edge of the screen
+  double scale; // screen pixels per board pixel
+
+  // no panning or zooming
+  ViewTransform() {
+    this(0, 0, 1);
+  }
+
+  ViewTransform(double offsetX, double offsetY, double scale) {
+    if (scale <= 0) {
+      throw new IllegalArgumentException("Scale must be positive.");
+    }
+    this.offsetX = offsetX;
+    this.offsetY = offsetY;
+    this.scale = scale;
+  }
+
+  /* VIEWTRANSFORM TEMPLATE
+   * FIELDS
+   * this.offsetX   -double
+   * this.offsetY   -double
+   * this.scale     -double
+   * 
+   * METHODS
+   * this.toBoard(Posn)    -Posn
+   * this.toScreen(Posn)   -Posn
+   */
+
+  // returns the board pixel shown at the given screen pixel
+  Posn toBoard(Posn screen) {
+    return new Posn((int) Math.floor(screen.x / this.scale + this.offsetX),
+        (int) Math.floor(screen.y / this.scale + this.offsetY));
+  }
+
+  // returns the screen pixel that shows the given board pixel
+  Posn toScreen(Posn board) {
+    return new Posn((int) Math.floor((board.x - this.offsetX) * this.scale),
+        (int) Math.floor((board.y - this.offsetY) * this.scale));
+  }
+}
+
+// represents a coordinate (row,col)
+class Coord {
+  int row;
+  int col;
+
+  Coord(int row, int col) {
+    this.row = row;
+    this.col = col;
+  }
+
+  /* COORD TEMPLATE
+   * FIELDS
+   * this.row    -int
+   * this.col    -int
+   * 
+   * METHODS
+   * this.equals(Object)   -boolean
+   * this.hashCode()       -int
+   */
+
+  // is the given object a coord with the same row and col?
+  public boolean equals(Object other) {
+    if (!(other instanceof Coord)) {
+      return false;
+    }
+    Coord that = (Coord) other;
+    return this.row == that.row && this.col == that.col;
+  }
+
+  // hashes this coord consistently with equals
+  public int hashCode() {
+    return this.row * 31 + this.col;
+  }
+}
+
+// streams n distinct cell indices out of the given number of cells, in increasing order.
+// each cell is picked with probability (mines left / cells left), which makes every set
+// of n cells equally likely. takes one pass over the cells and no extra memory, so it
+// suits boards that are mostly mines, where drawing random coords would keep hitting repeats
+class MineSampler {
+  int left; // mines still to pick
+  int cells; // total number of cells
+  int next; // next cell to consider
+  Random rand;
+
+  MineSampler(int n, int cells, Random rand) {
+    if (n > cells) {
+      throw new IllegalArgumentException("More mines than squares. Check again.");
+    }
+    this.left = n;
+    this.cells = cells;
+    this.next = 0;
+    this.rand = rand;
+  }
+
+  /* MINESAMPLER TEMPLATE
+   * FIELDS
+   * this.left    -int
+   * this.cells   -int
+   * this.next    -int
+   * this.rand    -Random
+   * 
+   * METHODS
+   * this.hasNext()   -boolean
+   * this.next()      -int
+   */
+
+  // are there mines left to pick?
+  boolean hasNext() {
+    return this.left > 0;
+  }
+
+  // EFFECT: moves past the cells that aren't picked
+  // returns the index of the next cell with a mine
+  int next() {
+    while (this.rand.nextInt(this.cells - this.next) >= this.left) {
+      this.next++;
+    }
+    this.left--;
+    this.next++;
+    return this.next - 1;
+  }
+}
+
+//util class for random methods 
+class Utils {
+  Random rand = new Random();
+
+  //produces a random list of n distinct coords
+  //when at most half the cells get mines, draws coords with randomCoord and skips
+  //repeats, which a bitset of the cells already taken spots in constant time.
+  //past half, most draws would be repeats, so the mines are streamed from a MineSampler
+  ArrayList<Coord> randomGen(int n, int rows, int cols, Random r) {
+    if (n > rows * cols) {
+      throw new IllegalArgumentException("More mines than squares. Check again.");
+    }
+    ArrayList<Coord> currentList = new ArrayList<Coord>(n);
+
+    if (n > rows * cols / 2) {
+      MineSampler sampler = new MineSampler(n, rows * cols, r);
+      while (sampler.hasNext()) {
+        int idx = sampler.next();
+        currentList.add(new Coord(idx / cols, idx % cols));
+      }
+      return currentList;
+    }
+
+    long[] taken = new long[(rows * cols + 63) / 64];
+    while (currentList.size() < n) {
+      //generate a random coord
+      Coord randCoord = randomCoord(rows, cols, r);
+      int idx = randCoord.row * cols + randCoord.col;
+      //if it hasnt been taken, add to currentlist
+      //else generate another random coord 
+      if ((taken[idx >>> 6] & (1L << idx)) == 0) {
+        taken[idx >>> 6] |= 1L << idx;
+        currentList.add(randCoord);
+      }
+    }
+    return currentList; 
+  }
+
+  //randomCoord method for testing 
+  Coord randomCoord(int rows, int cols, Random r) {
+    return new Coord(r.nextInt(rows), r.nextInt(cols));
+
+  }
+
+  //EFFECT: given a board, reveals all cells
+  void revealBoard(PackedBoard board) {
+    board.revealAll();
+  }
+
+  //given a game, checks if all cells 
+  //without mines are revealed
+  boolean isAllRevealed(GameEngine game) {
+    int count = game.board.countRevealedSafe();
+
+    // check if count is correct number  
+    return count == game.cols * game.rows - game.numMines; 
+  }
+
+  //counts the cells that are revealed and aren't mines by looking at every cell
+  int countRevealedSafe(PackedBoard board) {
+    int count = 0;
+
+    //if its not a mine and revealed add to result
+    for (int i = 0; i < board.cells.length; i++) {
+      if ((board.cells[i] & (PackedBoard.MINE | PackedBoard.REVEALED)) == PackedBoard.REVEALED) {
+        count = count + 1;
+      }
+    }
+    return count;
+  }
+
+  // draws a cell of the given size in the given state,
+  // count is the number of neighboring mines
+  // the image is shared with every other cell drawn the same way
+  WorldImage drawTile(boolean revealed, boolean mine, boolean flagged, int count, int size) {
+    return TileAtlas.forSize(size).tile(revealed, mine, flagged, count);
+  }
+
+  // estimates the heap bytes used by a board of Cells linked to their neighbors:
+  // a 32 byte Cell, its 24 byte neighbor ArrayList with a 56 byte backing array,
+  // plus one reference in its row's ArrayList (64-bit JVM, compressed references)
+  long cellBoardFootprint(int rows, int cols) {
+    long cells = (long) rows * cols;
+    long perRow = 24 + 16 + 4L * cols;
+    return cells * (32 + 24 + 56) + rows * perRow + 24 + 16 + 4L * rows;
+  }
+
+  // returns the seed for item i of a run started from seed, mixing the two so
+  // neighboring items get unrelated seeds (the SplitMix64 finalizer)
+  long mixSeed(long seed, int i) {
+    long z = seed + (i + 1) * 0x9E3779B97F4A7C15L;
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
+  }
+
+  //produces a random list of n distinct coords, none of them within radius cells of center
+  //draws n of the cells that are left as if they were numbered in order, then
+  //shifts each one past the cells that were left out
+  ArrayList<Coord> randomGenAvoiding(int n, int rows, int cols, Coord center, int radius,
+      Random r) {
+    int top = Math.max(0, center.row - radius);
+    int bottom = Math.min(rows - 1, center.row + radius);
+    int left = Math.max(0, center.col - radius);
+    int right = Math.min(cols - 1, center.col + radius);
+    int[] skipped = new int[(bottom - top + 1) * (right - left + 1)];
+    int count = 0;
+    for (int row = top; row <= bottom; row++) {
+      for (int col = left; col <= right; col++) {
+        skipped[count++] = row * cols + col;
+      }
+    }
+    if (n > rows * cols - count) {
+      throw new IllegalArgumentException("More mines than squares. Check again.");
+    }
+
+    ArrayList<Coord> picks = this.randomGen(n, 1, rows * cols - count, r);
+    ArrayList<Coord> mines = new ArrayList<Coord>(n);
+    for (Coord pick : picks) {
+      int idx = pick.col;
+      for (int skip : skipped) {
+        if (skip <= idx) {
+          idx++;
+        }
+      }
+      mines.add(new Coord(idx / cols, idx % cols));
+    }
+    return mines;
+  }
+
+  //produces n mines for a board the Solver can clear without guessing,
+  //starting with a click on first, none of them on or next to first
+  ArrayList<Coord> noGuessGen(int n, int rows, int cols, Coord first, Random r) {
+    ArrayList<Coord> mines = new NoGuessGenerator(rows, cols, n, 1, 
+        NoGuessGenerator.DEFAULT_BUDGET).generate(first, r.nextLong());
+    if (mines == null) {
+      throw new IllegalStateException("No board without guessing found in time.");
+    }
+    return mines;
+  }
+
+  // EFFECT: checks its neighbors to floodfill
+  public void floodfill(ArrayList<Cell> arr) {
+    for (int i = 0; i < arr.size(); i++) {
+      arr.get(i).revealNeighbors();
+    }
+  }
+}
+
+// reveals cells on a board starting from one cell, spreading out through
+// cells that have no neighboring mines
+class RevealEngine {
+
+  /* REVEALENGINE TEMPLATE
+   * METHODS
+   * this.reveal(PackedBoard, int, int)          -ArrayList<Coord>
+   * this.revealFrom(PackedBoard, int[], int)    -ArrayList<Coord>
+   */
+
+  // EFFECT: reveals the cell at (row, col) and, if it has no neighboring mines,
+  // every cell connected to it through cells with no neighboring mines.
+  // flagged cells are never revealed and each cell is revealed at most once.
+  // returns the coords of the newly revealed cells, in the order they were revealed
+  ArrayList<Coord> reveal(PackedBoard board, int row, int col) {
+    return this.revealFrom(board, new int[] {board.index(row, col)}, 1);
+  }
+
+  // EFFECT: reveals the first n cells of starts like reveal, all in one flood, so
+  // openings the starts share are only walked once
+  // returns the coords of the newly revealed cells, in the order they were revealed
+  ArrayList<Coord> revealFrom(PackedBoard board, int[] starts, int n) {
+    ArrayList<Coord> revealed = new ArrayList<Coord>();
+
+    // every cell is queued at most once, so the queue never needs to wrap around
+    int[] work = new int[Math.max(16, n)];
+    int head = 0;
+    int tail = 0;
+    int[] around = new int[8];
+
+    for (int i = 0; i < n; i++) {
+      int start = starts[i];
+      if (!board.has(start, PackedBoard.REVEALED | PackedBoard.FLAGGED)) {
+        board.set(start, PackedBoard.REVEALED);
+        revealed.add(new Coord(start / board.cols, start % board.cols));
+        work[tail++] = start;
+      }
+    }
+
+    while (head < tail) {
+      int curr = work[head++];
+      if (board.has(curr, PackedBoard.MINE) || board.count(curr) != 0) {
+        continue;
+      }
+      int count = board.neighbors(curr, around);
+      for (int i = 0; i < count; i++) {
+        int next = around[i];
+        if (!board.has(next, PackedBoard.REVEALED | PackedBoard.FLAGGED)) {
+          board.set(next, PackedBoard.REVEALED);
+          revealed.add(new Coord(next / board.cols, next % board.cols));
+          if (tail == work.length) {
+            work = Arrays.copyOf(work, work.length * 2);
+          }
+          work[tail++] = next;
+        }
+      }
+    }
+    return revealed;
+  }
+}
+
+// reveals like RevealEngine, but splits the board into TILE x TILE tiles and fills
+// them in rounds: in each round every tile with cells waiting is filled by its own
+// task on pool, and cells a fill reaches across a tile's edge are handed to the tile
+// they belong to for the next round. only a tile's own task writes its cells, so
+// marking needs no locks, and the cells revealed are the same as RevealEngine's,
+// grouped by tile instead of in the order they were reached
+class ParallelRevealEngine {
+  static final int TILE_BITS = 7;
+  static final int TILE = 1 << TILE_BITS; // cells along each side of a tile
+
+  ForkJoinPool pool;
+
+  ParallelRevealEngine(ForkJoinPool pool) {
+    this.pool = pool;
+  }
+
+  ParallelRevealEngine() {
+    this(ForkJoinPool.commonPool());
+  }
+
+  /* PARALLELREVEALENGINE TEMPLATE
+   * FIELDS
+   * this.pool   -ForkJoinPool
+   * 
+   * METHODS
+   * this.reveal(PackedBoard, int, int)          -ArrayList<Coord>
+   * this.revealFrom(PackedBoard, int[], int)    -ArrayList<Coord>
+   * this.tileOf(PackedBoard, int)               -int
+   */
+
+  // EFFECT: reveals the cell at (row, col) and, if it has no neighboring mines,
+  // every cell connected to it through cells with no neighboring mines.
+  // flagged cells are never revealed and each cell is revealed at most once.
+  // returns the coords of the newly revealed cells
+  ArrayList<Coord> reveal(PackedBoard board, int row, int col) {
+    ArrayList<Coord> revealed = new ArrayList<Coord>();
+    int start = board.index(row, col);
+    if (board.has(start, PackedBoard.REVEALED | PackedBoard.FLAGGED)) {
+      return revealed;
+    }
+    if (board.has(start, PackedBoard.MINE) || board.count(start) != 0) {
+      board.set(start, PackedBoard.REVEALED);
+      revealed.add(new Coord(row, col));
+      return revealed;
+    }
+    return this.revealFrom(board, new int[] {start}, 1);
+  }
+
+  // EFFECT: reveals the first n cells of starts like reveal, all in one flood, so
+  // openings the starts share are only walked once. none of them can be a mine
+  // returns the coords of the newly revealed cells
+  ArrayList<Coord> revealFrom(PackedBoard board, int[] starts, int n) {
+    ArrayList<Coord> revealed = new ArrayList<Coord>();
+    int tileCols = (board.cols + TILE - 1) >> TILE_BITS;
+    int tileRows = (board.rows + TILE - 1) >> TILE_BITS;
+    IntQueue[] inboxes = new IntQueue[tileRows * tileCols];
+    ArrayList<Integer> waiting = new ArrayList<Integer>();
+    for (int i = 0; i < n; i++) {
+      int tile = this.tileOf(board, starts[i]);
+      if (inboxes[tile] == null) {
+        inboxes[tile] = new IntQueue();
+        waiting.add(tile);
+      }
+      inboxes[tile].add(starts[i]);
+    }
+
+    while (!waiting.isEmpty()) {
+      ArrayList<TileFill> round = new ArrayList<TileFill>();
+      for (int tile : waiting) {
+        round.add(new TileFill(board, tile / tileCols, tile % tileCols, inboxes[tile]));
+        inboxes[tile] = null;
+      }
+      waiting.clear();
+      if (round.size() == 1) {
+        round.get(0).invoke();
+      }
+      else {
+        for (TileFill fill : round) {
+          this.pool.execute(fill);
+        }
+      }
+      for (TileFill fill : round) {
+        revealed.addAll(fill.join());
+        while (!fill.outbox.isEmpty()) {
+          int idx = fill.outbox.take();
+          int tile = this.tileOf(board, idx);
+          if (inboxes[tile] == null) {
+            inboxes[tile] = new IntQueue();
+            waiting.add(tile);
+          }
+          inboxes[tile].add(idx);
+        }
+      }
+    }
+
+    // the starts and the cells next to a cell with no mines around it are never mines.
+    // the bitsets are shared too, tiles that aren't a whole number of words wide
+    // would write the same words
+    board.revealedSafe += revealed.size();
+    for (Coord cell : revealed) {
+      int idx = board.index(cell.row, cell.col);
+      board.revealedBits[idx >>> 6] |= 1L << idx;
+      if (board.dirty != null) {
+        board.dirty.mark(idx);
+      }
+    }
+    return revealed;
+  }
+
+  // returns the tile the cell at idx is in
+  int tileOf(PackedBoard board, int idx) {
+    int tileCols = (board.cols + TILE - 1) >> TILE_BITS;
+    return (idx / board.cols >> TILE_BITS) * tileCols + (idx % board.cols >> TILE_BITS);
+  }
+}
+
+// fills one tile of a ParallelRevealEngine round from the cells handed to it,
+// putting the cells it reaches outside the tile in outbox
+class TileFill extends RecursiveTask<ArrayList<Coord>> {
+  private static final long serialVersionUID = 1L;
+
+  PackedBoard board;
+  int top;
+  int left;
+  int bottom; // one past the tile's last row
+  int right; // one past the tile's last column
+  IntQueue inbox;
+  IntQueue outbox;
+
+  TileFill(PackedBoard board, int tileRow, int tileCol, IntQueue inbox) {
+    this.board = board;
+    this.top = tileRow << ParallelRevealEngine.TILE_BITS;
+    this.left = tileCol << ParallelRevealEngine.TILE_BITS;
+    this.bottom = Math.min(board.rows, this.top + ParallelRevealEngine.TILE);
+    this.right = Math.min(board.cols, this.left + ParallelRevealEngine.TILE);
+    this.inbox = inbox;
+    this.outbox = new IntQueue();
+  }
+
+  /* TILEFILL TEMPLATE
+   * FIELDS
+   * this.board    -PackedBoard
+   * this.top      -int
+   * this.left     -int
+   * this.bottom   -int
+   * this.right    -int
+   * this.inbox    -IntQueue
+   * this.outbox   -IntQueue
+   * 
+   * METHODS
+   * this.compute()   -ArrayList<Coord>
+   */
+
+  // EFFECT: reveals the hidden cells handed to this tile and floods out from them
+  // within the tile, writing only the tile's cells
+  // returns the coords of the cells it revealed
+  protected ArrayList<Coord> compute() {
+    PackedBoard board = this.board;
+    ArrayList<Coord> revealed = new ArrayList<Coord>();
+    IntQueue work = new IntQueue();
+    while (!this.inbox.isEmpty()) {
+      int idx = this.inbox.take();
+      if (!board.has(idx, PackedBoard.REVEALED | PackedBoard.FLAGGED)) {
+        // not board.set, revealedSafe, dirty and the bitsets are shared with the other tiles
+        board.cells[idx] |= PackedBoard.REVEALED;
+        revealed.add(new Coord(idx / board.cols, idx % board.cols));
+        work.add(idx);
+      }
+    }
+
+    while (!work.isEmpty()) {
+      int curr = work.take();
+      if (board.count(curr) != 0) {
+        continue;
+      }
+      int row = curr / board.cols;
+      int col = curr % board.cols;
+      for (int r = Math.max(0, row - 1); r <= Math.min(board.rows - 1, row + 1); r++) {
+        for (int c = Math.max(0, col - 1); c <= Math.min(board.cols - 1, col + 1); c++) {
+          int next = r * board.cols + c;
+          if (r < this.top || r >= this.bottom || c < this.left || c >= this.right) {
+            this.outbox.add(next);
+          }
+          else if (!board.has(next, PackedBoard.REVEALED | PackedBoard.FLAGGED)) {
+            board.cells[next] |= PackedBoard.REVEALED;
+            revealed.add(new Coord(r, c));
+            work.add(next);
+          }
+        }
+      }
+    }
+    return revealed;
+  }
+}
+
+// the connected groups of cells with no neighboring mines on a board, each with
+// the numbered cells around its edge, worked out once after the mines are placed so
+// a click in a group reveals all of it in one pass instead of flooding cell by cell.
+// groups are found with union-find and their cells kept one group after another in
+// members, group g taking members[start[g]] up to members[start[g + 1]]
+class ZeroRegions {
+  int[] label; // the group of each cell with no neighboring mines, -1 for other cells
+  int[] start;
+  int[] members;
+  boolean[] stale; // groups a flag or an earlier reveal touched, flooded instead
+
+  ZeroRegions(PackedBoard board) {
+    int cells = board.cells.length;
+    int cols = board.cols;
+
+    // join every empty cell to the empty cells before it that touch it
+    int[] parent = new int[cells];
+    for (int idx = 0; idx < cells; idx++) {
+      parent[idx] = -1;
+      if (this.isEmpty(board, idx)) {
+        parent[idx] = idx;
+        int row = idx / cols;
+        int col = idx % cols;
+        if (col > 0 && this.isEmpty(board, idx - 1)) {
+          this.union(parent, idx, idx - 1);
+        }
+        if (row > 0) {
+          for (int c = Math.max(0, col - 1); c <= Math.min(cols - 1, col + 1); c++) {
+            if (this.isEmpty(board, idx - cols - col + c)) {
+              this.union(parent, idx, idx - cols - col + c);
+            }
+          }
+        }
+      }
+    }
+
+    // number the groups in order of their first cell, every root is the first cell
+    // of its set so it is numbered before the cells that point to it
+    this.label = new int[cells];
+    int groups = 0;
+    for (int idx = 0; idx < cells; idx++) {
+      if (parent[idx] < 0) {
+        this.label[idx] = -1;
+      }
+      else if (this.find(parent, idx) == idx) {
+        this.label[idx] = groups;
+        groups++;
+      }
+      else {
+        this.label[idx] = this.label[this.find(parent, idx)];
+      }
+    }
+
+    // count each group's cells, then put them in place
+    this.start = new int[groups + 1];
+    int[] around = new int[8];
+    int[] seen = new int[8];
+    for (int pass = 0; pass < 2; pass++) {
+      int[] next = new int[groups];
+      if (pass == 1) {
+        for (int g = 0; g < groups; g++) {
+          this.start[g + 1] += this.start[g];
+          next[g] = this.start[g];
+        }
+        this.members = new int[this.start[groups]];
+      }
+      for (int idx = 0; idx < cells; idx++) {
+        if (board.has(idx, PackedBoard.MINE)) {
+          continue;
+        }
+        int found = 0;
+        if (this.label[idx] >= 0) {
+          seen[found++] = this.label[idx];
+        }
+        else {
+          // a numbered cell belongs to every group next to it
+          int n = board.neighbors(idx, around);
+          for (int i = 0; i < n; i++) {
+            int g = this.label[around[i]];
+            boolean repeat = g < 0;
+            for (int j = 0; j < found && !repeat; j++) {
+              repeat = seen[j] == g;
+            }
+            if (!repeat) {
+              seen[found++] = g;
+            }
+          }
+        }
+        for (int i = 0; i < found; i++) {
+          if (pass == 0) {
+            this.start[seen[i] + 1]++;
+          }
+          else {
+            this.members[next[seen[i]]++] = idx;
+          }
+        }
+      }
+    }
+    // groups that have been played on already might not match a flood any more
+    this.stale = new boolean[groups];
+    for (int idx = 0; idx < cells; idx++) {
+      if (board.has(idx, PackedBoard.FLAGGED)) {
+        this.flagChanged(board, idx);
+      }
+      else if (board.has(idx, PackedBoard.REVEALED) && this.label[idx] >= 0) {
+        this.stale[this.label[idx]] = true;
+      }
+    }
+  }
+
+  /* ZEROREGIONS TEMPLATE
+   * FIELDS
+   * this.label     -int[]
+   * this.start     -int[]
+   * this.members   -int[]
+   * this.stale     -boolean[]
+   * 
+   * METHODS
+   * this.isEmpty(PackedBoard, int)         -boolean
+   * this.find(int[], int)                  -int
+   * this.union(int[], int, int)            -void
+   * this.count()                           -int
+   * this.size(int)                         -int
+   * this.flagChanged(PackedBoard, int)     -void
+   * this.reveal(PackedBoard, int)          -ArrayList<Coord>
+   */
+
+  // is the cell at idx safe with no mines around it?
+  boolean isEmpty(PackedBoard board, int idx) {
+    return (board.cells[idx] & ~(PackedBoard.REVEALED | PackedBoard.FLAGGED)) == 0;
+  }
+
+  // returns the root of idx's set, pointing cells on the way closer to it
+  int find(int[] parent, int idx) {
+    while (parent[idx] != idx) {
+      parent[idx] = parent[parent[idx]];
+      idx = parent[idx];
+    }
+    return idx;
+  }
+
+  // EFFECT: joins the sets of a and b, the lower root becomes the root of both
+  void union(int[] parent, int a, int b) {
+    int rootA = this.find(parent, a);
+    int rootB = this.find(parent, b);
+    if (rootA < rootB) {
+      parent[rootB] = rootA;
+    }
+    else if (rootB < rootA) {
+      parent[rootA] = rootB;
+    }
+  }
+
+  // returns how many groups there are
+  int count() {
+    return this.stale.length;
+  }
+
+  // returns how many cells group g reveals, its edge included
+  int size(int g) {
+    return this.start[g + 1] - this.start[g];
+  }
+
+  // EFFECT: remembers that the groups next to or holding the cell at idx can't be
+  // revealed in one pass any more, because a flag there was placed or taken off
+  void flagChanged(PackedBoard board, int idx) {
+    int[] around = new int[8];
+    int n = board.neighbors(idx, around);
+    if (this.label[idx] >= 0) {
+      this.stale[this.label[idx]] = true;
+    }
+    for (int i = 0; i < n; i++) {
+      if (this.label[around[i]] >= 0) {
+        this.stale[this.label[around[i]]] = true;
+      }
+    }
+  }
+
+  // EFFECT: reveals every hidden cell in the group holding the hidden cell at idx
+  // returns the coords of the newly revealed cells, or null if idx isn't in a group
+  // or the group is stale, and the cells have to be flooded instead
+  ArrayList<Coord> reveal(PackedBoard board, int idx) {
+    if (board.has(idx, PackedBoard.REVEALED | PackedBoard.FLAGGED)) {
+      return new ArrayList<Coord>();
+    }
+    int g = this.label[idx];
+    if (g < 0 || this.stale[g]) {
+      return null;
+    }
+    ArrayList<Coord> revealed = new ArrayList<Coord>(this.size(g));
+    for (int i = this.start[g]; i < this.start[g + 1]; i++) {
+      int cell = this.members[i];
+      if (!board.has(cell, PackedBoard.REVEALED)) {
+        board.set(cell, PackedBoard.REVEALED);
+        revealed.add(new Coord(cell / board.cols, cell % board.cols));
+      }
+    }
+    return revealed;
+  }
+}
+
+// times drawing boards of growing width three ways: the old left-deep chain of
+// BesideImage/AboveImage, the balanced tree from drawBoard, and a full BoardRaster render.
+// run with javalib on the classpath: java RenderBenchmark
+class RenderBenchmark {
+  static final int ROWS = 16;
+  static final int SIZE = 10;
+  static final int REPEATS = 20;
+
+  /* RENDERBENCHMARK TEMPLATE
+   * METHODS
+   * RenderBenchmark.main(String[])             -void
+   * this.drawChained(Minesweeper, int)         -WorldImage
+   * this.timeChained(Minesweeper)              -double
+   * this.timeBalanced(Minesweeper)             -double
+   * this.timeRaster(Minesweeper)               -double
+   */
+
+  // prints the average milliseconds per frame for each width
+  public static void main(String[] args) {
+    RenderBenchmark bench = new RenderBenchmark();
+    System.out.println("width   chained ms   balanced ms   raster ms");
+    for (int width = 16; width <= 4096; width *= 4) {
+      Minesweeper game = new Minesweeper(ROWS, width, 0, SIZE, new Random(1));
+      new RevealEngine().reveal(game.engine.board, 0, 0);
+      String chained;
+      try {
+        chained = String.format("%10.3f", bench.timeChained(game));
+      }
+      catch (StackOverflowError e) {
+        chained = "  overflow";
+      }
+      System.out.println(String.format("%5d   %s   %11.3f   %9.3f", width, chained,
+          bench.timeBalanced(game), bench.timeRaster(game)));
+    }
+  }
+
+  // draws the board the way drawBoard used to, folding every cell onto a left-deep chain
+  WorldImage drawChained(Minesweeper game, int size) {
+    WorldImage boardImage = new EmptyImage();
+    for (int row = 0; row < game.engine.board.rows; row++) {
+      WorldImage rowImage = new EmptyImage();
+      for (int col = 0; col < game.engine.board.cols; col++) {
+        rowImage = new BesideImage(rowImage, game.engine.board.drawCell(row, col, size));
+      }
+      boardImage = new AboveImage(boardImage, rowImage);
+    }
+    return boardImage;
+  }
+
+  // returns the average milliseconds to build and measure the chained image
+  double timeChained(Minesweeper game) {
+    long start = System.nanoTime();
+    for (int i = 0; i < REPEATS; i++) {
+      this.drawChained(game, SIZE).getWidth();
+    }
+    return (System.nanoTime() - start) / 1e6 / REPEATS;
+  }
+
+  // returns the average milliseconds to build and measure the balanced image
+  double timeBalanced(Minesweeper game) {
+    long start = System.nanoTime();
+    for (int i = 0; i < REPEATS; i++) {
+      game.drawBoard(SIZE).getWidth();
+    }
+    return (System.nanoTime() - start) / 1e6 / REPEATS;
+  }
+
+  // returns the average milliseconds to render every cell into a fresh raster
+  double timeRaster(Minesweeper game) {
+    long start = System.nanoTime();
+    for (int i = 0; i < REPEATS; i++) {
+      new BoardRaster().render(game.engine.board, SIZE).getWidth();
+    }
+    return (System.nanoTime() - start) / 1e6 / REPEATS;
+  }
+}
+
+// times the main board operations at board sizes from 9x9 to 4096x4096 and
+// reports nanoseconds and bytes allocated per call, as a baseline for later changes
+// run with `java BenchmarkSuite`
+class BenchmarkSuite {
+  static final int[] SIDES = {9, 64, 512, 4096};
+  static final String[] OPS = {"makeBoard", "randomGen", "setMine", "revealNeighbors",
+      "isAllRevealed", "clickedCell", "drawBoard", "makeScene", "reset", "reveal",
+      "parallelReveal", "regionReveal"};
+  static final int SIZE = 10;
+  static final int CELL_LIMIT = 512; // biggest side to build Cells or image trees for
+  static final int WINDOW = 1024; // window size in pixels for makeScene on big boards
+  static final int CLICKS = 1000; // clickedCell calls per timed run
+
+  int side;
+  Minesweeper game;
+  ArrayList<Coord> mines;
+  ArrayList<ArrayList<Cell>> cells;
+  int warmup; // untimed runs before measuring
+  long minNanos; // keep measuring until at least this much time has been timed
+  long maxNanos; // or until this much time has gone by, counting the untimed parts
+  long sink; // results are added here so the JIT can't skip the work
+  Object kept; // the last board made, kept so the JIT can't skip making it
+
+  BenchmarkSuite() {
+    this.side = 0;
+    this.game = null;
+    this.mines = null;
+    this.cells = null;
+    this.warmup = 3;
+    this.minNanos = 200000000;
+    this.maxNanos = 5000000000L;
+    this.sink = 0;
+    this.kept = null;
+  }
+
+  /* BENCHMARKSUITE TEMPLATE
+   * FIELDS
+   * this.side       -int
+   * this.game       -Minesweeper
+   * this.mines      -ArrayList<Coord>
+   * this.cells      -ArrayList<ArrayList<Cell>>
+   * this.warmup     -int
+   * this.minNanos   -long
+   * this.maxNanos   -long
+   * this.sink       -long
+   * this.kept       -Object
+   * 
+   * METHODS
+   * BenchmarkSuite.main(String[])   -void
+   * this.setUp(int)                 -void
+   * this.supports(String)           -boolean
+   * this.measure(String)            -double[]
+   * this.prepare(String)            -void
+   * this.runOnce(String)            -void
+   * this.makeCells()                -ArrayList<ArrayList<Cell>>
+   * this.allocatedBytes()           -long
+   */
+
+  // prints the time and allocation per call of every operation at every size
+  public static void main(String[] args) {
+    BenchmarkSuite bench = new BenchmarkSuite();
+    System.out.println("side   operation          ns/op          bytes/op     MB/s allocated");
+    for (int side : SIDES) {
+      bench.setUp(side);
+      for (String op : OPS) {
+        if (!bench.supports(op)) {
+          System.out.println(String.format("%4d   %-15s    skipped", side, op));
+          continue;
+        }
+        double[] result = bench.measure(op);
+        System.out.println(String.format("%4d   %-15s %12.0f   %15.0f   %12.1f", side, op,
+            result[0], result[1], result[1] / result[0] * 1e9 / (1 << 20)));
+      }
+    }
+  }
+
+  // EFFECT: builds a side x side game with one mine in eight cells
+  void setUp(int side) {
+    this.side = side;
+    this.game = new Minesweeper(side, side, side * side / 8, SIZE, new Random(1));
+    this.mines = new Utils().randomGen(this.game.numMines, side, side, new Random(1));
+    this.game.engine.setMine(this.mines);
+    if (side * SIZE > WINDOW) {
+      this.game.useViewport(WINDOW, WINDOW);
+    }
+    this.cells = null;
+  }
+
+  // can op be run at the current size without running out of memory?
+  boolean supports(String op) {
+    return this.side <= CELL_LIMIT
+        || !(op.equals("revealNeighbors") || op.equals("drawBoard"));
+  }
+
+  // runs op a few times untimed, then until minNanos have been timed or maxNanos
+  // have gone by, whichever comes first
+  // returns the average nanoseconds and bytes allocated per call
+  double[] measure(String op) {
+    for (int i = 0; i < this.warmup; i++) {
+      this.prepare(op);
+      this.runOnce(op);
+    }
+    // asking for the allocated bytes allocates a little itself
+    long overhead = -this.allocatedBytes() + this.allocatedBytes();
+    long nanos = 0;
+    long bytes = 0;
+    long runs = 0;
+    long begin = System.nanoTime();
+    while (runs == 0 
+        || (nanos < this.minNanos && System.nanoTime() - begin < this.maxNanos)) {
+      this.prepare(op);
+      long startBytes = this.allocatedBytes();
+      long start = System.nanoTime();
+      this.runOnce(op);
+      nanos += System.nanoTime() - start;
+      bytes += Math.max(0, this.allocatedBytes() - startBytes - overhead);
+      runs++;
+    }
+    long calls = runs;
+    if (op.equals("clickedCell")) {
+      calls = runs * CLICKS;
+    }
+    return new double[] {(double) nanos / calls, (double) bytes / calls};
+  }
+
+  // EFFECT: puts back whatever the last run of op changed, outside the timed part
+  void prepare(String op) {
+    if (op.equals("setMine")) {
+      this.game.engine.board = this.game.engine.makeBoard();
+    }
+    else if (op.equals("revealNeighbors")) {
+      this.cells = this.makeCells();
+    }
+    else if (op.equals("isAllRevealed")) {
+      new RevealEngine().reveal(this.game.engine.board, 0, 0);
+    }
+    else if (op.equals("reset")) {
+      this.game.engine.setMine(this.mines);
+      new RevealEngine().reveal(this.game.engine.board, 0, 0);
+    }
+    else if (op.equals("reveal") || op.equals("parallelReveal")) {
+      // no mines, so one click opens the whole board
+      this.game.engine.board.wipe();
+    }
+    else if (op.equals("regionReveal")) {
+      this.game.engine.board.wipe();
+      this.kept = new ZeroRegions(this.game.engine.board);
+    }
+  }
+
+  // EFFECT: runs op once on the current game
+  void runOnce(String op) {
+    Minesweeper game = this.game;
+    if (op.equals("makeBoard")) {
+      this.kept = game.engine.makeBoard();
+    }
+    else if (op.equals("randomGen")) {
+      this.sink += new Utils().randomGen(game.numMines, this.side, this.side, 
+          new Random(this.sink)).size();
+    }
+    else if (op.equals("setMine")) {
+      game.engine.setMine(this.mines);
+    }
+    else if (op.equals("revealNeighbors")) {
+      this.cells.get(this.side / 2).get(this.side / 2).revealNeighbors();
+    }
+    else if (op.equals("isAllRevealed")) {
+      if (new Utils().isAllRevealed(game.engine)) {
+        this.sink++;
+      }
+    }
+    else if (op.equals("clickedCell")) {
+      int span = Math.min(this.side * SIZE, WINDOW);
+      for (int i = 0; i < CLICKS; i++) {
+        this.sink += game.clickedCell(new Posn(i * 7 % span, i * 13 % span)).row;
+      }
+    }
+    else if (op.equals("drawBoard")) {
+      this.sink += (long) game.drawBoard(SIZE).getWidth();
+    }
+    else if (op.equals("makeScene")) {
+      this.sink += game.makeScene().hashCode();
+    }
+    else if (op.equals("reset")) {
+      game.onKeyEvent("r");
+    }
+    else if (op.equals("reveal")) {
+      this.sink += new RevealEngine().reveal(game.engine.board, 0, 0).size();
+    }
+    else if (op.equals("parallelReveal")) {
+      this.sink += new ParallelRevealEngine().reveal(game.engine.board, 0, 0).size();
+    }
+    else if (op.equals("regionReveal")) {
+      this.sink += ((ZeroRegions) this.kept).reveal(game.engine.board, 0).size();
+    }
+    else {
+      throw new IllegalArgumentException("Unknown operation: " + op);
+    }
+  }
+
+  // builds a board the current game's size as rows of linked Cells, with no mines
+  // so revealing any cell floods the whole board
+  ArrayList<ArrayList<Cell>> makeCells() {
+    PackedBoard board = this.game.engine.board;
+    ArrayList<ArrayList<Cell>> rows = new ArrayList<ArrayList<Cell>>();
+    for (int row = 0; row < board.rows; row++) {
+      ArrayList<Cell> cells = new ArrayList<Cell>();
+      for (int col = 0; col < board.cols; col++) {
+        Cell cell = new Cell(false, false, false);
+        cells.add(cell);
+        if (col > 0) {
+          cell.addNeighbors(cells.get(col - 1));
+        }
+        if (row > 0) {
+          ArrayList<Cell> above = rows.get(row - 1);
+          for (int c = Math.max(0, col - 1); c <= Math.min(board.cols - 1, col + 1); c++) {
+            cell.addNeighbors(above.get(c));
+          }
+        }
+      }
+      rows.add(cells);
+    }
+    return rows;
+  }
+
+  // returns the bytes allocated so far by this thread, or 0 if the JVM can't tell
+  long allocatedBytes() {
+    java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    if (threads instanceof com.sun.management.ThreadMXBean) {
+      return ((com.sun.management.ThreadMXBean) threads)
+          .getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+    return 0;
+  }
+}
+
+class ExampleMinesweeper {
+  Minesweeper ms;
+  Minesweeper ms2;
+  Minesweeper ms3;
+  Minesweeper ms4;
   Minesweeper ms5;
 
-  Cell exampleCell1;
-  Cell exampleCell3;
-  Cell exampleCell4;
-  Cell exampleCell5;
-  Cell exampleCell6;
-  ArrayList<Coord> randCoordList = new ArrayList<Coord>();
-  ArrayList<Cell> cellList = new ArrayList<Cell>();
-  ArrayList<ArrayList<Cell>> exampleBoard = new ArrayList<ArrayList<Cell>>();
-  ArrayList<ArrayList<Cell>> exampleBoard2 = new ArrayList<ArrayList<Cell>>();
-  ArrayList<ArrayList<Cell>> exampleBoard3 = new ArrayList<ArrayList<Cell>>();
+  Cell exampleCell1;
+  Cell exampleCell3;
+  Cell exampleCell4;
+  Cell exampleCell5;
+  Cell exampleCell6;
+  ArrayList<Coord> randCoordList = new ArrayList<Coord>();
+  ArrayList<Cell> cellList = new ArrayList<Cell>();
+  ArrayList<ArrayList<Cell>> exampleBoard = new ArrayList<ArrayList<Cell>>();
+  ArrayList<ArrayList<Cell>> exampleBoard2 = new ArrayList<ArrayList<Cell>>();
+  ArrayList<ArrayList<Cell>> exampleBoard3 = new ArrayList<ArrayList<Cell>>();
+
+  ArrayList<Cell> exampleRow0 = new ArrayList<Cell>();
+  ArrayList<Cell> exampleRow1 = new ArrayList<Cell>();
+  ArrayList<Cell> exampleRow2 = new ArrayList<Cell>();
+  ArrayList<Cell> exampleRow3 = new ArrayList<Cell>();
+  ArrayList<Cell> exampleRow4 = new ArrayList<Cell>();
+
+  ArrayList<Cell> exampleRow5 = new ArrayList<Cell>();
+  ArrayList<Cell> exampleRow6 = new ArrayList<Cell>();
+  ArrayList<Cell> exampleRow7 = new ArrayList<Cell>();
+  ArrayList<Cell> exampleRow8 = new ArrayList<Cell>();
+
+  ArrayList<Cell> exampleRow9 = new ArrayList<Cell>();
+  ArrayList<Cell> exampleRow10 = new ArrayList<Cell>();
+  ArrayList<Cell> exampleRow11 = new ArrayList<Cell>();
+  ArrayList<Cell> exampleRow12 = new ArrayList<Cell>();
+
+  ArrayList<ArrayList<Cell>> board1;
+
+  Random randTest;
+  ArrayList<Coord> coordList;
+
+  Cell cell6; //hidden
+  Cell cell7; //hidden
+  Cell cell8; //hidden
+  Cell cell9; //hidden
+  Cell cell10; //hidden
+  Cell cell11; //hidden
+  Cell cell12; //hidden
+  Cell cell13; //hidden
+
+  Cell exampleCell = new Cell(false, false, false);
+  Cell exampleCell2 = new Cell(true, true, false);
+
+
+  void initConditions() {
+    this.ms = new Minesweeper(4, 3, 3, 50, this.randTest);
+    this.ms2 = new Minesweeper(4, 3, 3, 50, this.randTest);
+    this.ms3 = new Minesweeper(4, 2, 3, 50, this.randTest);
+    this.ms4 = new Minesweeper(4, 2, 3, 50, this.randTest);
+    this.ms5 = new Minesweeper(30, 19, 50, 40);
+    this.randTest = new Random(5); 
+
+    this.exampleCell1 = new Cell(false, true, false);
+    this.coordList = new ArrayList<Coord>();
+
+    this.cell6 = new Cell(false, false, false);
+    this.exampleRow9.add(this.cell6);
+    this.cell7 = new Cell(false, false, false);
+    this.exampleRow9.add(this.cell7);
+    this.cell8 = new Cell(false, false, false);
+    this.exampleRow10.add(this.cell8);
+    this.cell9 = new Cell(false, false, false);
+    this.exampleRow10.add(this.cell9);
+    this.cell10 = new Cell(false, false, false);
+    this.exampleRow11.add(this.cell10);
+    this.cell11 = new Cell(false, false, false);
+    this.exampleRow11.add(this.cell11);
+    this.cell12 = new Cell(false, false, false);
+    this.exampleRow12.add(this.cell12);
+    this.cell13 = new Cell(false, false, false);
+    this.exampleRow12.add(this.cell13);
+
+    this.cell6.addNeighbors(this.cell7);
+    this.cell6.addNeighbors(this.cell8);
+    this.cell6.addNeighbors(this.cell9);
+    this.cell7.addNeighbors(this.cell8);
+    this.cell7.addNeighbors(this.cell9);
+    this.cell8.addNeighbors(this.cell9);
+    this.cell8.addNeighbors(this.cell10);
+    this.cell8.addNeighbors(this.cell11);
+    this.cell9.addNeighbors(this.cell10);
+    this.cell9.addNeighbors(this.cell11);
+    this.cell10.addNeighbors(this.cell11);
+    this.cell10.addNeighbors(this.cell12);
+    this.cell10.addNeighbors(this.cell13);
+    this.cell11.addNeighbors(this.cell12);
+    this.cell11.addNeighbors(this.cell13);
+    this.cell12.addNeighbors(this.cell13);
+
+    this.exampleBoard3.add(this.exampleRow9);
+    this.exampleBoard3.add(this.exampleRow10);
+    this.exampleBoard3.add(this.exampleRow11);
+    this.exampleBoard3.add(this.exampleRow12);
+
+
+    this.exampleCell1 = new Cell(false, true, false);
+    Cell neighbor1 = new Cell(true, false, false);
+    Cell neighbor2 = new Cell(true, true, false);
+    Cell neighbor3 = new Cell(false, false, false);
+    Cell neighbor4 = new Cell(true, true, false);
+    this.exampleCell1.addNeighbors(neighbor1);
+    this.exampleCell1.addNeighbors(neighbor2);
+    this.exampleCell1.addNeighbors(neighbor3);
+    this.exampleCell1.addNeighbors(neighbor4);
+
+    this.exampleCell4 = new Cell(true, true, false);
+    Cell neighbor5 = new Cell(true, false, false);
+    Cell neighbor6 = new Cell(true, true, false);
+    Cell neighbor7 = new Cell(true, false, false);
+    Cell neighbor8 = new Cell(true, true, false);
+    this.exampleCell4.addNeighbors(neighbor5);
+    this.exampleCell4.addNeighbors(neighbor6);
+    this.exampleCell4.addNeighbors(neighbor7);
+    this.exampleCell4.addNeighbors(neighbor8);
+
+    this.exampleCell5 = new Cell(false, false, false);
+    Cell neighbor9 = new Cell(true, false, false);
+    Cell neighbor10 = new Cell(true, false, false);
+    Cell neighbor11 = new Cell(false, false, false);
+    this.exampleCell5.addNeighbors(neighbor9);
+    this.exampleCell5.addNeighbors(neighbor10);
+    this.exampleCell5.addNeighbors(neighbor11);
+
+    this.exampleRow0 = new ArrayList<>();
+    this.exampleRow0.add(new Cell(false, false, false));
+    this.exampleRow0.add(new Cell(false, false, false));
+    this.exampleRow0.add(new Cell(false, false, false));
+
+    this.exampleRow1 = new ArrayList<>();
+    this.exampleRow1.add(new Cell(false, true, false));
+    this.exampleRow1.add(new Cell(false, true, false));
+    this.exampleRow1.add(new Cell(false, false, false));
+
+    this.exampleRow2 = new ArrayList<>();
+    this.exampleRow2.add(new Cell(true, true, false));
+    this.exampleRow2.add(new Cell(true, false, false));
+    this.exampleRow2.add(new Cell(true, false, false));
+
+    this.exampleRow3 = new ArrayList<>();
+    this.exampleRow3.add(new Cell(false, false, false));
+    this.exampleRow3.add(new Cell(true, false, false));
+    this.exampleRow3.add(new Cell(true, false, false));
+
+    this.exampleRow4 = new ArrayList<>();
+    this.exampleRow4.add(new Cell(true, false, false));
+    this.exampleRow4.add(new Cell(true, false, false));
+    this.exampleRow4.add(new Cell(true, false, false));
+
+    this.exampleRow5 = new ArrayList<>();
+    this.exampleRow5.add(new Cell(false, false, false));
+    this.exampleRow5.add(new Cell(false, false, false));
+    this.exampleRow5.add(new Cell(false, false, false));
+
+    this.exampleRow6 = new ArrayList<>();
+    this.exampleRow6.add(new Cell(false, false, false));
+    this.exampleRow6.add(new Cell(false, false, false));
+    this.exampleRow6.add(new Cell(false, false, false));
+
+    this.exampleRow7 = new ArrayList<>();
+    this.exampleRow7.add(new Cell(false, false, false));
+    this.exampleRow7.add(new Cell(false, false, false));
+    this.exampleRow7.add(new Cell(false, false, false));
+
+    this.exampleRow8 = new ArrayList<>();
+    this.exampleRow8.add(new Cell(false, false, false));
+    this.exampleRow8.add(new Cell(false, false, false));
+    this.exampleRow8.add(new Cell(false, false, false));
+
+    this.exampleBoard2 = new ArrayList<ArrayList<Cell>>();
+    this.exampleBoard2.add(this.exampleRow5);
+    this.exampleBoard2.add(this.exampleRow6);
+    this.exampleBoard2.add(this.exampleRow7);
+    this.exampleBoard2.add(this.exampleRow8);
+
+    this.exampleBoard = new ArrayList<ArrayList<Cell>>();
+    this.exampleBoard.add(this.exampleRow0);
+    this.exampleBoard.add(this.exampleRow1);
+    this.exampleBoard.add(this.exampleRow2);
+    this.exampleBoard.add(this.exampleRow3);
+
+    this.coordList.add(new Coord(1, 1));
+    this.coordList.add(new Coord(2, 0));
+    this.coordList.add(new Coord(1, 0));
+
+    this.ms.engine.setMine(this.coordList);
+    this.ms.engine.board.revealCell(2, 0);
+    this.ms.engine.board.revealCell(2, 1);
+    this.ms.engine.board.revealCell(2, 2);
+    this.ms.engine.board.revealCell(3, 1);
+    this.ms.engine.board.revealCell(3, 2);
+    this.ms.engine.board.placeFlag(1, 0);
+    this.ms.engine.board.placeFlag(1, 1);
+
+    this.exampleCell6 = new Cell(false, true, false);
+    Cell neighbor12 = new Cell(false, true, false);
+    Cell neighbor13 = new Cell(false, false, false);
+    Cell neighbor14 = new Cell(false, false, false);
+    this.exampleCell6.addNeighbors(neighbor12);
+    this.exampleCell6.addNeighbors(neighbor13);
+    this.exampleCell6.addNeighbors(neighbor14);
+
+    this.exampleCell3 = new Cell(false, true, true);
+  }
+
+  // MINESWEEPER METHODS
+  // test makeScene 
+  boolean testMakeScene(Tester t) {
+    this.initConditions();
+    WorldScene ws = new WorldScene(150, 200);
+    ws.placeImageXY(new BoardRaster().render(this.ms.engine.board, 50), 75, 100);
+
+    return t.checkExpect(this.ms.makeScene(), ws);
+  }
+
+  // test that makeScene only redraws the cells that changed
+  void testMakeSceneIncremental(Tester t) {
+    this.initConditions();
+
+    this.ms.makeScene();
+    t.checkExpect(this.ms.raster.cellsPainted, 12);
+    this.ms.makeScene();
+    t.checkExpect(this.ms.raster.cellsPainted, 0);
+
+    this.ms.onMouseClicked(new Posn(25, 25), "RightButton");
+    this.ms.onMouseClicked(new Posn(125, 25), "LeftButton");
+    WorldScene scene = this.ms.makeScene();
+    t.checkExpect(this.ms.raster.cellsPainted, 2);
+
+    // the same as drawing the board from scratch
+    WorldScene ws = new WorldScene(150, 200);
+    ws.placeImageXY(new BoardRaster().render(this.ms.engine.board, 50), 75, 100);
+    t.checkExpect(scene, ws);
+
+    // a new board is drawn in full
+    this.ms.onKeyEvent("r");
+    this.ms.makeScene();
+    t.checkExpect(this.ms.raster.cellsPainted, 12);
+  }
+
+  // test the viewport only draws what the window can see
+  void testMakeViewportScene(Tester t) {
+    this.initConditions();
+    // a 60x60 window over the 150x200 board, scrolled so only (1, 1), (1, 2), (2, 1)
+    // and (2, 2) can be seen
+    this.ms.useViewport(60, 60);
+    this.ms.view = new ViewTransform(70, 70, 1);
+
+    WorldScene ws = new WorldScene(60, 60);
+    ws.placeImageXY(this.ms.engine.board.drawCell(1, 1, 50), -20 + 25, -20 + 25);
+    ws.placeImageXY(this.ms.engine.board.drawCell(1, 2, 50), 30 + 25, -20 + 25);
+    ws.placeImageXY(this.ms.engine.board.drawCell(2, 1, 50), -20 + 25, 30 + 25);
+    ws.placeImageXY(this.ms.engine.board.drawCell(2, 2, 50), 30 + 25, 30 + 25);
+    t.checkExpect(this.ms.makeScene(), ws);
+
+    // zoomed out by half, the tiles are drawn at half size
+    this.ms.view = new ViewTransform(100, 150, 0.5);
+    WorldScene ws2 = new WorldScene(60, 60);
+    ws2.placeImageXY(this.ms.engine.board.drawCell(3, 2, 25), 0 + 12, 0 + 12);
+    t.checkExpect(this.ms.makeScene(), ws2);
+
+    // at 0.375 the 50 pixel cells are 18.75 wide, so the edges land on 0, 18, 37,
+    // 56 and 75 and each tile is sized to reach the next one
+    this.ms.view = new ViewTransform(0, 0, 0.375);
+    int[] edges = {0, 18, 37, 56, 75};
+    WorldScene ws3 = new WorldScene(60, 60);
+    for (int row = 0; row < 4; row++) {
+      for (int col = 0; col < 3; col++) {
+        int tile = Math.max(edges[col + 1] - edges[col], edges[row + 1] - edges[row]);
+        ws3.placeImageXY(this.ms.engine.board.drawCell(row, col, tile),
+            edges[col] + tile / 2, edges[row] + tile / 2);
+      }
+    }
+    t.checkExpect(this.ms.makeScene(), ws3);
+  }
+
+  // test useViewport
+  void testUseViewport(Tester t) {
+    this.initConditions();
+
+    t.checkExpect(this.ms.sceneWidth(), 150);
+    t.checkExpect(this.ms.sceneHeight(), 200);
+    this.ms.useViewport(100, 80);
+    t.checkExpect(this.ms.sceneWidth(), 100);
+    t.checkExpect(this.ms.sceneHeight(), 80);
+    t.checkExpect(this.ms.view, new ViewTransform());
+    t.checkException(new IllegalArgumentException("Viewport must have a positive size."),
+        this.ms, "useViewport", 0, 80);
+  }
+
+  // test moveCamera
+  void testMoveCamera(Tester t) {
+    this.initConditions();
+    this.ms.useViewport(100, 100);
+
+    this.ms.moveCamera(30, 40, 1);
+    t.checkExpect(this.ms.view, new ViewTransform(30, 40, 1));
+    // can't scroll past the edge of the board
+    this.ms.moveCamera(1000, -1000, 1);
+    t.checkExpect(this.ms.view, new ViewTransform(50, 0, 1));
+    // zooming in keeps the middle of the window in place
+    this.ms.moveCamera(0, 0, 2);
+    t.checkExpect(this.ms.view, new ViewTransform(75, 25, 2));
+    // zoom stops at MAX_ZOOM
+    this.ms.moveCamera(0, 0, 100);
+    t.checkExpect(this.ms.view.scale, Minesweeper.MAX_ZOOM);
+    // zoomed all the way out the whole board fits, so it sits at the top left
+    this.ms.moveCamera(0, 0, 0.001);
+    t.checkExpect(this.ms.view, new ViewTransform(0, 0, Minesweeper.MIN_ZOOM));
+  }
+
+  // test firstVisible and lastVisible
+  void testVisible(Tester t) {
+    this.initConditions();
+    this.ms.useViewport(60, 60);
+
+    t.checkExpect(this.ms.firstVisible(), new Coord(0, 0));
+    t.checkExpect(this.ms.lastVisible(), new Coord(1, 1));
+    this.ms.view = new ViewTransform(50, 100, 1);
+    t.checkExpect(this.ms.firstVisible(), new Coord(2, 1));
+    t.checkExpect(this.ms.lastVisible(), new Coord(3, 2));
+    this.ms.view = new ViewTransform(0, 0, 0.25);
+    t.checkExpect(this.ms.lastVisible(), new Coord(3, 2));
+  }
+
+  // test the camera keys
+  void testOnKeyEventCamera(Tester t) {
+    this.initConditions();
+
+    // without a viewport the keys do nothing to the camera
+    this.ms.onKeyEvent("right");
+    t.checkExpect(this.ms.view, new ViewTransform());
+
+    this.ms.useViewport(100, 100);
+    this.ms.onKeyEvent("right");
+    this.ms.onKeyEvent("down");
+    this.ms.onKeyEvent("down");
+    t.checkExpect(this.ms.view, new ViewTransform(50, 100, 1));
+    this.ms.onKeyEvent("left");
+    this.ms.onKeyEvent("up");
+    t.checkExpect(this.ms.view, new ViewTransform(0, 50, 1));
+    this.ms.onKeyEvent("+");
+    t.checkExpect(this.ms.view.scale, 2.0);
+    this.ms.onKeyEvent("-");
+    t.checkExpect(this.ms.view.scale, 1.0);
+    // clicks follow the camera
+    t.checkExpect(this.ms.clickedCell(new Posn(10, 10)), new Coord(1, 0));
+  }
+
+  // test set mine
+  void testSetMine(Tester t) {
+    this.initConditions();
+    //this.ms.engine.setMine(this.coordList);
+
+    // mines in: (row 1 col 1), (row 2 col 0), (row 1 col 0)
+    t.checkExpect(this.ms.engine.board.isMine(1, 1), true);
+    t.checkExpect(this.ms.engine.board.isMine(2, 0), true);
+    t.checkExpect(this.ms.engine.board.isMine(1, 0), true);  
+  }
+
+  //test makeBoard
+  boolean testMakeBoard(Tester t) {
+    this.initConditions();
+
+    // testing sameness of makeBoard on the same instance of a 4x2 with 3 mines
+    return t.checkExpect(this.ms3.engine.makeBoard(), this.ms4.engine.makeBoard())
+        // every cell starts hidden with no mines around it
+        && t.checkExpect(this.ms3.engine.makeBoard().cells, new byte[8])
+        && t.checkExpect(this.ms3.engine.makeBoard().rows, 4)
+        && t.checkExpect(this.ms3.engine.makeBoard().cols, 2);
+  }
+
+  // test drawRow
+  boolean testDrawRow(Tester t) {
+    this.initConditions();
+    this.ms2.engine.board.revealCell(3, 0);
+    this.ms2.engine.board.revealCell(3, 1);
+    this.ms2.engine.board.revealCell(3, 2);
+
+    // test drawRow on a row of hidden cells
+    return t.checkExpect(this.ms.drawRow(0, 50), 
+        new BesideImage(this.exampleRow0.get(0).drawCell(50),
+            new BesideImage(this.exampleRow0.get(1).drawCell(50),
+                this.exampleRow0.get(2).drawCell(50))))
+        // test drawRow on a row of revealed cells
+        && t.checkExpect(this.ms2.drawRow(3, 50), 
+            new BesideImage(this.exampleRow4.get(0).drawCell(50),
+                new BesideImage(this.exampleRow4.get(1).drawCell(50),
+                    this.exampleRow4.get(2).drawCell(50))));
+  }
+
+  // test drawCells
+  boolean testDrawCells(Tester t) {
+    this.initConditions();
+    Minesweeper wide = new Minesweeper(1, 5, 0, 50, this.randTest);
+    WorldImage hidden = wide.engine.board.drawCell(0, 0, 50);
+
+    // no cells
+    return t.checkExpect(wide.drawCells(0, 2, 2, 50), new EmptyImage())
+        // one cell
+        && t.checkExpect(wide.drawCells(0, 4, 5, 50), hidden)
+        // the halves are split as evenly as possible
+        && t.checkExpect(wide.drawCells(0, 0, 5, 50),
+            new BesideImage(new BesideImage(hidden, hidden), 
+                new BesideImage(hidden, new BesideImage(hidden, hidden))));
+  }
+
+  // test drawRows
+  boolean testDrawRows(Tester t) {
+    this.initConditions();
+
+    return t.checkExpect(this.ms.drawRows(1, 1, 50), new EmptyImage())
+        && t.checkExpect(this.ms.drawRows(1, 2, 50), this.ms.drawRow(1, 50))
+        && t.checkExpect(this.ms.drawRows(1, 4, 50), new AboveImage(this.ms.drawRow(1, 50),
+            new AboveImage(this.ms.drawRow(2, 50), this.ms.drawRow(3, 50))));
+  }
+
+  // test drawBoard
+  boolean testDrawBoard(Tester t) {
+    this.initConditions();
+
+    // test drawBoard on a board of hidden cells           
+    return t.checkExpect(this.ms2.drawBoard(50), new AboveImage(new AboveImage(
+        new BesideImage(this.exampleRow5.get(0).drawCell(50),
+            new BesideImage(this.exampleRow5.get(1).drawCell(50), 
+                this.exampleRow5.get(2).drawCell(50))), 
+        new BesideImage(this.exampleRow6.get(0).drawCell(50),
+            new BesideImage(this.exampleRow6.get(1).drawCell(50), 
+                this.exampleRow6.get(2).drawCell(50)))),
+        new AboveImage(
+            new BesideImage(this.exampleRow7.get(0).drawCell(50),
+                new BesideImage(this.exampleRow7.get(1).drawCell(50), 
+                    this.exampleRow7.get(2).drawCell(50))), 
+            new BesideImage(this.exampleRow8.get(0).drawCell(50),
+                new BesideImage(this.exampleRow8.get(1).drawCell(50), 
+                    this.exampleRow8.get(2).drawCell(50))))));
+
+  }
+
+  //test worldEnds
+  boolean testWorldEnds(Tester t) {
+    this.initConditions();
+    TextImage loseText = new TextImage("YOU LOSE", 50, Color.red);
+    TextImage winText = new TextImage("YOU WIN", 50, Color.green);
+
+    //setup for losing worldEnd
+    this.ms.engine.lost = true;
+    WorldScene scene1 = ms.makeScene();
+    scene1.placeImageXY(loseText, 75, 100);
+
+    //setup for winning worldEnd
+    this.ms2.engine.setMine(this.coordList);
+    this.ms2.engine.board.revealCell(2, 0);
+    this.ms2.engine.board.revealCell(2, 1);
+    this.ms2.engine.board.revealCell(2, 2);
+    this.ms2.engine.board.revealCell(3, 1);
+    this.ms2.engine.board.revealCell(3, 2);
+    this.ms2.engine.board.placeFlag(1, 0);
+    this.ms2.engine.board.placeFlag(1, 1);
+    this.ms2.engine.board.revealCell(0, 0);
+    this.ms2.engine.board.revealCell(0, 1);
+    this.ms2.engine.board.revealCell(0, 2);
+    this.ms2.engine.board.revealCell(1, 2);
+    this.ms2.engine.board.revealCell(3, 0);
+    WorldScene scene2 = ms2.makeScene();
+    scene2.placeImageXY(winText, 75, 100);
+
+    //setup for game hasnt ended yet
+    WorldScene scene3 = ms3.makeScene();
+
+    //player loses
+    return t.checkExpect(this.ms.worldEnds(), new WorldEnd(true, scene1))
+        //player wins
+        && t.checkExpect(this.ms2.worldEnds(), new WorldEnd(true, scene2))
+        //game hasnt ended yet 
+        && t.checkExpect(this.ms3.worldEnds(), new WorldEnd(false, scene3));
+  }
+
+  // test allRevealed
+  void testAllRevealed(Tester t) {
+    this.initConditions();
+    this.ms.engine.debug = true;
+
+    // 4 of the 9 cells without mines are revealed
+    t.checkExpect(this.ms.engine.board.revealedSafe, 4);
+    t.checkExpect(this.ms.engine.allRevealed(), false);
+
+    // revealing a mine doesn't count towards winning
+    this.ms.engine.board.revealCell(1, 1);
+    t.checkExpect(this.ms.engine.board.revealedSafe, 4);
+
+    // revealing a cell twice only counts it once
+    this.ms.engine.board.revealCell(0, 0);
+    this.ms.engine.board.revealCell(0, 0);
+    t.checkExpect(this.ms.engine.board.revealedSafe, 5);
+
+    this.ms.engine.board.revealCell(0, 1);
+    this.ms.engine.board.revealCell(0, 2);
+    this.ms.engine.board.revealCell(1, 2);
+    this.ms.engine.board.revealCell(3, 0);
+    t.checkExpect(this.ms.engine.allRevealed(), true);
+    t.checkExpect(this.ms.engine.allRevealed(), new Utils().isAllRevealed(this.ms.engine));
+
+    // hiding a cell again takes it off the count
+    this.ms.engine.board.clear(0, PackedBoard.REVEALED);
+    t.checkExpect(this.ms.engine.allRevealed(), false);
+  }
+
+  // test that debug mode catches a count that drifted from the board
+  boolean testAllRevealedDrift(Tester t) {
+    this.initConditions();
+    this.ms.engine.debug = true;
+    this.ms.engine.board.revealedSafe = 9;
+
+    return t.checkException(
+        new IllegalStateException("Revealed cell count drifted from the board."),
+        this.ms.engine, "allRevealed");
+  }
+
+  // test mouseClicked 
+  void testOnMouseClicked(Tester t) {
+    this.initConditions();
+    // left click and isn't a mine 
+    t.checkExpect(this.ms.engine.board.isRevealed(0, 0), false);
+    this.ms.onMouseClicked(new Posn(25, 25), "LeftButton");
+    t.checkExpect(this.ms.engine.board.isRevealed(0, 0), true);
+
+    // left click and is a mine - game over and lose & reveal all mines
+    this.initConditions();
+
+    t.checkExpect(this.ms.engine.board.isRevealed(0, 0), false);
+    this.ms.onMouseClicked(new Posn(25, 125), "LeftButton");
+    t.checkExpect(this.ms.engine.board.isRevealed(0, 0), true);
+    t.checkExpect(this.ms.engine.status(), GameStatus.LOST);
+
+    // right and not flagged - places the flag
+    this.initConditions();
+
+    t.checkExpect(this.ms.engine.board.isFlagged(0, 0), false);
+    this.ms.onMouseClicked(new Posn(25, 25), "RightButton");
+    t.checkExpect(this.ms.engine.board.isFlagged(0, 0), true);
+
+    // right and flagged - removes the flag
+    this.initConditions();
+
+    t.checkExpect(this.ms.engine.board.isFlagged(1, 1), true);
+    this.ms.onMouseClicked(new Posn(55, 55), "RightButton");
+    t.checkExpect(this.ms.engine.board.isFlagged(1, 1), false);
+
+    // click off the board - nothing happens
+    this.initConditions();
+
+    this.ms.onMouseClicked(new Posn(175, 25), "RightButton");
+    this.ms.onMouseClicked(new Posn(25, -5), "LeftButton");
+    t.checkExpect(this.ms.engine.board.isFlagged(0, 0), false);
+    t.checkExpect(this.ms.engine.board.isRevealed(0, 0), false);
+    t.checkExpect(this.ms.engine.status(), GameStatus.PLAYING);
+
+  }
+
+  //test clickedCell
+  boolean testClickedCell(Tester t) {
+    this.initConditions();
+    Posn pos1 = new Posn(60, 140);
+    Posn pos2 = new Posn(25, 25);
+    Posn pos3 = new Posn(140, 55);
+
+    return t.checkExpect(this.ms.clickedCell(pos1), new Coord(2, 1))
+        && t.checkExpect(this.ms.clickedCell(pos2), new Coord(0, 0))
+        && t.checkExpect(this.ms.clickedCell(pos3), new Coord(1, 2))
+        // borders belong to the cell below and to the right
+        && t.checkExpect(this.ms.clickedCell(new Posn(50, 100)), new Coord(2, 1))
+        && t.checkExpect(this.ms.clickedCell(new Posn(0, 0)), new Coord(0, 0))
+        // off the board
+        && t.checkExpect(this.ms.clickedCell(new Posn(150, 10)), new Coord(0, 3))
+        && t.checkExpect(this.ms.clickedCell(new Posn(-1, 10)), new Coord(0, -1));
+  }
+
+  //test clickedCell once the board is panned and zoomed
+  boolean testClickedCellView(Tester t) {
+    this.initConditions();
+    // zoomed in 2x, scrolled 50 pixels right and 25 down
+    this.ms.view = new ViewTransform(50, 25, 2);
+
+    return t.checkExpect(this.ms.clickedCell(new Posn(0, 0)), new Coord(0, 1))
+        && t.checkExpect(this.ms.clickedCell(new Posn(110, 60)), new Coord(1, 2));
+  }
+
+  //VIEWTRANSFORM METHODS
+  //test toBoard and toScreen
+  boolean testViewTransform(Tester t) {
+    ViewTransform view = new ViewTransform(10, 20, 0.5);
 
-  ArrayList<Cell> exampleRow0 = new ArrayList<Cell>();
-  ArrayList<Cell> exampleRow1 = new ArrayList<Cell>();
-  ArrayList<Cell> exampleRow2 = new ArrayList<Cell>();
-  ArrayList<Cell> exampleRow3 = new ArrayList<Cell>();
-  ArrayList<Cell> exampleRow4 = new ArrayList<Cell>();
+    return t.checkExpect(new ViewTransform().toBoard(new Posn(7, 9)), new Posn(7, 9))
+        && t.checkExpect(view.toBoard(new Posn(4, 6)), new Posn(18, 32))
+        && t.checkExpect(view.toScreen(new Posn(18, 32)), new Posn(4, 6))
+        && t.checkConstructorException(new IllegalArgumentException(
+            "Scale must be positive."), "ViewTransform", 0.0, 0.0, 0.0);
+  }
 
-  ArrayList<Cell> exampleRow5 = new ArrayList<Cell>();
-  ArrayList<Cell> exampleRow6 = new ArrayList<Cell>();
-  ArrayList<Cell> exampleRow7 = new ArrayList<Cell>();
-  ArrayList<Cell> exampleRow8 = new ArrayList<Cell>();
 
-  ArrayList<Cell> exampleRow9 = new ArrayList<Cell>();
-  ArrayList<Cell> exampleRow10 = new ArrayList<Cell>();
-  ArrayList<Cell> exampleRow11 = new ArrayList<Cell>();
-  ArrayList<Cell> exampleRow12 = new ArrayList<Cell>();
 
-  ArrayList<ArrayList<Cell>> board1;
+  // Effect: restarts the game if "r" is pressed
+  void testOnKeyEvent(Tester t) {
+    // initial conditions
+    this.initConditions();
+    this.ms.engine.reveal(3, 2);
+    this.ms.engine.flag(0, 0);
+    PackedBoard board = this.ms.engine.board;
+    byte[] before = board.cells.clone();
 
-  Random randTest;
-  ArrayList<Coord> coordList;
+    //wrong key pressed - nothing changes
+    this.ms.onKeyEvent("a");
+    t.checkExpect(board.cells, before);
+    t.checkExpect(this.ms.engine.pending, null);
 
-  Cell cell1; //flagged
-  Cell cell2; //red circle 
-  Cell cell3; //number
-  Cell cell4; //hidden
-  Cell cell5; //empty
+    //right key pressed and the game restarts on the same board
+    this.ms.onKeyEvent("r");
+    t.checkExpect(this.ms.engine.board == board, true);
+    t.checkExpect(board.cells, new byte[12]);
+    t.checkExpect(board.revealedSafe, 0);
+    t.checkExpect(this.ms.engine.status(), GameStatus.PLAYING);
+    t.checkExpect(this.ms.engine.pending, this.ms.engine.seedRand);
+    t.checkExpect(this.ms.engine.seeded, true);
+
+    // the mines come back on the next click
+    this.ms.onMouseClicked(new Posn(25, 25), "LeftButton");
+    t.checkExpect(this.countMines(board), 3);
+    t.checkExpect(board.isRevealed(0, 0), true);
+    t.checkExpect(this.ms.rows, 4);
+    t.checkExpect(this.ms.size, 50);
+  }
 
-  Cell cell6; //hidden
-  Cell cell7; //hidden
-  Cell cell8; //hidden
-  Cell cell9; //hidden
-  Cell cell10; //hidden
-  Cell cell11; //hidden
-  Cell cell12; //hidden
-  Cell cell13; //hidden
 
-  Cell exampleCell = new Cell(false, false, false);
-  Cell exampleCell2 = new Cell(true, true, false);
 
+  // test constructor exception
+  boolean testConstructorException(Tester t) {
+    // test to make sure there aren't more mines than mines
+    return t.checkConstructorException(new IllegalArgumentException(
+        "More mines than squares. Check again."), 
+        "Minesweeper", 4, 3, 15, 10);
+  }
 
-  void initConditions() {
-    this.ms = new Minesweeper(4, 3, 3, 50, this.randTest);
-    this.ms2 = new Minesweeper(4, 3, 3, 50, this.randTest);
-    this.ms3 = new Minesweeper(4, 2, 3, 50, this.randTest);
-    this.ms4 = new Minesweeper(4, 2, 3, 50, this.randTest);
-    this.ms5 = new Minesweeper(30, 19, 50, 40);
-    this.randTest = new Random(5); 
+  // CELL METHODS
+  // test count neighboring mines 
+  boolean testCount(Tester t) {
+    this.initConditions();
 
-    this.exampleCell1 = new Cell(false, true, false);
-    this.coordList = new ArrayList<Coord>();
+    return t.checkExpect(this.exampleCell1.count(), 2)
+        && t.checkExpect(this.ms.engine.board.count(3, 2), 0);
+  }
 
-    this.cell6 = new Cell(false, false, false);
-    this.exampleRow9.add(this.cell6);
-    this.cell7 = new Cell(false, false, false);
-    this.exampleRow9.add(this.cell7);
-    this.cell8 = new Cell(false, false, false);
-    this.exampleRow10.add(this.cell8);
-    this.cell9 = new Cell(false, false, false);
-    this.exampleRow10.add(this.cell9);
-    this.cell10 = new Cell(false, false, false);
-    this.exampleRow11.add(this.cell10);
-    this.cell11 = new Cell(false, false, false);
-    this.exampleRow11.add(this.cell11);
-    this.cell12 = new Cell(false, false, false);
-    this.exampleRow12.add(this.cell12);
-    this.cell13 = new Cell(false, false, false);
-    this.exampleRow12.add(this.cell13);
+  //test to add neighbors
+  void testAddNeighbors(Tester t) {
+    this.initConditions();
 
-    this.cell6.addNeighbors(this.cell7);
-    this.cell6.addNeighbors(this.cell8);
-    this.cell6.addNeighbors(this.cell9);
-    this.cell7.addNeighbors(this.cell8);
-    this.cell7.addNeighbors(this.cell9);
-    this.cell8.addNeighbors(this.cell9);
-    this.cell8.addNeighbors(this.cell10);
-    this.cell8.addNeighbors(this.cell11);
-    this.cell9.addNeighbors(this.cell10);
-    this.cell9.addNeighbors(this.cell11);
-    this.cell10.addNeighbors(this.cell11);
-    this.cell10.addNeighbors(this.cell12);
-    this.cell10.addNeighbors(this.cell13);
-    this.cell11.addNeighbors(this.cell12);
-    this.cell11.addNeighbors(this.cell13);
-    this.cell12.addNeighbors(this.cell13);
+    ArrayList<Cell> cellList1 = new ArrayList<Cell>();
+    ArrayList<Cell> cellList2 = new ArrayList<Cell>();
+    // before conditions
+    t.checkExpect(this.exampleCell.neighbors, cellList2);
+    t.checkExpect(this.exampleCell2.neighbors, cellList1); 
 
-    this.exampleBoard3.add(this.exampleRow9);
-    this.exampleBoard3.add(this.exampleRow10);
-    this.exampleBoard3.add(this.exampleRow11);
-    this.exampleBoard3.add(this.exampleRow12);
+    this.exampleCell.addNeighbors(exampleCell2);
+    cellList1.add(exampleCell);
+    cellList2.add(exampleCell2);
 
+    // after conditions
+    t.checkExpect(this.exampleCell.neighbors, cellList2);
+    t.checkExpect(this.exampleCell2.neighbors, cellList1);      
+  }
 
-    this.exampleCell1 = new Cell(false, true, false);
-    Cell neighbor1 = new Cell(true, false, false);
-    Cell neighbor2 = new Cell(true, true, false);
-    Cell neighbor3 = new Cell(false, false, false);
-    Cell neighbor4 = new Cell(true, true, false);
-    this.exampleCell1.addNeighbors(neighbor1);
-    this.exampleCell1.addNeighbors(neighbor2);
-    this.exampleCell1.addNeighbors(neighbor3);
-    this.exampleCell1.addNeighbors(neighbor4);
+  //test to check if there's neighboring mine 
+  boolean testHasNearbyMine(Tester t) {
+    this.initConditions();
 
-    this.exampleCell4 = new Cell(true, true, false);
-    Cell neighbor5 = new Cell(true, false, false);
-    Cell neighbor6 = new Cell(true, true, false);
-    Cell neighbor7 = new Cell(true, false, false);
-    Cell neighbor8 = new Cell(true, true, false);
-    this.exampleCell4.addNeighbors(neighbor5);
-    this.exampleCell4.addNeighbors(neighbor6);
-    this.exampleCell4.addNeighbors(neighbor7);
-    this.exampleCell4.addNeighbors(neighbor8);
+    return t.checkExpect(this.exampleCell1.hasNearbyMine(), true)
+        && t.checkExpect(this.exampleCell5.hasNearbyMine(), false);
+  }
+
+  // test that counts follow mines as they are placed and removed
+  void testRemoveMine(Tester t) {
+    this.initConditions();
+
+    // cell8 touches cell6, cell7, cell9, cell10 and cell11
+    this.cell6.placeMine();
+    this.cell7.placeMine();
+    t.checkExpect(this.cell8.count(), 2);
+    t.checkExpect(this.cell12.count(), 0);
+
+    this.cell6.removeMine();
+    t.checkExpect(this.cell8.count(), 1);
+    t.checkExpect(this.cell6.isMine(), false);
+
+    // removing a mine that isn't there changes nothing
+    this.cell6.removeMine();
+    t.checkExpect(this.cell8.count(), 1);
+  }
+
+  //boolean testDrawCell(Tester t) {
+  boolean testDrawCell(Tester t) {
+    initConditions();
+
+    int size = 50;
+    // outline
+    RectangleImage outline = new RectangleImage(size, size,
+        OutlineMode.OUTLINE, Color.black);
+    // gray square with outline
+    OverlayImage grayCell = new OverlayImage(outline,
+        new RectangleImage(size, size, OutlineMode.SOLID, Color.gray));
+    // white square with outline
+    OverlayImage whiteCell = new OverlayImage(outline,
+        new RectangleImage(size, size, OutlineMode.SOLID, Color.white));
+
+
+    //draw hidden cell that is flagged
+    return t.checkExpect(this.ms.engine.board.drawCell(1, 0, size),
+        new OverlayImage(new EquilateralTriangleImage(size / 2, 
+            OutlineMode.SOLID, Color.ORANGE), grayCell))
+        //draw revealed cell that has mine 
+        && t.checkExpect(this.ms.engine.board.drawCell(2, 0, size),
+            new OverlayImage(new CircleImage(size / 4, OutlineMode.SOLID, Color.BLACK),
+                whiteCell))
+        //draw revealed empty cell that has neighboring mines 
+        && t.checkExpect(this.ms.engine.board.drawCell(2, 1, size),
+            new OverlayImage(new TextImage(Integer.toString(3), size / 2, Color.ORANGE),
+                whiteCell))
+        //draw hidden cell 
+        && t.checkExpect(this.ms.engine.board.drawCell(3, 0, size), grayCell)  
+        //draw revealed empty cell that has no neighboring mines 
+        && t.checkExpect(this.ms.engine.board.drawCell(3, 2, size), whiteCell)
+        //draw a Cell with the same tiles as the board
+        && t.checkExpect(this.exampleCell2.drawCell(size),
+            new OverlayImage(new CircleImage(size / 4, OutlineMode.SOLID, Color.BLACK),
+                whiteCell))
+        && t.checkExpect(this.exampleCell.drawCell(size), grayCell); 
+  }
+
+  // test revealNeighbors
+  void testRevealNeighbors(Tester t) {
+    // initial conditions
+    this.initConditions();
+
+    // calling reveal on the first cell on a board without mines and hidden
+    this.cell6.revealNeighbors();
+
+    ArrayList<Cell> cellList2 = new ArrayList<Cell>();
+    cellList2.add(this.cell7);
+    cellList2.add(this.cell8);
+    cellList2.add(this.cell9);
+
+    // checking that the cells are still the same 
+    t.checkExpect(this.cell6.neighbors.containsAll(cellList2), true);   
+    // and that the whole board was revealed
+    t.checkExpect(this.cell13.isRevealed(), true);
+
+    // calling reveal on a cell that has neighbors with mines, hidden, and is a mine
+    this.exampleCell6.revealNeighbors();
+    ArrayList<Cell> cellList3 = new ArrayList<Cell>();
+    cellList3.add(this.exampleCell6.neighbors.get(0));
+    cellList3.add(this.exampleCell6.neighbors.get(1));
+    cellList3.add(this.exampleCell6.neighbors.get(2));
+
+    // checking that the cells are the same because it won't loop through the neighbors
+    t.checkExpect(this.exampleCell6.neighbors.containsAll(cellList3), true);
+  }
+
+  //test place mine
+  void testPlaceMine(Tester t) {
+    this.initConditions();
+
+    // before conditions
+    t.checkExpect(this.exampleCell.mine, false);
+    t.checkExpect(this.exampleCell2.mine, true);
+
+    this.exampleCell.placeMine();
+    this.exampleCell2.placeMine();
+
+    // after method has been called
+    t.checkExpect(this.exampleCell.mine, true);
+    t.checkExpect(this.exampleCell2.mine, true);
+  }
+
+  // test reveal cell
+  void testRevealCell(Tester t) {
+    this.initConditions();
+
+    // before conditions
+    t.checkExpect(this.exampleCell.revealed, false);
+    t.checkExpect(this.exampleCell2.revealed, true);
+
+    this.exampleCell.revealCell();
+    this.exampleCell2.revealCell();
+
+    // after method has been called
+    t.checkExpect(this.exampleCell.revealed, true);
+    t.checkExpect(this.exampleCell2.revealed, true);
+  }
+
+  // test place flag
+  void testPlaceFlag(Tester t) {
+    this.initConditions();
+    // before conditions
+    t.checkExpect(this.exampleCell.flagged, false);
+    t.checkExpect(this.exampleCell2.flagged, false);
+
+    this.exampleCell.placeFlag();
+    this.exampleCell2.placeFlag();
+
+    // after method has been called
+    t.checkExpect(this.exampleCell.flagged, true);
+    t.checkExpect(this.exampleCell2.flagged, true);
+  }
+
+  // test isMine
+  boolean testIsMine(Tester t) {
+    // test on a cell that is a mine
+    return t.checkExpect(this.exampleCell1.isMine(), true)
+        // test on a cell that isn't a mine
+        && t.checkExpect(this.exampleCell5.isMine(), false);
+  }
+
+  //test removeFlag
+  void testRemoveFlag(Tester t) {
+    // initial conditions
+    this.initConditions();
 
-    this.exampleCell5 = new Cell(false, false, false);
-    Cell neighbor9 = new Cell(true, false, false);
-    Cell neighbor10 = new Cell(true, false, false);
-    Cell neighbor11 = new Cell(false, false, false);
-    this.exampleCell5.addNeighbors(neighbor9);
-    this.exampleCell5.addNeighbors(neighbor10);
-    this.exampleCell5.addNeighbors(neighbor11);
+    // calls remove flag on a cell that was flagged
+    this.exampleCell3.removeFlag();
+    t.checkExpect(this.exampleCell3, new Cell(false, true, false));
 
-    this.exampleRow0 = new ArrayList<>();
-    this.exampleRow0.add(new Cell(false, false, false));
-    this.exampleRow0.add(new Cell(false, false, false));
-    this.exampleRow0.add(new Cell(false, false, false));
+    // calls remove flag on a cell that wasn't flagged
+    this.exampleCell5.removeFlag();
+    t.checkExpect(this.exampleCell5, this.exampleCell5);
+  }
 
-    this.exampleRow1 = new ArrayList<>();
-    this.exampleRow1.add(new Cell(false, true, false));
-    this.exampleRow1.add(new Cell(false, true, false));
-    this.exampleRow1.add(new Cell(false, false, false));
 
-    this.exampleRow2 = new ArrayList<>();
-    this.exampleRow2.add(new Cell(true, true, false));
-    this.exampleRow2.add(new Cell(true, false, false));
-    this.exampleRow2.add(new Cell(true, false, false));
+  // test isFlagged
+  boolean testIsFlagged(Tester t) {
+    this.initConditions();
 
-    this.exampleRow3 = new ArrayList<>();
-    this.exampleRow3.add(new Cell(false, false, false));
-    this.exampleRow3.add(new Cell(true, false, false));
-    this.exampleRow3.add(new Cell(true, false, false));
+    return t.checkExpect(this.exampleCell3.isFlagged(), true);
+  }
 
-    this.exampleRow4 = new ArrayList<>();
-    this.exampleRow4.add(new Cell(true, false, false));
-    this.exampleRow4.add(new Cell(true, false, false));
-    this.exampleRow4.add(new Cell(true, false, false));
+  // test isRevealed
+  boolean testIsRevealed(Tester t) {
+    this.initConditions();
 
-    this.exampleRow5 = new ArrayList<>();
-    this.exampleRow5.add(new Cell(false, false, false));
-    this.exampleRow5.add(new Cell(false, false, false));
-    this.exampleRow5.add(new Cell(false, false, false));
+    // test on a cell that is hidden
+    return t.checkExpect(this.exampleCell1.isRevealed(), false)
+        // test on a cell that isn't hidden
+        && t.checkExpect(this.exampleCell2.isRevealed(), true)
+        // test on a cell that is hidden
+        && t.checkExpect(this.exampleCell3.isRevealed(), false);
+  }
 
-    this.exampleRow6 = new ArrayList<>();
-    this.exampleRow6.add(new Cell(false, false, false));
-    this.exampleRow6.add(new Cell(false, false, false));
-    this.exampleRow6.add(new Cell(false, false, false));
 
-    this.exampleRow7 = new ArrayList<>();
-    this.exampleRow7.add(new Cell(false, false, false));
-    this.exampleRow7.add(new Cell(false, false, false));
-    this.exampleRow7.add(new Cell(false, false, false));
 
-    this.exampleRow8 = new ArrayList<>();
-    this.exampleRow8.add(new Cell(false, false, false));
-    this.exampleRow8.add(new Cell(false, false, false));
-    this.exampleRow8.add(new Cell(false, false, false));
+  //UTILS METHODS
+  //test to generate a random ArrayList<Coord>
+  boolean testRandomGen(Tester t) {
+    this.initConditions();
+    this.randCoordList.add(new Coord(7, 2));
+    this.randCoordList.add(new Coord(4, 4));
+    this.randCoordList.add(new Coord(6, 5));
 
-    this.exampleBoard2 = new ArrayList<ArrayList<Cell>>();
-    this.exampleBoard2.add(this.exampleRow5);
-    this.exampleBoard2.add(this.exampleRow6);
-    this.exampleBoard2.add(this.exampleRow7);
-    this.exampleBoard2.add(this.exampleRow8);
+    return t.checkExpect(new Utils().randomGen(3, 10, 10, this.randTest),
+        this.randCoordList);
+  }
 
-    this.exampleBoard = new ArrayList<ArrayList<Cell>>();
-    this.exampleBoard.add(this.exampleRow0);
-    this.exampleBoard.add(this.exampleRow1);
-    this.exampleBoard.add(this.exampleRow2);
-    this.exampleBoard.add(this.exampleRow3);
+  //test that randomGen never repeats a coord
+  void testRandomGenDistinct(Tester t) {
+    // sparse board: every draw that repeats is skipped
+    ArrayList<Coord> sparse = new Utils().randomGen(40, 10, 10, new Random(3));
+    PackedBoard board = new PackedBoard(10, 10);
+    for (Coord c : sparse) {
+      board.placeMine(c.row, c.col);
+    }
+    t.checkExpect(sparse.size(), 40);
+    t.checkExpect(this.countMines(board), 40);
+
+    // dense board: streamed from a MineSampler
+    ArrayList<Coord> dense = new Utils().randomGen(95, 10, 10, new Random(3));
+    PackedBoard board2 = new PackedBoard(10, 10);
+    for (Coord c : dense) {
+      board2.placeMine(c.row, c.col);
+    }
+    t.checkExpect(dense.size(), 95);
+    t.checkExpect(this.countMines(board2), 95);
+
+    // the same seed gives the same mines
+    t.checkExpect(new Utils().randomGen(95, 10, 10, new Random(3)), dense);
+    // every cell
+    t.checkExpect(new Utils().randomGen(4, 2, 2, new Random(3)).get(3), new Coord(1, 1));
+    t.checkException(new IllegalArgumentException("More mines than squares. Check again."),
+        new Utils(), "randomGen", 5, 2, 2, new Random(3));
+  }
 
-    this.coordList.add(new Coord(1, 1));
-    this.coordList.add(new Coord(2, 0));
-    this.coordList.add(new Coord(1, 0));
+  // counts the mines on a board
+  int countMines(PackedBoard board) {
+    int count = 0;
+    for (int i = 0; i < board.cells.length; i++) {
+      if (board.has(i, PackedBoard.MINE)) {
+        count++;
+      }
+    }
+    return count;
+  }
 
-    this.ms.setMine(this.coordList);
-    this.ms.board.get(2).get(0).revealed = true;
-    this.ms.board.get(2).get(1).revealed = true;
-    this.ms.board.get(2).get(2).revealed = true;
-    this.ms.board.get(3).get(1).revealed = true;
-    this.ms.board.get(3).get(2).revealed = true;
-    this.ms.board.get(1).get(0).flagged = true;
-    this.ms.board.get(1).get(1).flagged = true;
+  //MINESAMPLER METHODS
+  //test hasNext and next
+  void testMineSampler(Tester t) {
+    MineSampler all = new MineSampler(3, 3, new Random(1));
+    t.checkExpect(all.next(), 0);
+    t.checkExpect(all.next(), 1);
+    t.checkExpect(all.hasNext(), true);
+    t.checkExpect(all.next(), 2);
+    t.checkExpect(all.hasNext(), false);
+
+    // picks come out in increasing order
+    MineSampler some = new MineSampler(10, 1000, new Random(1));
+    int last = -1;
+    boolean increasing = true;
+    while (some.hasNext()) {
+      int next = some.next();
+      increasing = increasing && next > last && next < 1000;
+      last = next;
+    }
+    t.checkExpect(increasing, true);
+    t.checkConstructorException(new IllegalArgumentException(
+        "More mines than squares. Check again."), "MineSampler", 4, 3, new Random(1));
+  }
 
-    this.exampleCell6 = new Cell(false, true, false);
-    Cell neighbor12 = new Cell(false, true, false);
-    Cell neighbor13 = new Cell(false, false, false);
-    Cell neighbor14 = new Cell(false, false, false);
-    this.exampleCell6.addNeighbors(neighbor12);
-    this.exampleCell6.addNeighbors(neighbor13);
-    this.exampleCell6.addNeighbors(neighbor14);
+  //COORD METHODS
+  //test equals and hashCode
+  boolean testCoordEquals(Tester t) {
+    return t.checkExpect(new Coord(1, 2).equals(new Coord(1, 2)), true)
+        && t.checkExpect(new Coord(1, 2).equals(new Coord(2, 1)), false)
+        && t.checkExpect(new Coord(1, 2).equals("(1, 2)"), false)
+        && t.checkExpect(new Coord(1, 2).hashCode(), new Coord(1, 2).hashCode());
+  }
 
-    this.exampleCell3 = new Cell(false, true, true);
+  //test to generate a random coord
+  boolean testRandomCoord(Tester t) {
+    this.initConditions();
+    return t.checkExpect(new Utils().randomCoord(10, 10, this.randTest),
+        new Coord(7, 2));
   }
 
-  // MINESWEEPER METHODS
-  // test makeScene 
-  boolean testMakeScene(Tester t) {
+  //test revealBoard
+  void testRevealBoard(Tester t) {
     this.initConditions();
-    WorldScene ws = new WorldScene(150, 200);
-    ws.placeImageXY( this.ms.drawBoard(50), 75, 100);
+    PackedBoard board = this.ms.engine.makeBoard();
+    new Utils().revealBoard(board);
 
-    return t.checkExpect(this.ms.makeScene(), ws);
+    t.checkExpect(board.isRevealed(0, 0), true);
+    t.checkExpect(board.isRevealed(0, 1), true);
+    t.checkExpect(board.isRevealed(0, 2), true);
+    t.checkExpect(board.isRevealed(1, 0), true);
+    t.checkExpect(board.isRevealed(1, 1), true);
+    t.checkExpect(board.isRevealed(1, 2), true);
+    t.checkExpect(board.isRevealed(2, 0), true);
+    t.checkExpect(board.isRevealed(2, 1), true);
+    t.checkExpect(board.isRevealed(2, 2), true);
+    t.checkExpect(board.isRevealed(3, 0), true);
+    t.checkExpect(board.isRevealed(3, 1), true);
+    t.checkExpect(board.isRevealed(3, 2), true);
   }
 
-  // test set mine
-  void testSetMine(Tester t) {
+  //test isAllRevealed
+  boolean testIsAllRevealed(Tester t) {
     this.initConditions();
-    //this.ms.setMine(this.coordList);
+    this.ms.engine.board.revealCell(0, 0);
+    this.ms.engine.board.revealCell(0, 1);
+    this.ms.engine.board.revealCell(0, 2);
+    this.ms.engine.board.revealCell(1, 2);
+    this.ms.engine.board.revealCell(3, 0);
+
+    return t.checkExpect(new Utils().isAllRevealed(this.ms.engine), true)
+        && t.checkExpect(new Utils().isAllRevealed(this.ms2.engine), false);
+  }
 
-    // mines in: (row 1 col 1), (row 2 col 0), (row 1 col 0)
-    t.checkExpect(this.ms.board.get(1).get(1).isMine(), true);
-    t.checkExpect(this.ms.board.get(2).get(0).isMine(), true);
-    t.checkExpect(this.ms.board.get(1).get(0).isMine(), true);  
+  //test countRevealedSafe
+  boolean testCountRevealedSafe(Tester t) {
+    this.initConditions();
+
+    return t.checkExpect(new Utils().countRevealedSafe(this.ms.engine.board), 4)
+        && t.checkExpect(new Utils().countRevealedSafe(this.ms2.engine.board), 0);
   }
 
-  //test makeBoard
-  boolean testMakeBoard(Tester t) {
+  //test floodfill
+  void testFloodfill(Tester t) {
     this.initConditions();
 
-    // testing sameness of makeBoard on the same instance of a 4x2 with 3 mines
-    return t.checkExpect(this.ms3.makeBoard(), this.ms4.makeBoard())
-        // checking each cell for sameness
-        && t.checkExpect(this.ms3.makeBoard().get(0).get(0), 
-            this.ms4.makeBoard().get(0).get(0))
-        && t.checkExpect(this.ms3.makeBoard().get(0).get(1), 
-            this.ms4.makeBoard().get(0).get(1))
-        && t.checkExpect(this.ms3.makeBoard().get(1).get(0), 
-            this.ms4.makeBoard().get(1).get(0))
-        && t.checkExpect(this.ms3.makeBoard().get(1).get(1), 
-            this.ms4.makeBoard().get(1).get(1))
-        && t.checkExpect(this.ms3.makeBoard().get(2).get(0), 
-            this.ms4.makeBoard().get(2).get(0))
-        && t.checkExpect(this.ms3.makeBoard().get(2).get(1), 
-            this.ms4.makeBoard().get(2).get(1))
-        && t.checkExpect(this.ms3.makeBoard().get(3).get(0), 
-            this.ms4.makeBoard().get(3).get(0))
-        && t.checkExpect(this.ms3.makeBoard().get(3).get(1), 
-            this.ms4.makeBoard().get(3).get(1));
+    t.checkExpect(this.exampleCell1.neighbors.get(0).revealed, true);
+    t.checkExpect(this.exampleCell1.neighbors.get(1).revealed, true);
+    t.checkExpect(this.exampleCell1.neighbors.get(2).revealed, false);
+    t.checkExpect(this.exampleCell1.neighbors.get(3).revealed, true);
+
+    new Utils().floodfill(this.exampleCell1.neighbors);
+
+    t.checkExpect(this.exampleCell1.neighbors.get(0).revealed, true);
+    t.checkExpect(this.exampleCell1.neighbors.get(1).revealed, true);
+    t.checkExpect(this.exampleCell1.neighbors.get(2).revealed, true);
+    t.checkExpect(this.exampleCell1.neighbors.get(3).revealed, true);
+    // revealed, mine, flag
   }
 
-  // test drawRow
-  boolean testDrawRow(Tester t) {
+  // PACKEDBOARD METHODS
+  // test index and inBounds
+  boolean testIndex(Tester t) {
     this.initConditions();
 
-    // test drawRow on a row of hidden cells
-    return t.checkExpect(this.ms.drawRow(this.exampleRow0, 50), 
-        new BesideImage(new BesideImage(new BesideImage(new EmptyImage(), 
-            this.exampleRow0.get(0).drawCell(50)),
-            this.exampleRow0.get(1).drawCell(50)),
-            this.exampleRow0.get(2).drawCell(50)))
-        // test drawRow on a row of revealed cells
-        && t.checkExpect(this.ms.drawRow(this.exampleRow4, 50), 
-            new BesideImage(new BesideImage(new BesideImage(new EmptyImage(), 
-                this.exampleRow4.get(0).drawCell(50)),
-                this.exampleRow4.get(1).drawCell(50)),
-                this.exampleRow4.get(2).drawCell(50)));
+    return t.checkExpect(this.ms.engine.board.index(0, 0), 0)
+        && t.checkExpect(this.ms.engine.board.index(2, 1), 7)
+        && t.checkExpect(this.ms.engine.board.inBounds(3, 2), true)
+        && t.checkExpect(this.ms.engine.board.inBounds(4, 0), false)
+        && t.checkExpect(this.ms.engine.board.inBounds(0, -1), false);
   }
 
-  // test drawBoard
-  boolean testDrawBoard(Tester t) {
+  // test neighbors
+  void testNeighbors(Tester t) {
     this.initConditions();
+    int[] around = new int[8];
+
+    // corner
+    t.checkExpect(this.ms.engine.board.neighbors(0, around), 3);
+    t.checkExpect(around[0], 1);
+    t.checkExpect(around[1], 3);
+    t.checkExpect(around[2], 4);
+    // edge
+    t.checkExpect(this.ms.engine.board.neighbors(3, around), 5);
+    // middle
+    t.checkExpect(this.ms.engine.board.neighbors(4, around), 8);
+  }
 
-    // test drawBoard on a board of hidden cells           
-    return t.checkExpect(this.ms2.drawBoard(50), new AboveImage(new AboveImage(
-        new AboveImage(new AboveImage(new EmptyImage(), new BesideImage(
-            new BesideImage(new BesideImage(new EmptyImage(), 
-                this.exampleRow5.get(0).drawCell(50)),
-                this.exampleRow5.get(1).drawCell(50)), 
-            this.exampleRow5.get(2).drawCell(50))), new BesideImage(new BesideImage(
-                new BesideImage(new EmptyImage(), this.exampleRow6.get(0).drawCell(50)), 
-                this.exampleRow6.get(1).drawCell(50)),
-                this.exampleRow6.get(2).drawCell(50))),
-        new BesideImage(new BesideImage(new BesideImage(new EmptyImage(), 
-            this.exampleRow7.get(0).drawCell(50)),
-            this.exampleRow7.get(1).drawCell(50)),
-            this.exampleRow7.get(2).drawCell(50))), new BesideImage(new BesideImage(
-                new BesideImage(new EmptyImage(), this.exampleRow8.get(0).drawCell(50)),
-                this.exampleRow8.get(1).drawCell(50)), 
-                this.exampleRow8.get(2).drawCell(50))));
+  // test placeMine and count
+  void testPackedPlaceMine(Tester t) {
+    PackedBoard board = new PackedBoard(3, 3);
 
+    board.placeMine(0, 0);
+    t.checkExpect(board.isMine(0, 0), true);
+    t.checkExpect(board.count(1, 1), 1);
+    t.checkExpect(board.count(2, 2), 0);
+
+    // placing the same mine twice doesn't count it twice
+    board.placeMine(0, 0);
+    board.placeMine(2, 2);
+    t.checkExpect(board.count(1, 1), 2);
+    t.checkExpect(board.count(0, 1), 1);
   }
 
-  //test worldEnds
-  boolean testWorldEnds(Tester t) {
-    this.initConditions();
-    TextImage loseText = new TextImage("YOU LOSE", 50, Color.red);
-    TextImage winText = new TextImage("YOU WIN", 50, Color.green);
+  // test removeMine and moveMine keep the counts right
+  void testPackedMoveMine(Tester t) {
+    PackedBoard board = new PackedBoard(3, 3);
+    board.placeMine(0, 0);
+    board.placeMine(0, 1);
+
+    board.removeMine(0, 0);
+    t.checkExpect(board.isMine(0, 0), false);
+    t.checkExpect(board.count(1, 0), 1);
+    t.checkExpect(board.count(0, 0), 1);
+
+    board.moveMine(0, 1, 2, 2);
+    t.checkExpect(board.isMine(0, 1), false);
+    t.checkExpect(board.isMine(2, 2), true);
+    t.checkExpect(board.count(1, 0), 0);
+    t.checkExpect(board.count(1, 1), 1);
+    t.checkExpect(board.count(2, 1), 1);
+    // the board is the same as one where the mine was placed there to begin with
+    PackedBoard expected = new PackedBoard(3, 3);
+    expected.placeMine(2, 2);
+    t.checkExpect(board, expected);
+
+    // moving onto another mine does nothing
+    board.placeMine(0, 0);
+    board.moveMine(0, 0, 2, 2);
+    t.checkExpect(board.isMine(0, 0), true);
+  }
 
-    //setup for losing worldEnd
-    this.ms.gameOver = true;
-    this.ms.win = false;
-    WorldScene scene1 = ms.makeScene();
-    scene1.placeImageXY(loseText, 75, 100);
+  // test flagging, revealing and clearing state bits
+  void testPackedState(Tester t) {
+    PackedBoard board = new PackedBoard(2, 2);
 
-    //setup for winning worldEnd
-    this.ms2.setMine(this.coordList);
-    this.ms2.board.get(2).get(0).revealed = true;
-    this.ms2.board.get(2).get(1).revealed = true;
-    this.ms2.board.get(2).get(2).revealed = true;
-    this.ms2.board.get(3).get(1).revealed = true;
-    this.ms2.board.get(3).get(2).revealed = true;
-    this.ms2.board.get(1).get(0).flagged = true;
-    this.ms2.board.get(1).get(1).flagged = true;
-    this.ms2.board.get(0).get(0).revealed = true;
-    this.ms2.board.get(0).get(1).revealed = true;
-    this.ms2.board.get(0).get(2).revealed = true;
-    this.ms2.board.get(1).get(2).revealed = true;
-    this.ms2.board.get(3).get(0).revealed = true;
-    WorldScene scene2 = ms2.makeScene();
-    scene2.placeImageXY(winText, 75, 100);
+    board.placeFlag(1, 1);
+    t.checkExpect(board.isFlagged(1, 1), true);
+    board.removeFlag(1, 1);
+    t.checkExpect(board.isFlagged(1, 1), false);
 
-    //setup for game hasnt ended yet
-    WorldScene scene3 = ms3.makeScene();
+    board.revealCell(0, 1);
+    t.checkExpect(board.isRevealed(0, 1), true);
+    t.checkExpect(board.has(1, PackedBoard.REVEALED | PackedBoard.FLAGGED), true);
+    board.clear(1, PackedBoard.REVEALED);
+    t.checkExpect(board.isRevealed(0, 1), false);
+  }
 
-    //player loses
-    return t.checkExpect(this.ms.worldEnds(), new WorldEnd(true, scene1))
-        //player wins
-        && t.checkExpect(this.ms2.worldEnds(), new WorldEnd(true, scene2))
-        //game hasnt ended yet 
-        && t.checkExpect(this.ms3.worldEnds(), new WorldEnd(false, scene3));
+  // test footprintBytes against the old board of Cells
+  boolean testFootprint(Tester t) {
+    return t.checkExpect(new PackedBoard(9, 9).footprintBytes(), 248L)
+        && t.checkExpect(new PackedBoard(16, 30).footprintBytes(), 784L)
+        && t.checkExpect(new Utils().cellBoardFootprint(9, 9), 9832L)
+        && t.checkExpect(new Utils().cellBoardFootprint(1000, 1000)
+            > 80 * new PackedBoard(1000, 1000).footprintBytes(), true);
   }
 
-  // test mouseClicked 
-  void testOnMouseClicked(Tester t) {
+  // test trackChanges
+  void testTrackChanges(Tester t) {
+    PackedBoard board = new PackedBoard(2, 3);
+    board.placeFlag(0, 0);
+    t.checkExpect(board.dirty, null);
+
+    DirtyCells dirty = board.trackChanges();
+    t.checkExpect(board.trackChanges() == dirty, true);
+    board.revealCell(1, 2);
+    board.revealCell(1, 2);
+    board.removeFlag(0, 0);
+    // only cells that actually changed are listed, once each
+    board.removeFlag(0, 1);
+    t.checkExpect(dirty.count, 2);
+    t.checkExpect(dirty.list[0], 5);
+    t.checkExpect(dirty.list[1], 0);
+  }
+
+  // DIRTYCELLS METHODS
+  // test mark and reset
+  void testDirtyCells(Tester t) {
+    DirtyCells dirty = new DirtyCells(200);
+
+    for (int i = 0; i < 40; i++) {
+      dirty.mark(i * 5);
+      dirty.mark(i * 5);
+    }
+    t.checkExpect(dirty.count, 40);
+    t.checkExpect(dirty.list[39], 195);
+
+    dirty.reset();
+    t.checkExpect(dirty.count, 0);
+    t.checkExpect(dirty.listed, new long[4]);
+    dirty.mark(195);
+    t.checkExpect(dirty.count, 1);
+  }
+
+  // TILEATLAS METHODS
+  // test forSize
+  boolean testForSize(Tester t) {
+    return t.checkExpect(TileAtlas.forSize(30) == TileAtlas.forSize(30), true)
+        && t.checkExpect(TileAtlas.forSize(30).size, 30)
+        && t.checkExpect(TileAtlas.forSize(31) == TileAtlas.forSize(30), false);
+  }
+
+  // test kind
+  boolean testAtlasKind(Tester t) {
+    TileAtlas atlas = TileAtlas.forSize(50);
+
+    return t.checkExpect(atlas.kind(false, true, true, 2), TileAtlas.FLAG)
+        && t.checkExpect(atlas.kind(false, true, false, 2), TileAtlas.HIDDEN)
+        && t.checkExpect(atlas.kind(true, true, false, 2), TileAtlas.MINE)
+        && t.checkExpect(atlas.kind(true, false, false, 2), 2)
+        && t.checkExpect(atlas.kind(true, false, false, 0), 0);
+  }
+
+  // test tile
+  boolean testTile(Tester t) {
+    TileAtlas atlas = TileAtlas.forSize(50);
+    OverlayImage whiteCell = new OverlayImage(
+        new RectangleImage(50, 50, OutlineMode.OUTLINE, Color.black),
+        new RectangleImage(50, 50, OutlineMode.SOLID, Color.white));
+
+    return t.checkExpect(atlas.tile(true, false, false, 7),
+        new OverlayImage(new TextImage("7", 25, Color.BLACK), whiteCell))
+        && t.checkExpect(atlas.tile(true, false, false, 0), whiteCell)
+        // cells drawn the same way share one image
+        && t.checkExpect(new Cell(false, false, false).drawCell(50)
+            == new Utils().drawTile(false, false, false, 0, 50), true);
+  }
+
+  // BOARDRASTER METHODS
+  // test render
+  void testRender(Tester t) {
     this.initConditions();
-    // left click and isn't a mine 
-    t.checkExpect(this.ms.board.get(0).get(0).isRevealed(), false);
-    this.ms.onMouseClicked(new Posn(100, 100), "LeftButton");
-    t.checkExpect(this.ms.board.get(0).get(0).isRevealed(), true);
+    BoardRaster raster = new BoardRaster();
+
+    raster.render(this.ms.engine.board, 10);
+    t.checkExpect(raster.cellsPainted, 12);
+    this.ms.engine.board.revealCell(0, 0);
+    raster.render(this.ms.engine.board, 10);
+    t.checkExpect(raster.cellsPainted, 1);
+    // a new size redraws everything
+    raster.render(this.ms.engine.board, 20);
+    t.checkExpect(raster.cellsPainted, 12);
+    t.checkExpect(raster.render(this.ms.engine.board, 20),
+        new BoardRaster().render(this.ms.engine.board, 20));
+  }
 
-    // left click and is a mine - game over and lose & reveal all mines
+  // test kind
+  boolean testKind(Tester t) {
     this.initConditions();
+    BoardRaster raster = new BoardRaster();
+    PackedBoard board = this.ms.engine.board;
+
+    return t.checkExpect(raster.kind(board.cells[board.index(1, 0)]), TileAtlas.FLAG)
+        && t.checkExpect(raster.kind(board.cells[board.index(2, 0)]), TileAtlas.MINE)
+        && t.checkExpect(raster.kind(board.cells[board.index(2, 1)]), 3)
+        && t.checkExpect(raster.kind(board.cells[board.index(3, 0)]), TileAtlas.HIDDEN)
+        && t.checkExpect(raster.kind(board.cells[board.index(3, 2)]), 0);
+  }
 
-    t.checkExpect(this.ms.board.get(0).get(0).isRevealed(), false);
-    this.ms.onMouseClicked(new Posn(100, 100), "LeftButton");
-    t.checkExpect(this.ms.board.get(0).get(0).isRevealed(), true);
+  // test makeTile
+  void testMakeTile(Tester t) {
+    BoardRaster raster = new BoardRaster();
+    Color[] hidden = raster.makeTile(TileAtlas.HIDDEN, 10);
+    Color[] mine = raster.makeTile(TileAtlas.MINE, 10);
 
-    // right and not flagged - places the flag
+    t.checkExpect(hidden.length, 100);
+    // outline
+    t.checkExpect(hidden[0], Color.black);
+    t.checkExpect(hidden[99], Color.black);
+    // inside
+    t.checkExpect(hidden[22], Color.gray);
+    t.checkExpect(mine[22], Color.white);
+    t.checkExpect(mine[55], Color.black);
+  }
+
+  // REVEALENGINE METHODS
+  // test reveal
+  void testReveal(Tester t) {
     this.initConditions();
 
-    t.checkExpect(this.ms.board.get(0).get(0).isFlagged(), false);
-    this.ms.onMouseClicked(new Posn(100, 100), "RightButton");
-    t.checkExpect(this.ms.board.get(0).get(0).isFlagged(), true);
+    // revealing a cell next to a mine only reveals that cell
+    ArrayList<Coord> justStart = new ArrayList<Coord>();
+    justStart.add(new Coord(0, 0));
+    t.checkExpect(new RevealEngine().reveal(this.ms.engine.board, 0, 0), justStart);
+    t.checkExpect(this.ms.engine.board.isRevealed(0, 1), false);
+
+    // revealing an already revealed cell reveals nothing
+    t.checkExpect(new RevealEngine().reveal(this.ms.engine.board, 0, 0), new ArrayList<Coord>());
+
+    // revealing a board without mines reveals every cell once
+    Minesweeper empty = new Minesweeper(3, 2, 0, 10, this.randTest);
+    empty.engine.board.placeFlag(2, 1);
+    ArrayList<Coord> result = new RevealEngine().reveal(empty.engine.board, 0, 0);
+    t.checkExpect(result.size(), 5);
+    t.checkExpect(result.get(0), new Coord(0, 0));
+    t.checkExpect(empty.engine.board.isRevealed(2, 0), true);
+    // flagged cells stay hidden
+    t.checkExpect(empty.engine.board.isRevealed(2, 1), false);
+  }
 
-    // right and flagged - removes the flag
-    this.initConditions();
+  // test reveal on a board too big for a recursive floodfill
+  void testRevealBigBoard(Tester t) {
+    Minesweeper big = new Minesweeper(300, 300, 0, 10, new Random(1));
 
-    t.checkExpect(this.ms.board.get(1).get(1).isFlagged(), true);
-    this.ms.onMouseClicked(new Posn(55, 55), "RightButton");
-    t.checkExpect(this.ms.board.get(1).get(1).isFlagged(), false);
+    t.checkExpect(new RevealEngine().reveal(big.engine.board, 150, 150).size(), 90000);
+    t.checkExpect(new Utils().isAllRevealed(big.engine), true);
+  }
 
+  // GAMEENGINE METHODS
+  // test the constructor exception
+  void testGameEngineConstructor(Tester t) {
+    t.checkConstructorException(
+        new IllegalArgumentException("More mines than squares. Check again."),
+        "GameEngine", 2, 2, 5);
   }
 
-  //test clickedCell
-  boolean testClickedCell(Tester t) {
-    this.initConditions();
-    Posn pos1 = new Posn(60, 140);
-    Posn pos2 = new Posn(25, 25);
-    Posn pos3 = new Posn(140, 55);
+  // test reveal and status
+  void testEngineReveal(Tester t) {
+    ArrayList<Coord> mines = new ArrayList<Coord>();
+    mines.add(new Coord(0, 0));
+    GameEngine game = new GameEngine(3, 3, 1);
+    game.setMine(mines);
+    t.checkExpect(game.status(), GameStatus.PLAYING);
+
+    // off the board and flagged cells do nothing
+    t.checkExpect(game.reveal(3, 0), new ArrayList<Coord>());
+    game.flag(0, 1);
+    t.checkExpect(game.reveal(0, 1), new ArrayList<Coord>());
+    game.flag(0, 1);
+
+    // a cell with no mines around floods out to the rest of the board
+    t.checkExpect(game.reveal(2, 2).size(), 8);
+    t.checkExpect(game.status(), GameStatus.WON);
+
+    // revealing a mine loses and uncovers the board
+    GameEngine lose = new GameEngine(3, 3, 1);
+    lose.setMine(mines);
+    ArrayList<Coord> boom = new ArrayList<Coord>();
+    boom.add(new Coord(0, 0));
+    t.checkExpect(lose.reveal(0, 0), boom);
+    t.checkExpect(lose.status(), GameStatus.LOST);
+    t.checkExpect(lose.board.isRevealed(0, 0), true);
+
+    // no moves once the game is over
+    lose.flag(2, 2);
+    t.checkExpect(lose.board.isFlagged(2, 2), false);
+    t.checkExpect(lose.reveal(2, 2), new ArrayList<Coord>());
+  }
 
-    return t.checkExpect(this.ms.clickedCell(pos1),
-        this.ms.board.get(2).get(1))
-        && t.checkExpect(this.ms.clickedCell(pos2),
-            this.ms.board.get(0).get(0))
-        && t.checkExpect(this.ms.clickedCell(pos3),
-            this.ms.board.get(1).get(2));
+  // test flag
+  void testEngineFlag(Tester t) {
+    GameEngine game = new GameEngine(2, 2, 0);
+    game.flag(0, 0);
+    t.checkExpect(game.board.isFlagged(0, 0), true);
+    game.flag(0, 0);
+    t.checkExpect(game.board.isFlagged(0, 0), false);
+
+    // revealed cells can't be flagged
+    game.board.revealCell(1, 1);
+    game.flag(1, 1);
+    t.checkExpect(game.board.isFlagged(1, 1), false);
   }
 
+  // test chord
+  void testEngineChord(Tester t) {
+    ArrayList<Coord> mines = new ArrayList<Coord>();
+    mines.add(new Coord(0, 0));
+    mines.add(new Coord(0, 2));
+    GameEngine game = new GameEngine(3, 3, 2);
+    game.setMine(mines);
+    t.checkExpect(game.reveal(1, 1).size(), 1);
+
+    // hidden cells and cells without enough flags don't chord
+    t.checkExpect(game.chord(2, 2), new ArrayList<Coord>());
+    game.flag(0, 0);
+    t.checkExpect(game.chord(1, 1), new ArrayList<Coord>());
+
+    // once every mine around it is flagged, the rest are revealed
+    game.flag(0, 2);
+    t.checkExpect(game.chord(1, 1).size(), 6);
+    t.checkExpect(game.status(), GameStatus.WON);
+  }
 
+  // test reset
+  void testEngineReset(Tester t) {
+    GameEngine game = new GameEngine(4, 3, 3);
+    game.reset(new Random(5));
+    // no mines until the first reveal
+    t.checkExpect(this.countMines(game.board), 0);
+    t.checkExpect(game.status(), GameStatus.PLAYING);
+    game.reveal(0, 0);
+    t.checkExpect(this.countMines(game.board), 3);
+    t.checkExpect(game.pending, null);
+    game.lost = true;
+    game.reset(new Random(5));
+    t.checkExpect(game.status(), GameStatus.PLAYING);
+    t.checkExpect(game.board.revealedSafe, 0);
+    t.checkExpect(this.countMines(game.board), 0);
+  }
 
-  // Effect: restarts the game if "r" is pressed
-  void testOnKeyEvent(Tester t) {
-    // initial conditions
-    this.initConditions();
+  // test that the first reveal never finds a mine
+  void testFirstRevealSafe(Tester t) {
+    boolean safe = true;
+    boolean opened = true;
+    for (int seed = 0; seed < 50; seed++) {
+      GameEngine game = new GameEngine(9, 9, 10);
+      game.reset(new Random(seed));
+      game.reveal(seed % 9, seed / 9 % 9);
+      safe = safe && game.status() != GameStatus.LOST;
+      // with the neighbors kept clear too, the first reveal always opens up
+      opened = opened && game.board.count(seed % 9, seed / 9 % 9) == 0;
+    }
+    t.checkExpect(safe, true);
+    t.checkExpect(opened, true);
+
+    // with only the cell itself kept clear
+    GameEngine tight = new GameEngine(3, 3, 8);
+    tight.safeRadius = 0;
+    tight.reset(new Random(1));
+    tight.reveal(1, 1);
+    t.checkExpect(tight.status(), GameStatus.WON);
+
+    // no room to keep even the first cell clear, so it's a mine
+    GameEngine full = new GameEngine(2, 2, 4);
+    full.reset(new Random(1));
+    full.reveal(0, 0);
+    t.checkExpect(full.status(), GameStatus.LOST);
+
+    // shrinks the clear area when the mines don't fit around it
+    GameEngine crowded = new GameEngine(3, 3, 7);
+    crowded.reset(new Random(1));
+    crowded.reveal(1, 1);
+    t.checkExpect(crowded.board.isMine(1, 1), false);
+    t.checkExpect(this.countMines(crowded.board), 7);
+  }
 
-    //wrong key pressed 
-    this.ms.onKeyEvent("a");
-    t.checkExpect(this.ms, this.ms);
+  // test randomGenAvoiding
+  void testRandomGenAvoiding(Tester t) {
+    // every cell but the 3 by 3 around (1, 1) in a 4 by 4 board
+    ArrayList<Coord> mines = new Utils().randomGenAvoiding(7, 4, 4, new Coord(1, 1), 1,
+        new Random(3));
+    GameEngine game = new GameEngine(4, 4, 7);
+    game.setMine(mines);
+    t.checkExpect(this.countMines(game.board), 7);
+    boolean clear = true;
+    for (int row = 0; row <= 2; row++) {
+      for (int col = 0; col <= 2; col++) {
+        clear = clear && !game.board.isMine(row, col);
+      }
+    }
+    t.checkExpect(clear, true);
 
-    //right key pressed and the game restarts
-    this.ms.onKeyEvent("r");
-    Minesweeper game2 = new Minesweeper(30,19,50,40, this.randTest);
-    // checking that required fields reset correctly
-    t.checkExpect(this.ms5.rows, game2.rows);
-    t.checkExpect(this.ms5.cols, game2.cols);
-    t.checkExpect(this.ms5.numMines, game2.numMines);
-    t.checkExpect(this.ms5.size, game2.size);
+    // the area is cut off at the edges of the board
+    t.checkExpect(new Utils().randomGenAvoiding(12, 4, 4, new Coord(0, 0), 1,
+        new Random(3)).size(), 12);
+    t.checkException(new IllegalArgumentException("More mines than squares. Check again."),
+        new Utils(), "randomGenAvoiding", 13, 4, 4, new Coord(0, 0), 1, new Random(3));
   }
 
+  // BATCHSIMULATOR METHODS
+  // test wipe
+  void testWipe(Tester t) {
+    PackedBoard board = new PackedBoard(2, 2);
+    board.placeMine(0, 0);
+    board.revealCell(1, 1);
+    DirtyCells dirty = board.trackChanges();
+    board.wipe();
+    t.checkExpect(board.cells, new byte[4]);
+    t.checkExpect(board.revealedSafe, 0);
+    // every cell held a mine, a count or both
+    t.checkExpect(dirty.count, 4);
+  }
 
+  // test nextMove
+  void testRandomStrategy(Tester t) {
+    GameEngine game = new GameEngine(2, 2, 0);
+    game.board.revealCell(0, 0);
+    game.board.revealCell(0, 1);
+    game.flag(1, 0);
+    Random rand = new Random(3);
+    for (int i = 0; i < 10; i++) {
+      t.checkExpect(new RandomStrategy().nextMove(game, rand), new Coord(1, 1));
+    }
+  }
 
-  // test constructor exception
-  boolean testConstructorException(Tester t) {
-    // test to make sure there aren't more mines than mines
-    return t.checkConstructorException(new IllegalArgumentException(
-        "More mines than squares. Check again."), 
-        "Minesweeper", 4, 3, 15, 10);
+  // test the BatchResult methods
+  void testBatchResult(Tester t) {
+    BatchResult none = new BatchResult();
+    t.checkExpect(none.winRate(), 0.0);
+    t.checkExpect(none.clicksPerGame(), 0.0);
+
+    BatchResult some = new BatchResult();
+    some.games = 4;
+    some.wins = 1;
+    some.clicks = 10;
+    some.nanos = 8000000;
+    t.checkExpect(some.winRate(), 0.25);
+    t.checkExpect(some.clicksPerGame(), 2.5);
+    t.checkExpect(some.msPerGame(), 2.0);
+
+    // adding an empty result changes nothing
+    t.checkExpect(some.add(none), some);
+    t.checkExpect(some.games, 4);
+    t.checkExpect(none.add(some).wins, 1);
+    t.checkExpect(none.clicks, 10L);
   }
 
-  // CELL METHODS
-  // test count neighboring mines 
-  boolean testCount(Tester t) {
-    this.initConditions();
+  // test the BatchSimulator constructor exception
+  void testBatchSimulatorConstructor(Tester t) {
+    t.checkConstructorException(
+        new IllegalArgumentException("More mines than squares. Check again."),
+        "BatchSimulator", 2, 2, 5, 1L, new RandomStrategy());
+  }
+
+  // test playGame
+  void testPlayGame(Tester t) {
+    BatchSimulator sim = new BatchSimulator(6, 6, 5, 42L, new RandomStrategy());
+    GameEngine game = new GameEngine(6, 6, 5);
+    Random rand = new Random();
+    int clicks = sim.playGame(game, rand, 7);
+    GameStatus status = game.status();
+    t.checkExpect(status == GameStatus.PLAYING, false);
+    t.checkExpect(clicks > 0, true);
+
+    // replaying game 7 after another game gives the same result
+    sim.playGame(game, rand, 8);
+    t.checkExpect(sim.playGame(game, rand, 7), clicks);
+    t.checkExpect(game.status(), status);
+
+    // every game is a new board
+    t.checkExpect(sim.gameSeed(7) == sim.gameSeed(8), false);
+    t.checkExpect(this.countMines(game.board), 5);
+  }
+
+  // test run
+  void testRun(Tester t) {
+    BatchSimulator sim = new BatchSimulator(5, 5, 3, 11L, new RandomStrategy());
+    BatchResult one = sim.run(200, 1);
+    BatchResult four = sim.run(200, 4);
+    BatchResult lots = sim.run(200, 16);
+
+    t.checkExpect(one.games, 200);
+    t.checkExpect(four.games, 200);
+    t.checkExpect(lots.games, 200);
+    t.checkExpect(four.wins, one.wins);
+    t.checkExpect(lots.wins, one.wins);
+    t.checkExpect(four.clicks, one.clicks);
+    t.checkExpect(lots.clicks, one.clicks);
+    t.checkExpect(one.wins > 0 && one.wins < 200, true);
+
+    t.checkException(new IllegalArgumentException("Need at least one thread."),
+        sim, "run", 10, 0);
+  }
+
+  // BENCHMARKSUITE METHODS
+  // test makeCells
+  void testBenchMakeCells(Tester t) {
+    BenchmarkSuite bench = new BenchmarkSuite();
+    bench.setUp(9);
+    ArrayList<ArrayList<Cell>> cells = bench.makeCells();
+    t.checkExpect(cells.size(), 9);
+    t.checkExpect(cells.get(0).get(0).neighbors.size(), 3);
+    t.checkExpect(cells.get(0).get(4).neighbors.size(), 5);
+    t.checkExpect(cells.get(4).get(4).neighbors.size(), 8);
+    t.checkExpect(cells.get(4).get(4).count(), 0);
+    cells.get(8).get(8).revealNeighbors();
+    t.checkExpect(cells.get(0).get(0).isRevealed(), true);
+  }
+
+  // test setUp and supports
+  void testBenchSetUp(Tester t) {
+    BenchmarkSuite bench = new BenchmarkSuite();
+    bench.setUp(64);
+    t.checkExpect(this.countMines(bench.game.engine.board), 512);
+    t.checkExpect(bench.game.viewWidth, 0);
+    t.checkExpect(bench.supports("drawBoard"), true);
+
+    bench.setUp(4096);
+    t.checkExpect(bench.game.viewWidth, 1024);
+    t.checkExpect(bench.supports("drawBoard"), false);
+    t.checkExpect(bench.supports("revealNeighbors"), false);
+    t.checkExpect(bench.supports("makeScene"), true);
+  }
+
+  // test measure
+  void testBenchMeasure(Tester t) {
+    BenchmarkSuite bench = new BenchmarkSuite();
+    bench.warmup = 0;
+    bench.minNanos = 0;
+    bench.setUp(9);
+    for (String op : BenchmarkSuite.OPS) {
+      double[] result = bench.measure(op);
+      t.checkExpect(result[0] >= 0 && result[1] >= 0, true);
+    }
+    t.checkException(new IllegalArgumentException("Unknown operation: fly"),
+        bench, "runOnce", "fly");
+  }
+
+  // SOLVER METHODS
+  // test the IntQueue methods
+  void testIntQueue(Tester t) {
+    IntQueue queue = new IntQueue();
+    t.checkExpect(queue.isEmpty(), true);
+    for (int i = 0; i < 40; i++) {
+      queue.add(i);
+    }
+    for (int i = 0; i < 35; i++) {
+      t.checkExpect(queue.take(), i);
+    }
+    // fills back up past the end, sliding instead of growing
+    for (int i = 40; i < 70; i++) {
+      queue.add(i);
+    }
+    t.checkExpect(queue.items.length, 64);
+    for (int i = 35; i < 70; i++) {
+      t.checkExpect(queue.take(), i);
+    }
+    t.checkExpect(queue.isEmpty(), true);
+    t.checkExpect(queue.head, 0);
+  }
 
-    return t.checkExpect(this.exampleCell1.count(), 2)
-        && t.checkExpect(this.ms.board.get(3).get(2).count(), 0);
+  // test the single cell rule
+  void testSolverSingleRule(Tester t) {
+    // a mine at (0, 0) with the bottom row revealed by hand
+    GameEngine game = new GameEngine(2, 3, 1);
+    game.board.placeMine(0, 0);
+    game.board.revealCell(1, 0);
+    game.board.revealCell(1, 1);
+    game.board.revealCell(1, 2);
+
+    Hint first = game.hint();
+    t.checkExpect(first.mine, false);
+    t.checkExpect(first.cell.row, 0);
+    // the 0 at (1, 2) clears (0, 1) and (0, 2), which leaves (0, 0) for the 1 at (1, 0)
+    game.reveal(0, 1);
+    game.reveal(0, 2);
+    t.checkExpect(game.hint(), new Hint(new Coord(0, 0), true));
+    t.checkExpect(game.solver.isKnownMine(0, 0), true);
+    t.checkExpect(game.solver.isKnownSafe(0, 2), true);
+
+    // flagging the mine leaves nothing to hint
+    game.board.placeFlag(0, 0);
+    t.checkExpect(game.hint(), null);
   }
 
-  //test to add neighbors
-  void testAddNeighbors(Tester t) {
-    this.initConditions();
+  // test the pair rule
+  void testSolverPairRule(Tester t) {
+    // 1 1 1 along the bottom with the mine at (0, 1): the 1 at (1, 0) has cells
+    // (0, 0) and (0, 1), both inside the 1 at (1, 1), so (0, 2) is safe
+    GameEngine game = new GameEngine(2, 3, 1);
+    game.board.placeMine(0, 1);
+    game.board.revealCell(1, 0);
+    game.board.revealCell(1, 1);
+    game.board.revealCell(1, 2);
+
+    t.checkExpect(game.hint().mine, false);
+    t.checkExpect(game.solver.isKnownSafe(0, 0) || game.solver.isKnownSafe(0, 2), true);
+    game.solver.nextSafe();
+    game.solver.safe.take();
+    game.solver.nextSafe();
+    t.checkExpect(game.solver.isKnownSafe(0, 0), true);
+    t.checkExpect(game.solver.isKnownSafe(0, 2), true);
+    t.checkExpect(game.solver.componentsEnumerated, 0);
+  }
 
-    ArrayList<Cell> cellList1 = new ArrayList<Cell>();
-    ArrayList<Cell> cellList2 = new ArrayList<Cell>();
-    // before conditions
-    t.checkExpect(this.exampleCell.neighbors, cellList2);
-    t.checkExpect(this.exampleCell2.neighbors, cellList1); 
+  // test enumeration
+  void testSolverEnumerate(Tester t) {
+    // 1 . . *
+    // . * 2 1
+    // . 1 . .
+    // the 2 and the 1 beside it say one of (0, 1) and (1, 1) is a mine, so the 1 in
+    // the corner has its mine there and (1, 0) is safe. it takes three numbers to
+    // see it, so the pair rule can't
+    GameEngine game = new GameEngine(3, 4, 2);
+    game.board.placeMine(0, 3);
+    game.board.placeMine(1, 1);
+    game.board.revealCell(0, 0);
+    game.board.revealCell(1, 2);
+    game.board.revealCell(1, 3);
+    game.board.revealCell(2, 1);
+
+    Solver solver = new Solver(game.board);
+    solver.propagate();
+    t.checkExpect(solver.safe.isEmpty(), true);
+    t.checkExpect(solver.work.isEmpty(), true);
+    t.checkExpect(solver.candidates.isEmpty(), false);
+
+    t.checkExpect(solver.hint(), new Hint(new Coord(1, 0), false));
+    t.checkExpect(solver.componentsEnumerated, 1);
+    t.checkExpect(solver.isKnownMine(1, 1), false);
+    t.checkExpect(solver.candidates.isEmpty(), true);
+  }
 
-    this.exampleCell.addNeighbors(exampleCell2);
-    cellList1.add(exampleCell);
-    cellList2.add(exampleCell2);
+  // test that counting gives up on a component with too many arrangements
+  void testComponentCountLimit(Tester t) {
+    // 32 cells split between 4 numbers, 8 each
+    int[] cells = new int[32];
+    int[][] touches = new int[32][];
+    for (int i = 0; i < 32; i++) {
+      cells[i] = i;
+      touches[i] = new int[] {i / 8};
+    }
+    int[] open = {8, 8, 8, 8};
+
+    // one mine in each is 8 ^ 4 arrangements
+    ComponentCount few = new FrontierComponent(cells, touches, new int[] {1, 1, 1, 1}, open)
+        .count();
+    t.checkExpect(few.complete, true);
+    t.checkExpect(few.total(), 4096.0);
+    t.checkExpect(few.minesIn(0), 512.0);
+
+    // four in each is 70 ^ 4, far more than the limit allows
+    ComponentCount many = new FrontierComponent(cells, touches, new int[] {4, 4, 4, 4}, open)
+        .count();
+    t.checkExpect(many.complete, false);
+    t.checkExpect(many.steps, FrontierComponent.MAX_STEPS + 1);
+  }
 
-    // after conditions
-    t.checkExpect(this.exampleCell.neighbors, cellList2);
-    t.checkExpect(this.exampleCell2.neighbors, cellList1);      
+  // test that the key tells apart components wired differently
+  void testComponentKey(Tester t) {
+    // cells 10, 11 and 12 with numbers needing 1 and 1 mine: the first number
+    // touches 10 and 11 in a, 10 and 12 in b
+    FrontierComponent a = new FrontierComponent(new int[] {10, 11, 12},
+        new int[][] {{0, 1}, {0}, {1}}, new int[] {1, 1}, new int[] {2, 2});
+    FrontierComponent b = new FrontierComponent(new int[] {10, 11, 12},
+        new int[][] {{0}, {0, 1}, {1}}, new int[] {1, 1}, new int[] {2, 2});
+    // a again, with its cells and numbers found in another order
+    FrontierComponent c = new FrontierComponent(new int[] {12, 11, 10},
+        new int[][] {{0}, {1}, {0, 1}}, new int[] {1, 1}, new int[] {2, 2});
+    t.checkExpect(a.key.equals(b.key), false);
+    t.checkExpect(a.key, c.key);
+    // a mine in 10 settles both numbers alone in a, but needs a second one in b,
+    // so the two can't share a count
+    t.checkExpect(a.count().mineWays[0], new double[] {0, 1, 0, 0});
+    t.checkExpect(b.count().mineWays[0], new double[] {0, 0, 1, 0});
   }
 
-  //test to check if there's neighboring mine 
-  boolean testHasNearbyMine(Tester t) {
-    this.initConditions();
+  // test that a new solver queues the revealed numbers and nothing else
+  void testSolverStartQueue(Tester t) {
+    GameEngine game = new GameEngine(30, 30, 150);
+    game.reset(new Random(4));
+    game.reveal(15, 15);
+    Solver solver = new Solver(game.board);
+    ArrayList<Integer> queued = new ArrayList<Integer>();
+    while (!solver.work.isEmpty()) {
+      queued.add(solver.work.take());
+    }
+    ArrayList<Integer> numbers = new ArrayList<Integer>();
+    for (int idx = 0; idx < game.board.cells.length; idx++) {
+      if (game.board.has(idx, PackedBoard.REVEALED) && !game.board.has(idx, PackedBoard.MINE)
+          && game.board.count(idx) > 0) {
+        numbers.add(idx);
+      }
+    }
+    t.checkExpect(numbers.isEmpty(), false);
+    t.checkExpect(queued, numbers);
+    t.checkExpect(new Solver(new GameEngine(30, 30, 150).board).work.isEmpty(), true);
+  }
 
-    return t.checkExpect(this.exampleCell1.hasNearbyMine(), true);
+  // test that every hint the solver gives is right, and that it wins most easy games
+  void testSolverSound(Tester t) {
+    int wins = 0;
+    int enumerated = 0;
+    boolean allRight = true;
+    for (int seed = 0; seed < 60; seed++) {
+      GameEngine game = new GameEngine(9, 9, 10);
+      Random rand = new Random(seed);
+      game.reset(rand);
+      while (game.status() == GameStatus.PLAYING) {
+        Hint hint = game.hint();
+        if (hint != null) {
+          allRight = allRight && hint.mine == game.board.isMine(hint.cell.row, hint.cell.col);
+        }
+        Coord move = new SolverStrategy().nextMove(game, rand);
+        game.reveal(move.row, move.col);
+      }
+      for (int idx = 0; idx < game.board.cells.length; idx++) {
+        if (game.solver.known[idx] != 0) {
+          allRight = allRight && (game.solver.known[idx] == Solver.MINE)
+              == game.board.has(idx, PackedBoard.MINE);
+        }
+      }
+      enumerated += game.solver.componentsEnumerated;
+      if (game.status() == GameStatus.WON) {
+        wins++;
+      }
+    }
+    t.checkExpect(allRight, true);
+    t.checkExpect(enumerated > 0, true);
+    t.checkExpect(wins > 30, true);
   }
 
-  //boolean testDrawCell(Tester t) {
-  boolean testDrawCell(Tester t) {
-    initConditions();
+  // test that a batch of games played with the solver beats random clicking
+  void testSolverStrategy(Tester t) {
+    BatchResult random = new BatchSimulator(9, 9, 10, 3L, new RandomStrategy()).run(100, 2);
+    BatchResult solved = new BatchSimulator(9, 9, 10, 3L, new SolverStrategy()).run(100, 2);
+    t.checkExpect(solved.wins > random.wins, true);
+  }
 
-    int size = 50;
-    // outline
-    RectangleImage outline = new RectangleImage(size, size,
-        OutlineMode.OUTLINE, Color.black);
-    // gray square with outline
-    OverlayImage grayCell = new OverlayImage(outline,
-        new RectangleImage(size, size, OutlineMode.SOLID, Color.gray));
-    // white square with outline
-    OverlayImage whiteCell = new OverlayImage(outline,
-        new RectangleImage(size, size, OutlineMode.SOLID, Color.white));
+  // MINEPROBABILITIES METHODS
+  // returns the chance each cell is a mine by trying every way to place the game's
+  // mines in the hidden cells and keeping the ones that fit every revealed number
+  double[] bruteChances(GameEngine game) {
+    PackedBoard board = game.board;
+    ArrayList<Integer> hidden = new ArrayList<Integer>();
+    for (int idx = 0; idx < board.cells.length; idx++) {
+      if (!board.has(idx, PackedBoard.REVEALED)) {
+        hidden.add(idx);
+      }
+    }
+    double[] tally = new double[board.cells.length];
+    double total = this.bruteFrom(board, hidden, 0, game.numMines,
+        new boolean[board.cells.length], tally);
+    for (int idx = 0; idx < tally.length; idx++) {
+      tally[idx] /= total;
+    }
+    return tally;
+  }
 
+  // EFFECT: adds 1 to tally for every mine in every placement that fits
+  // returns how many placements of mines more mines in hidden cells i on fit
+  double bruteFrom(PackedBoard board, ArrayList<Integer> hidden, int i, int mines,
+      boolean[] mine, double[] tally) {
+    if (mines == 0) {
+      int[] around = new int[8];
+      for (int idx = 0; idx < board.cells.length; idx++) {
+        if (board.has(idx, PackedBoard.REVEALED)) {
+          int n = board.neighbors(idx, around);
+          int count = 0;
+          for (int j = 0; j < n; j++) {
+            if (mine[around[j]]) {
+              count++;
+            }
+          }
+          if (count != board.count(idx)) {
+            return 0;
+          }
+        }
+      }
+      for (int idx = 0; idx < mine.length; idx++) {
+        if (mine[idx]) {
+          tally[idx]++;
+        }
+      }
+      return 1;
+    }
+    if (i == hidden.size()) {
+      return 0;
+    }
+    mine[hidden.get(i)] = true;
+    double total = this.bruteFrom(board, hidden, i + 1, mines - 1, mine, tally);
+    mine[hidden.get(i)] = false;
+    return total + this.bruteFrom(board, hidden, i + 1, mines, mine, tally);
+  }
 
-    this.cell1 = this.ms.board.get(1).get(0); //flagged
-    this.cell2 = this.ms.board.get(2).get(0); //mine
-    this.cell3 = this.ms.board.get(2).get(1); //number
-    this.cell4 = this.ms.board.get(3).get(0); //hidden
-    this.cell5 = this.ms.board.get(3).get(2); //empty
+  // test compute against trying every placement
+  void testMineChances(Tester t) {
+    boolean allClose = true;
+    int checked = 0;
+    for (int seed = 0; seed < 40; seed++) {
+      GameEngine game = new GameEngine(4, 5, 4);
+      Random rand = new Random(seed);
+      game.reset(rand);
+      Coord move = new RandomStrategy().nextMove(game, rand);
+      while (game.board.isMine(move.row, move.col)) {
+        move = new RandomStrategy().nextMove(game, rand);
+      }
+      game.reveal(move.row, move.col);
+      if (game.status() != GameStatus.PLAYING) {
+        continue;
+      }
+      double[] exact = this.bruteChances(game);
+      double[] chance = game.mineChances();
+      for (int idx = 0; idx < exact.length; idx++) {
+        allClose = allClose && Math.abs(exact[idx] - chance[idx]) < 1e-9;
+      }
+      checked++;
+    }
+    t.checkExpect(allClose, true);
+    t.checkExpect(checked > 20, true);
+  }
 
-    //draw hidden cell that is flagged
-    return t.checkExpect(this.cell1.drawCell(size),
-        new OverlayImage(new EquilateralTriangleImage(size / 2, 
-            OutlineMode.SOLID, Color.ORANGE), grayCell))
-        //draw revealed cell that has mine 
-        && t.checkExpect(this.cell2.drawCell(size),
-            new OverlayImage(new CircleImage(size / 4, OutlineMode.SOLID, Color.BLACK),
-                whiteCell))
-        //draw revealed empty cell that has neighboring mines 
-        && t.checkExpect(this.cell3.drawCell(size),
-            new OverlayImage(new TextImage(Integer.toString(3), size / 2, Color.ORANGE),
-                whiteCell))
-        //draw hidden cell 
-        && t.checkExpect(this.cell4.drawCell(size), grayCell)  
-        //draw revealed empty cell that has no neighboring mines 
-        && t.checkExpect(this.cell5.drawCell(size), whiteCell); 
+  // test that counts are kept for components that didn't change
+  void testMineChancesCache(Tester t) {
+    // two 1s far apart on a strip make two components
+    // . 1 . . . * . . . 1 .
+    GameEngine game = new GameEngine(1, 11, 3);
+    game.board.placeMine(0, 0);
+    game.board.placeMine(0, 5);
+    game.board.placeMine(0, 10);
+    game.board.revealCell(0, 1);
+    game.board.revealCell(0, 9);
+    double[] chance = game.mineChances();
+    t.checkExpect(game.chances.componentsCounted, 2);
+    t.checkExpect(game.chances.counts.size(), 2);
+    // (0, 1) sees (0, 0) and (0, 2), one of which is a mine
+    t.checkExpect(Math.abs(chance[0] + chance[2] - 1) < 1e-9, true);
+
+    game.mineChances();
+    t.checkExpect(game.chances.componentsCounted, 2);
+
+    // revealing (0, 2) floods to the 1 at (0, 4) and settles the left side,
+    // the right component is reused
+    game.reveal(0, 2);
+    chance = game.mineChances();
+    t.checkExpect(game.chances.componentsCounted, 2);
+    t.checkExpect(game.chances.counts.size(), 1);
+    t.checkExpect(chance[0], 1.0);
+    t.checkExpect(chance[5], 1.0);
+    t.checkExpect(chance[2], 0.0);
   }
 
-  // test revealNeighbors
-  void testRevealNeighbors(Tester t) {
-    // initial conditions
-    this.initConditions();
+  // returns an 11x19 game whose only revealed cells are five 4s along row 5, which
+  // share their hidden cells in one 28 cell component with too many arrangements
+  // to count within FrontierComponent.MAX_STEPS
+  GameEngine cappedGame() {
+    GameEngine game = new GameEngine(11, 19, 14);
+    for (int col = 4; col <= 14; col += 2) {
+      game.board.placeMine(4, col);
+      game.board.placeMine(6, col);
+    }
+    game.board.placeMine(0, 0);
+    game.board.placeMine(10, 18);
+    for (int col = 5; col <= 13; col += 2) {
+      game.board.revealCell(5, col);
+    }
+    return game;
+  }
 
-    // calling reveal on the first cell on a board without mines and hidden
-    this.ms.board.get(0).get(0).revealNeighbors();
+  // test that the cells of a component whose count gave up get the chance
+  // of the other unknown cells instead of none
+  void testMineChancesCapped(Tester t) {
+    GameEngine game = this.cappedGame();
+    double[] chance = game.mineChances();
+    t.checkExpect(game.chances.counts.size(), 1);
+    t.checkExpect(game.chances.counts.values().iterator().next().complete, false);
+    boolean noneZero = true;
+    double total = 0;
+    for (int idx = 0; idx < chance.length; idx++) {
+      if (!game.board.has(idx, PackedBoard.REVEALED)) {
+        noneZero = noneZero && chance[idx] > 0;
+      }
+      total += chance[idx];
+    }
+    t.checkExpect(noneZero, true);
+    t.checkExpect(Math.abs(total - 14) < 1e-9, true);
+    t.checkExpect(Math.abs(chance[game.board.index(4, 4)] - 14.0 / 204) < 1e-9, true);
+  }
 
-    ArrayList<Cell> cellList2 = new ArrayList<Cell>();
-    cellList2.add(this.ms.board.get(0).get(1));
-    cellList2.add(this.ms.board.get(1).get(1));
-    cellList2.add(this.ms.board.get(1).get(0));
+  // test that the solver settles nothing from a component whose count gave up
+  void testSolverCapped(Tester t) {
+    GameEngine game = this.cappedGame();
+    t.checkExpect(game.hint(), null);
+    t.checkExpect(game.solver.componentsEnumerated, 1);
+    boolean noneKnown = true;
+    for (int idx = 0; idx < game.board.cells.length; idx++) {
+      noneKnown = noneKnown && game.solver.known[idx] == 0;
+    }
+    t.checkExpect(noneKnown, true);
+
+    // after revealing one of its safe cells, any hint is still right and the
+    // chances still cover every hidden cell
+    game.reveal(4, 5);
+    Hint hint = game.hint();
+    t.checkExpect(hint == null
+        || hint.mine == game.board.isMine(hint.cell.row, hint.cell.col), true);
+    t.checkExpect(game.mineChances()[game.board.index(4, 4)] > 0, true);
+  }
 
-    // checking that the cells are still the same 
-    t.checkExpect(this.ms.board.get(0).get(0).neighbors.containsAll(cellList2), true);   
+  // test convolve and mineCountWeights
+  void testCombineHelpers(Tester t) {
+    MineProbabilities chances = new MineProbabilities(new GameEngine(2, 2, 1));
+    t.checkExpect(chances.convolve(new double[] {1, 2}, new double[] {1, 3}),
+        new double[] {1, 5, 6});
+    // C(4, 2) = 6, C(4, 1) = 4, C(4, 0) = 1, scaled so the biggest is 1
+    double[] weight = chances.mineCountWeights(2, 4, 3);
+    t.checkExpect(Math.abs(weight[0] - 1) < 1e-12, true);
+    t.checkExpect(Math.abs(weight[1] - 4.0 / 6) < 1e-12, true);
+    t.checkExpect(Math.abs(weight[2] - 1.0 / 6) < 1e-12, true);
+    t.checkExpect(weight[3], 0.0);
+  }
 
-    // calling reveal on a cell that has neighbors with mines, hidden, and is a mine
-    this.exampleCell6.revealNeighbors();
-    ArrayList<Cell> cellList3 = new ArrayList<Cell>();
-    cellList3.add(this.exampleCell6.neighbors.get(0));
-    cellList3.add(this.exampleCell6.neighbors.get(1));
-    cellList3.add(this.exampleCell6.neighbors.get(2));
+  // test that the approximate combination is close to the exact one when
+  // there are many more other cells than frontier cells
+  void testCombineApproximately(Tester t) {
+    GameEngine game = new GameEngine(30, 30, 150);
+    game.reset(new Random(4));
+    game.reveal(15, 15);
+    game.board.revealCell(0, 0);
+    game.mineChances();
+    ArrayList<ComponentCount> results = new ArrayList<ComponentCount>(
+        game.chances.counts.values());
+    int frontier = 0;
+    for (ComponentCount count : results) {
+      frontier += count.cells.length;
+    }
+    int known = 0;
+    int unknown = 0;
+    for (int idx = 0; idx < game.board.cells.length; idx++) {
+      if (game.solver.known[idx] == Solver.MINE) {
+        known++;
+      }
+      else if (game.solver.isUnknown(idx)) {
+        unknown++;
+      }
+    }
+    double[] exact = new double[game.board.cells.length];
+    double[] approx = new double[game.board.cells.length];
+    game.chances.combineExactly(results, 150 - known, unknown - frontier, exact);
+    game.chances.combineApproximately(results, 150 - known, unknown - frontier, approx);
+    double worst = 0;
+    for (int idx = 0; idx < exact.length; idx++) {
+      worst = Math.max(worst, Math.abs(exact[idx] - approx[idx]));
+    }
+    t.checkExpect(worst < 0.01, true);
+  }
 
-    // checking that the cells are the same because it won't loop through the neighbors
-    t.checkExpect(this.exampleCell6.neighbors.containsAll(cellList3), true);
+  // NOGUESSGENERATOR METHODS
+  // test the constructor exceptions
+  void testNoGuessConstructor(Tester t) {
+    t.checkConstructorException(
+        new IllegalArgumentException("Too many mines to keep the first click clear."),
+        "NoGuessGenerator", 3, 4, 4, 1, 1000L);
+    t.checkConstructorException(new IllegalArgumentException("Need at least one thread."),
+        "NoGuessGenerator", 9, 9, 10, 0, 1000L);
   }
 
-  //test place mine
-  void testPlaceMine(Tester t) {
-    this.initConditions();
+  // test candidate and nearFirst
+  void testNoGuessCandidate(Tester t) {
+    NoGuessGenerator gen = new NoGuessGenerator(5, 5, 16, 1, 1000L);
+    Coord first = new Coord(2, 2);
+    t.checkExpect(gen.nearFirst(first, 1, 3), true);
+    t.checkExpect(gen.nearFirst(first, 0, 2), false);
+    ArrayList<Coord> mines = gen.candidate(first, new Random(8));
+    GameEngine game = new GameEngine(5, 5, 16);
+    game.start(mines);
+    t.checkExpect(this.countMines(game.board), 16);
+    boolean clear = true;
+    for (Coord mine : mines) {
+      clear = clear && !gen.nearFirst(first, mine.row, mine.col);
+    }
+    t.checkExpect(clear, true);
+  }
 
-    // before conditions
-    t.checkExpect(this.exampleCell.mine, false);
-    t.checkExpect(this.exampleCell2.mine, true);
+  // test solves and repair
+  void testNoGuessSolves(Tester t) {
+    // * 1 0 0 0 0   clicking the right end floods to the 1, which can only
+    //               mean one thing
+    NoGuessGenerator gen = new NoGuessGenerator(1, 12, 1, 1, 1000L);
+    GameEngine game = new GameEngine(1, 12, 1);
+    ArrayList<Coord> easy = new ArrayList<Coord>();
+    easy.add(new Coord(0, 0));
+    t.checkExpect(gen.solves(game, easy, new Coord(0, 11)), true);
+    t.checkExpect(game.status(), GameStatus.WON);
+
+    // * 1 0 0 0
+    // . 1 0 0 0   the mine is in one of the two left cells, which touch the same
+    //             numbers, and there's nowhere out of sight to move it
+    NoGuessGenerator gen2 = new NoGuessGenerator(2, 5, 1, 1, 1000L);
+    GameEngine game2 = new GameEngine(2, 5, 1);
+    ArrayList<Coord> coinToss = new ArrayList<Coord>();
+    coinToss.add(new Coord(0, 0));
+    t.checkExpect(gen2.solves(game2, coinToss, new Coord(1, 4)), false);
+    t.checkExpect(game2.status(), GameStatus.PLAYING);
+    t.checkExpect(gen2.repair(game2, coinToss, new Coord(1, 4), new Random(1)), false);
+
+    // on a longer board the same coin toss can be moved out of sight
+    NoGuessGenerator gen3 = new NoGuessGenerator(2, 9, 1, 1, 1000L);
+    GameEngine game3 = new GameEngine(2, 9, 1);
+    ArrayList<Coord> moved = new ArrayList<Coord>();
+    moved.add(new Coord(0, 4));
+    t.checkExpect(gen3.solves(game3, moved, new Coord(1, 0)), false);
+    t.checkExpect(gen3.repair(game3, moved, new Coord(1, 0), new Random(1)), true);
+    t.checkExpect(moved.size(), 1);
+    t.checkExpect(moved.get(0).col > 4, true);
+  }
 
-    this.exampleCell.placeMine();
-    this.exampleCell2.placeMine();
+  // test generate
+  void testNoGuessGenerate(Tester t) {
+    NoGuessGenerator gen = new NoGuessGenerator(9, 9, 10, 1, 5000000000L);
+    Coord first = new Coord(4, 4);
+    ArrayList<Coord> mines = gen.generate(first, 21L);
+    t.checkExpect(mines.size(), 10);
+    t.checkExpect(gen.solves(new GameEngine(9, 9, 10), mines, first), true);
+    t.checkExpect(gen.stats.accepted, 1);
+    t.checkExpect(gen.stats.attempts >= 1, true);
+    t.checkExpect(gen.stats.attemptsPerBoard() >= 1, true);
+
+    // the same seed gives the same board with more threads
+    NoGuessGenerator gen4 = new NoGuessGenerator(9, 9, 10, 4, 5000000000L);
+    t.checkExpect(gen4.generate(first, 21L), mines);
+
+    // with no time at all nothing is found
+    NoGuessGenerator hurried = new NoGuessGenerator(9, 9, 10, 2, -1L);
+    t.checkExpect(hurried.generate(first, 21L), null);
+    t.checkExpect(hurried.stats.timeouts, 1);
+    t.checkExpect(hurried.stats.attemptsPerBoard(), 0.0);
+
+    // a small budget on a large board stops in the middle of a candidate
+    NoGuessGenerator large = new NoGuessGenerator(500, 500, 40000, 1, 20000000L);
+    long start = System.nanoTime();
+    t.checkExpect(large.generate(new Coord(250, 250), 21L), null);
+    t.checkExpect(System.nanoTime() - start < 20000000L + 500000000L, true);
+    t.checkExpect(large.stats.timeouts, 1);
+    t.checkExpect(gen.solves(new GameEngine(9, 9, 10), mines, first, System.nanoTime() - 1),
+        false);
+  }
 
-    // after method has been called
-    t.checkExpect(this.exampleCell.mine, true);
-    t.checkExpect(this.exampleCell2.mine, true);
+  // test noGuessGen
+  void testNoGuessGen(Tester t) {
+    ArrayList<Coord> mines = new Utils().noGuessGen(40, 16, 16, new Coord(8, 8), new Random(2));
+    t.checkExpect(mines.size(), 40);
+    t.checkExpect(new NoGuessGenerator(16, 16, 40, 1, 0L)
+        .solves(new GameEngine(16, 16, 40), mines, new Coord(8, 8)), true);
   }
 
-  // test reveal cell
-  void testRevealCell(Tester t) {
-    this.initConditions();
+  // SAVEFILE METHODS
+  // returns whether the two games are in the same state
+  boolean sameGame(GameEngine a, GameEngine b) {
+    return Arrays.equals(a.board.cells, b.board.cells) && a.rows == b.rows 
+        && a.cols == b.cols && a.numMines == b.numMines && a.lost == b.lost
+        && a.board.revealedSafe == b.board.revealedSafe && a.seeded == b.seeded
+        && a.seed == b.seed && (a.pending == null) == (b.pending == null);
+  }
 
-    // before conditions
-    t.checkExpect(this.exampleCell.revealed, false);
-    t.checkExpect(this.exampleCell2.revealed, true);
+  // test save and load
+  void testSaveLoad(Tester t) throws IOException {
+    Path path = Files.createTempFile("minesweeper", ".save");
+    GameEngine game = new GameEngine(7, 13, 12);
+    game.reset(99L);
+    game.reveal(3, 6);
+    game.flag(0, 0);
+    new SaveFile().save(game, path);
+    // 32 byte header and three planes of two longs
+    t.checkExpect(Files.size(path), 80L);
+    GameEngine loaded = new SaveFile().load(path);
+    t.checkExpect(this.sameGame(game, loaded), true);
+    t.checkExpect(loaded.status(), game.status());
+
+    // a lost game stays lost
+    game.lost = true;
+    new SaveFile().save(game, path);
+    t.checkExpect(new SaveFile().load(path).status(), GameStatus.LOST);
+
+    // a game saved before the first click places the same mines after loading
+    GameEngine fresh = new GameEngine(7, 13, 12);
+    fresh.reset(7L);
+    fresh.flag(6, 12);
+    new SaveFile().save(fresh, path);
+    GameEngine freshLoaded = new SaveFile().load(path);
+    t.checkExpect(this.sameGame(fresh, freshLoaded), true);
+    fresh.reveal(2, 2);
+    freshLoaded.reveal(2, 2);
+    t.checkExpect(this.sameGame(fresh, freshLoaded), true);
+    Files.delete(path);
+  }
 
-    this.exampleCell.revealCell();
-    this.exampleCell2.revealCell();
+  // test open on a memory-mapped file
+  void testSaveMapped(Tester t) throws IOException {
+    Path path = Files.createTempFile("minesweeper", ".save");
+    GameEngine game = new GameEngine(300, 200, 6000);
+    game.reset(5L);
+    game.reveal(150, 100);
+    new SaveFile().save(game, path);
+
+    SaveFile mapped = new SaveFile();
+    mapped.mapAbove = 0;
+    SavedGame saved = mapped.open(path);
+    t.checkExpect(saved.revealed.isDirect(), true);
+    boolean same = true;
+    for (int row = 0; row < 300; row++) {
+      for (int col = 0; col < 200; col++) {
+        same = same && saved.isMine(row, col) == game.board.isMine(row, col)
+            && saved.isRevealed(row, col) == game.board.isRevealed(row, col)
+            && saved.isFlagged(row, col) == game.board.isFlagged(row, col)
+            && saved.count(row, col) == game.board.count(row, col);
+      }
+    }
+    t.checkExpect(same, true);
+    t.checkExpect(this.sameGame(game, saved.toEngine()), true);
+    Files.delete(path);
+  }
 
-    // after method has been called
-    t.checkExpect(this.exampleCell.revealed, true);
-    t.checkExpect(this.exampleCell2.revealed, true);
+  // test that broken files are turned away
+  void testSaveErrors(Tester t) throws IOException {
+    Path path = Files.createTempFile("minesweeper", ".save");
+    Files.write(path, new byte[] {1, 2, 3});
+    t.checkException(new IOException("Not a minesweeper save file."),
+        new SaveFile(), "open", path);
+
+    new SaveFile().save(new GameEngine(3, 3, 1), path);
+    byte[] bytes = Files.readAllBytes(path);
+    bytes[5] = 9;
+    Files.write(path, bytes);
+    t.checkException(new IOException("Unsupported save file version: 9"),
+        new SaveFile(), "open", path);
+
+    bytes[5] = 1;
+    Files.write(path, Arrays.copyOf(bytes, bytes.length - 1));
+    t.checkException(new IOException("Save file is the wrong size."),
+        new SaveFile(), "open", path);
+    Files.delete(path);
   }
 
-  // test place flag
-  void testPlaceFlag(Tester t) {
+  // test Minesweeper save and load
+  void testMinesweeperSaveLoad(Tester t) throws IOException {
     this.initConditions();
-    // before conditions
-    t.checkExpect(this.exampleCell.flagged, false);
-    t.checkExpect(this.exampleCell2.flagged, false);
-
-    this.exampleCell.placeFlag();
-    this.exampleCell2.placeFlag();
-
-    // after method has been called
-    t.checkExpect(this.exampleCell.flagged, true);
-    t.checkExpect(this.exampleCell2.flagged, true);
+    Path path = Files.createTempFile("minesweeper", ".save");
+    Minesweeper big = new Minesweeper(20, 30, 60, 10, new Random(3));
+    big.engine.reset(3L);
+    big.engine.reveal(10, 10);
+    big.save(path);
+    this.ms.load(path);
+    t.checkExpect(this.ms.rows, 20);
+    t.checkExpect(this.ms.cols, 30);
+    t.checkExpect(this.ms.numMines, 60);
+    t.checkExpect(this.sameGame(this.ms.engine, big.engine), true);
+
+    // a viewport scrolled to the far corner of the big board comes back over a small one
+    big.useViewport(100, 100);
+    big.moveCamera(1000, 1000, 1);
+    t.checkExpect(big.view, new ViewTransform(200, 100, 1));
+    new Minesweeper(4, 3, 3, 10, new Random(3)).save(path);
+    big.load(path);
+    t.checkExpect(big.view, new ViewTransform(0, 0, 1));
+    t.checkExpect(big.lastVisible(), new Coord(3, 2));
+    Files.delete(path);
   }
 
-  // test isMine
-  boolean testIsMine(Tester t) {
-    // test on a cell that is a mine
-    return t.checkExpect(this.exampleCell1.isMine(), true)
-        // test on a cell that isn't a mine
-        && t.checkExpect(this.exampleCell5.isMine(), false);
+  // MOVEJOURNAL METHODS
+  // EFFECT: clicks the middle of (row, col) in game with the given button
+  void click(Minesweeper game, int row, int col, String button) {
+    game.onMouseClicked(new Posn(col * game.size + game.size / 2,
+        row * game.size + game.size / 2), button);
   }
 
-  //test removeFlag
-  void testRemoveFlag(Tester t) {
-    // initial conditions
-    this.initConditions();
-
-    // calls remove flag on a cell that was flagged
-    this.exampleCell3.removeFlag();
-    t.checkExpect(this.exampleCell3, new Cell(false, true, false));
+  // test recording moves and replaying them
+  void testJournalReplay(Tester t) throws IOException {
+    Path path = Files.createTempFile("minesweeper", ".journal");
+    Minesweeper game = new Minesweeper(10, 12, 15, 10, new Random(4));
+    game.engine.reset(4L);
+    game.startJournal(path, 3);
+    ArrayList<byte[]> states = new ArrayList<byte[]>();
+    states.add(game.engine.board.cells.clone());
+
+    this.click(game, 5, 5, "LeftButton");
+    states.add(game.engine.board.cells.clone());
+    this.click(game, 0, 0, "RightButton");
+    states.add(game.engine.board.cells.clone());
+    game.onKeyEvent("r");
+    states.add(game.engine.board.cells.clone());
+    // keys that do nothing and clicks off the board aren't recorded
+    game.onKeyEvent("x");
+    game.onMouseClicked(new Posn(-5, -5), "LeftButton");
+    this.click(game, 2, 3, "LeftButton");
+    states.add(game.engine.board.cells.clone());
+    this.click(game, 9, 11, "RightButton");
+    states.add(game.engine.board.cells.clone());
+    this.click(game, 9, 11, "RightButton");
+    states.add(game.engine.board.cells.clone());
+    this.click(game, 6, 4, "LeftButton");
+    states.add(game.engine.board.cells.clone());
+
+    Replayer replayer = new Replayer(path);
+    t.checkExpect(replayer.moveCount(), 7);
+    boolean same = true;
+    for (int i = 0; i <= 7; i++) {
+      same = same && Arrays.equals(replayer.replay(i).board.cells, states.get(i));
+    }
+    t.checkExpect(same, true);
+    GameEngine last = replayer.replay(100);
+    t.checkExpect(this.sameGame(last, game.engine), true);
+    t.checkExpect(last.status(), game.engine.status());
+
+    // replay starts from the last snapshot at or before the move
+    replayer.replay(2);
+    t.checkExpect(replayer.snapshotUsed, 0);
+    replayer.replay(3);
+    t.checkExpect(replayer.snapshotUsed, 3);
+    replayer.replay(7);
+    t.checkExpect(replayer.snapshotUsed, 6);
+    game.journal.close();
+
+    // a record cut off by a crash is dropped, the moves before it still replay
+    byte[] bytes = Files.readAllBytes(path);
+    Files.write(path, Arrays.copyOf(bytes, bytes.length - 1));
+    Replayer cut = new Replayer(path);
+    t.checkExpect(cut.moveCount(), 6);
+    t.checkExpect(Arrays.equals(cut.replay(7).board.cells, states.get(6)), true);
+
+    for (int move = 0; move <= 6; move += 3) {
+      Files.delete(game.journal.snapshotPath(move));
+    }
+    Files.delete(path);
+  }
 
-    // calls remove flag on a cell that wasn't flagged
-    this.exampleCell5.removeFlag();
-    t.checkExpect(this.exampleCell5, this.exampleCell5);
+  // test that a replay falls back to an earlier snapshot when the newest can't be read
+  void testJournalBadSnapshot(Tester t) throws IOException {
+    Path path = Files.createTempFile("minesweeper", ".journal");
+    GameEngine game = new GameEngine(8, 9, 10);
+    game.reset(6L);
+    MoveJournal journal = new MoveJournal(path, game, 2);
+    game.reveal(4, 4);
+    journal.reveal(game, 4, 4);
+    game.flag(0, 0);
+    journal.flag(game, 0, 0);
+    game.flag(7, 8);
+    journal.flag(game, 7, 8);
+    journal.close();
+
+    // the snapshot at move 2 was cut short by a crash
+    byte[] bytes = Files.readAllBytes(journal.snapshotPath(2));
+    Files.write(journal.snapshotPath(2), Arrays.copyOf(bytes, 10));
+    Replayer replayer = new Replayer(path);
+    t.checkExpect(this.sameGame(replayer.replay(3), game), true);
+    t.checkExpect(replayer.snapshotUsed, 0);
+
+    // or never made it to the disk at all
+    Files.delete(journal.snapshotPath(2));
+    t.checkExpect(this.sameGame(replayer.replay(3), game), true);
+    t.checkExpect(replayer.snapshotUsed, 0);
+
+    Files.delete(journal.snapshotPath(0));
+    t.checkException(new IOException("Move journal has no snapshot to start from."),
+        replayer, "replay", 3);
+    Files.delete(path);
   }
 
+  // test that clicks that change nothing aren't recorded
+  void testJournalSkipsNoOps(Tester t) throws IOException {
+    ArrayList<Coord> mines = new ArrayList<Coord>();
+    mines.add(new Coord(0, 0));
+    mines.add(new Coord(2, 2));
+    Minesweeper game = new Minesweeper(3, 3, 2, 10, new Random(1));
+    game.engine.setMine(mines);
+    Path path = Files.createTempFile("minesweeper", ".journal");
+    game.startJournal(path, 2);
+    this.click(game, 1, 1, "LeftButton");
+    // revealed cells can't be revealed, flagged or chorded again
+    this.click(game, 1, 1, "LeftButton");
+    this.click(game, 1, 1, "RightButton");
+    this.click(game, 1, 1, "MiddleButton");
+    this.click(game, 0, 1, "RightButton");
+    // flagged cells can't be revealed
+    this.click(game, 0, 1, "LeftButton");
+    game.onMouseClicked(new Posn(100, 100), "RightButton");
+    t.checkExpect(game.journal.moves, 2);
+    // the snapshots follow the moves that were made
+    t.checkExpect(Files.exists(game.journal.snapshotPath(2)), true);
+    this.click(game, 2, 2, "LeftButton");
+    t.checkExpect(game.engine.status(), GameStatus.LOST);
+    // nothing happens once the game is over
+    this.click(game, 2, 0, "LeftButton");
+    this.click(game, 2, 0, "RightButton");
+    t.checkExpect(game.journal.moves, 3);
+    t.checkExpect(new Replayer(path).moveCount(), 3);
+    t.checkExpect(this.sameGame(new Replayer(path).replay(3), game.engine), true);
+    game.journal.close();
+    Files.delete(game.journal.snapshotPath(0));
+    Files.delete(game.journal.snapshotPath(2));
+    Files.delete(path);
+  }
 
-  // test isFlagged
-  boolean testIsFlagged(Tester t) {
-    this.initConditions();
+  // test that the journal is small and broken journals are turned away
+  void testJournalFile(Tester t) throws IOException {
+    Path path = Files.createTempFile("minesweeper", ".journal");
+    GameEngine game = new GameEngine(200, 300, 10);
+    game.reset(8L);
+    MoveJournal journal = new MoveJournal(path, game, 1000);
+    // header, the first checkpoint, then a reveal of (199, 299) in 5 bytes
+    t.checkExpect(Files.size(path), 26L);
+    game.reveal(199, 299);
+    journal.reveal(game, 199, 299);
+    t.checkExpect(Files.size(path), 31L);
+    game.reset(9L);
+    journal.reset(game, 9L);
+    t.checkExpect(Files.size(path), 40L);
+    journal.close();
+    t.checkExpect(new Replayer(path).replay(1).board.isRevealed(199, 299), true);
+    t.checkExpect(this.sameGame(new Replayer(path).replay(2), game), true);
+    Files.delete(journal.snapshotPath(0));
+
+    t.checkConstructorException(
+        new IllegalArgumentException("Snapshots need at least one move between them."),
+        "MoveJournal", path, game, 0);
+    Files.write(path, new byte[] {1, 2, 3});
+    t.checkConstructorException(new IOException("Not a minesweeper move journal."),
+        "Replayer", path);
+    Files.delete(path);
+  }
 
-    return t.checkExpect(this.exampleCell3.isFlagged(), true);
+  // test that loading a game starts the journal over
+  void testJournalLoad(Tester t) throws IOException {
+    Path save = Files.createTempFile("minesweeper", ".save");
+    Path path = Files.createTempFile("minesweeper", ".journal");
+    GameEngine saved = new GameEngine(6, 6, 5);
+    saved.reset(2L);
+    saved.reveal(0, 0);
+    new SaveFile().save(saved, save);
+    Minesweeper game = new Minesweeper(3, 3, 1, 10, new Random(1));
+    game.startJournal(path, 10);
+    this.click(game, 1, 1, "LeftButton");
+    game.load(save);
+    this.click(game, 5, 5, "RightButton");
+    Replayer replayer = new Replayer(path);
+    t.checkExpect(replayer.moveCount(), 1);
+    t.checkExpect(this.sameGame(replayer.replay(1), game.engine), true);
+    game.journal.close();
+    Files.delete(game.journal.snapshotPath(0));
+    Files.delete(path);
+    Files.delete(save);
   }
 
-  // test isRevealed
-  boolean testIsRevealed(Tester t) {
-    this.initConditions();
+  // INFINITEBOARD METHODS
+  // test that mines and counts come from the seed and chunks are made lazily
+  void testInfiniteChunks(Tester t) {
+    t.checkConstructorException(
+        new IllegalArgumentException("Mine density must be at least 0.12 and less than 1."),
+        "InfiniteBoard", 1L, 0.05);
+    InfiniteBoard board = new InfiniteBoard(11L, 0.2);
+    InfiniteBoard same = new InfiniteBoard(11L, 0.2);
+    InfiniteBoard other = new InfiniteBoard(12L, 0.2);
+    t.checkExpect(board.chunks.size(), 0);
+    t.checkExpect(board.key(-1, 2), 0xFFFFFFFF00000002L);
+    t.checkExpect(board.local(-1, 65), 63 * 64 + 1);
+
+    // a strip crossing the chunk edges at -64, 0 and 64 in both directions
+    boolean matches = true;
+    boolean differs = false;
+    boolean counted = true;
+    int mines = 0;
+    for (int row = -66; row <= 66; row += 3) {
+      for (int col = -70; col <= 70; col++) {
+        matches = matches && board.isMine(row, col) == same.hashMine(row, col);
+        differs = differs || board.isMine(row, col) != other.isMine(row, col);
+        if (board.isMine(row, col)) {
+          mines++;
+        }
+        int count = 0;
+        for (int r = row - 1; r <= row + 1; r++) {
+          for (int c = col - 1; c <= col + 1; c++) {
+            if ((r != row || c != col) && same.hashMine(r, c)) {
+              count++;
+            }
+          }
+        }
+        counted = counted && board.count(row, col) == count;
+      }
+    }
+    t.checkExpect(matches, true);
+    t.checkExpect(differs, true);
+    t.checkExpect(counted, true);
+    // about one in five of the 6345 cells
+    t.checkExpect(mines > 1100 && mines < 1450, true);
+    // 4 chunk rows by 4 chunk columns were made
+    t.checkExpect(board.chunks.size(), 16);
+    t.checkExpect(board.isMine(0, 0) || board.isMine(-1, 1) || board.isMine(1, -1), false);
+  }
 
-    // test on a cell that is hidden
-    return t.checkExpect(this.exampleCell1.isRevealed(), false)
-        // test on a cell that isn't hidden
-        && t.checkExpect(this.exampleCell2.isRevealed(), true)
-        // test on a cell that is hidden
-        && t.checkExpect(this.exampleCell3.isRevealed(), false);
+  // test revealing and flagging on an endless board
+  void testInfiniteReveal(Tester t) {
+    InfiniteBoard board = new InfiniteBoard(3L, 0.15);
+    ArrayList<Coord> opened = board.reveal(0, 0);
+    t.checkExpect(opened.get(0), new Coord(0, 0));
+    t.checkExpect((long) opened.size(), board.revealedSafe);
+    // every revealed cell is safe and every cell next to a revealed 0 is revealed
+    boolean closed = true;
+    for (Coord cell : opened) {
+      closed = closed && !board.isMine(cell.row, cell.col) 
+          && board.isRevealed(cell.row, cell.col);
+      if (board.count(cell.row, cell.col) == 0) {
+        for (int r = cell.row - 1; r <= cell.row + 1; r++) {
+          for (int c = cell.col - 1; c <= cell.col + 1; c++) {
+            closed = closed && board.isRevealed(r, c);
+          }
+        }
+      }
+    }
+    t.checkExpect(closed, true);
+    t.checkExpect(board.reveal(0, 0), new ArrayList<Coord>());
+
+    // flags toggle and block reveals
+    int row = 1000;
+    int col = -1000;
+    while (board.isMine(row, col)) {
+      col++;
+    }
+    board.flag(row, col);
+    t.checkExpect(board.isFlagged(row, col), true);
+    t.checkExpect(board.reveal(row, col), new ArrayList<Coord>());
+    board.flag(row, col);
+    t.checkExpect(board.isFlagged(row, col), false);
+
+    // a mine loses and nothing happens after
+    col = -1000;
+    while (!board.isMine(row, col)) {
+      col++;
+    }
+    t.checkExpect(board.reveal(row, col).size(), 1);
+    t.checkExpect(board.lost, true);
+    t.checkExpect(board.reveal(row, col + 1), new ArrayList<Coord>());
+    board.flag(row + 1, col);
+    t.checkExpect(board.isFlagged(row + 1, col), false);
   }
 
+  // test that chunks far from the last move are dropped or written out
+  void testInfiniteEvict(Tester t) throws IOException {
+    InfiniteBoard board = new InfiniteBoard(5L, 0.2);
+    board.maxLoaded = 0;
+    board.keepRadius = 0;
+    board.reveal(0, 0);
+    boolean zero = board.count(0, 0) == 0;
+    // looking at far cells makes chunks nobody played on
+    board.isMine(5000, 5000);
+    board.isMine(-5000, 5000);
+    board.flag(10000, 10000);
+    // the played chunks stay in memory without a spill directory, (0, 0) is
+    // on the corner of 4 chunks and the opening around it reaches all of them
+    t.checkExpect(board.played.size(), 5);
+    t.checkExpect(board.chunks.size(), 5);
+    t.checkExpect(board.chunks.containsKey(board.key(0, 0)), true);
+    t.checkExpect(board.isRevealed(0, 0), true);
+
+    Path dir = Files.createTempDirectory("minesweeper");
+    board.spillDir = dir;
+    board.flag(-10000, 0);
+    t.checkExpect(board.chunks.size(), 1);
+    t.checkExpect(Files.exists(board.spillPath(board.key(0, 0))), true);
+    // and come back from disk as they were
+    t.checkExpect(board.isRevealed(0, 0), true);
+    t.checkExpect(board.count(0, 0) == 0, zero);
+    t.checkExpect(board.isFlagged(10000, 10000), true);
+    t.checkExpect(board.chunks.size(), 3);
+
+    // memory grows with the chunks around the moves, not with how far they go
+    for (int i = 1; i <= 50; i++) {
+      board.flag(i * 1000, -i * 1000);
+    }
+    t.checkExpect(board.chunks.size(), 1);
+    t.checkExpect(board.played.size(), 56);
+    t.checkExpect(board.isFlagged(25000, -25000), true);
+    for (Long key : board.played) {
+      Files.deleteIfExists(board.spillPath(key));
+    }
+    Files.delete(dir);
+  }
 
+  // test playing the endless board through a window
+  void testInfiniteWorld(Tester t) {
+    InfiniteMinesweeper game = new InfiniteMinesweeper(20, 10, 10, 0.2, new Random(2));
+    t.checkExpect(game.clickedCell(new Posn(105, 55)), new Coord(0, 0));
+    t.checkExpect(game.clickedCell(new Posn(0, 0)), new Coord(-5, -10));
+    game.onMouseClicked(new Posn(105, 55), "LeftButton");
+    t.checkExpect(game.board.isRevealed(0, 0), true);
+    game.onMouseClicked(new Posn(5, 5), "RightButton");
+    t.checkExpect(game.board.isFlagged(-5, -10) || game.board.isRevealed(-5, -10), true);
+    game.onKeyEvent("right");
+    game.onKeyEvent("down");
+    t.checkExpect(game.clickedCell(new Posn(0, 0)), new Coord(-3, -5));
+    game.onKeyEvent("left");
+    game.onKeyEvent("up");
+    t.checkExpect(game.worldEnds().worldEnds, false);
+    game.onKeyEvent("r");
+    t.checkExpect(game.board.isRevealed(0, 0), false);
+    t.checkExpect(game.board.density, 0.2);
+  }
 
-  //UTILS METHODS
-  //test to generate a random ArrayList<Coord>
-  boolean testRandomGen(Tester t) {
-    this.initConditions();
-    this.randCoordList.add(new Coord(7, 2));
-    this.randCoordList.add(new Coord(4, 4));
-    this.randCoordList.add(new Coord(6, 5));
+  // PARALLELREVEALENGINE METHODS
+  // returns whether revealing (row, col) with a ParallelRevealEngine on pool reveals the
+  // same cells as RevealEngine on a copy of board, and keeps the same counts
+  boolean sameReveal(PackedBoard board, int row, int col, ForkJoinPool pool) {
+    PackedBoard copy = new PackedBoard(board.rows, board.cols);
+    copy.cells = board.cells.clone();
+    copy.syncBits();
+    copy.revealedSafe = board.revealedSafe;
+    ArrayList<Coord> expected = new RevealEngine().reveal(copy, row, col);
+    ArrayList<Coord> actual = new ParallelRevealEngine(pool).reveal(board, row, col);
+    return Arrays.equals(board.cells, copy.cells) && board.revealedSafe == copy.revealedSafe
+        && actual.size() == expected.size()
+        && new HashSet<Coord>(actual).equals(new HashSet<Coord>(expected));
+  }
 
-    return t.checkExpect(new Utils().randomGen(3, 10, 10, this.randTest),
-        this.randCoordList);
+  // test that the parallel reveal matches the sequential one
+  void testParallelReveal(Tester t) {
+    ForkJoinPool pool = new ForkJoinPool(4);
+    Utils u = new Utils();
+    // sides that aren't whole tiles and mines sparse enough to open many tiles
+    GameEngine game = new GameEngine(300, 457, 1500);
+    game.setMine(u.randomGen(1500, 300, 457, new Random(6)));
+    t.checkExpect(this.sameReveal(game.board, 150, 200, pool), true);
+    t.checkExpect(game.board.revealedSafe > 100000, true);
+    // flags stop the fill and nothing is revealed twice
+    game.board.placeFlag(10, 10);
+    game.board.placeFlag(299, 456);
+    t.checkExpect(this.sameReveal(game.board, 0, 0, pool), true);
+    t.checkExpect(this.sameReveal(game.board, 299, 0, pool), true);
+    t.checkExpect(new ParallelRevealEngine(pool).reveal(game.board, 150, 200),
+        new ArrayList<Coord>());
+
+    // no mines at all opens the whole board
+    PackedBoard empty = new PackedBoard(129, 257);
+    t.checkExpect(this.sameReveal(empty, 128, 256, pool), true);
+    t.checkExpect(empty.revealedSafe, 129 * 257);
+
+    // a number or a mine only reveals itself
+    GameEngine dense = new GameEngine(40, 40, 400);
+    dense.setMine(u.randomGen(400, 40, 40, new Random(2)));
+    boolean same = true;
+    for (int row = 0; row < 40; row += 3) {
+      for (int col = 0; col < 40; col += 7) {
+        same = same && this.sameReveal(dense.board, row, col, pool);
+      }
+    }
+    t.checkExpect(same, true);
+    pool.shutdown();
   }
 
-  //test to generate a random coord
-  boolean testRandomCoord(Tester t) {
-    this.initConditions();
-    return t.checkExpect(new Utils().randomCoord(10, 10, this.randTest),
-        new Coord(7, 2));
+  // test that GameEngine reveals in parallel on big boards and tracks the changes
+  void testParallelRevealEngine(Tester t) {
+    GameEngine game = new GameEngine(200, 300, 300);
+    game.setMine(new Utils().randomGen(300, 200, 300, new Random(9)));
+    GameEngine sequential = new GameEngine(200, 300, 300);
+    sequential.setMine(new Utils().randomGen(300, 200, 300, new Random(9)));
+    t.checkExpect(game.parallelAbove, 1 << 20);
+    game.parallelAbove = 0;
+    DirtyCells dirty = game.board.trackChanges();
+    ArrayList<Coord> revealed = game.reveal(100, 150);
+    t.checkExpect(new HashSet<Coord>(revealed),
+        new HashSet<Coord>(sequential.reveal(100, 150)));
+    t.checkExpect(this.sameGame(game, sequential), true);
+    t.checkExpect(dirty.count, revealed.size());
   }
 
-  //test revealBoard
-  void testRevealBoard(Tester t) {
-    this.initConditions();
-    ArrayList<ArrayList<Cell>> board = this.ms.makeBoard();
-    new Utils().revealBoard(board);
+  // ZEROREGIONS METHODS
+  // test finding the groups of empty cells and their edges
+  void testZeroRegions(Tester t) {
+    // one mine in the middle of a 3x5 board leaves an empty column on each side
+    GameEngine game = new GameEngine(3, 5, 1);
+    game.useRegions = true;
+    ArrayList<Coord> mine = new ArrayList<Coord>();
+    mine.add(new Coord(1, 2));
+    game.setMine(mine);
+    ZeroRegions regions = game.regions;
+    t.checkExpect(regions.count(), 2);
+    t.checkExpect(regions.label[game.board.index(2, 0)], 0);
+    t.checkExpect(regions.label[game.board.index(0, 4)], 1);
+    t.checkExpect(regions.label[game.board.index(1, 1)], -1);
+    t.checkExpect(regions.label[game.board.index(1, 2)], -1);
+    t.checkExpect(regions.size(0), 6);
+    t.checkExpect(Arrays.copyOfRange(regions.members, 0, 6), new int[] {0, 1, 5, 6, 10, 11});
+    t.checkExpect(Arrays.copyOfRange(regions.members, 6, 12), new int[] {3, 4, 8, 9, 13, 14});
+    t.checkExpect(regions.reveal(game.board, game.board.index(1, 1)), null);
+
+    // a click in a group reveals all of it in one pass
+    ArrayList<Coord> opened = game.reveal(0, 4);
+    t.checkExpect(opened.size(), 6);
+    t.checkExpect(game.board.revealedSafe, 6);
+    t.checkExpect(game.reveal(2, 4), new ArrayList<Coord>());
+
+    // a flag next to a group makes it flood from then on
+    game.flag(2, 1);
+    t.checkExpect(regions.stale[0], true);
+    t.checkExpect(regions.stale[1], false);
+    t.checkExpect(regions.reveal(game.board, 0), null);
+    t.checkExpect(game.reveal(0, 0).size(), 5);
+    t.checkExpect(game.board.isRevealed(2, 1), false);
+
+    // groups already played on when they're worked out are stale
+    GameEngine played = new GameEngine(3, 5, 1);
+    played.setMine(mine);
+    played.flag(0, 0);
+    played.reveal(2, 4);
+    ZeroRegions late = new ZeroRegions(played.board);
+    t.checkExpect(late.stale[0], true);
+    t.checkExpect(late.stale[1], true);
+
+    // a new game forgets them
+    game.reset(new Random(1));
+    t.checkExpect(game.regions, null);
+  }
 
-    t.checkExpect(board.get(0).get(0).revealed, true);
-    t.checkExpect(board.get(0).get(1).revealed, true);
-    t.checkExpect(board.get(0).get(2).revealed, true);
-    t.checkExpect(board.get(1).get(0).revealed, true);
-    t.checkExpect(board.get(1).get(1).revealed, true);
-    t.checkExpect(board.get(1).get(2).revealed, true);
-    t.checkExpect(board.get(2).get(0).revealed, true);
-    t.checkExpect(board.get(2).get(1).revealed, true);
-    t.checkExpect(board.get(2).get(2).revealed, true);
-    t.checkExpect(board.get(3).get(0).revealed, true);
-    t.checkExpect(board.get(3).get(1).revealed, true);
-    t.checkExpect(board.get(3).get(2).revealed, true);
+  // test that revealing through groups matches flooding, move for move
+  void testZeroRegionsMatchFlood(Tester t) {
+    boolean same = true;
+    for (int seed = 0; seed < 20; seed++) {
+      Random rand = new Random(seed);
+      ArrayList<Coord> mines = new Utils().randomGen(60, 20, 30, rand);
+      GameEngine grouped = new GameEngine(20, 30, 60);
+      grouped.useRegions = true;
+      grouped.setMine(mines);
+      GameEngine flooded = new GameEngine(20, 30, 60);
+      flooded.setMine(mines);
+      for (int move = 0; move < 40; move++) {
+        int row = rand.nextInt(20);
+        int col = rand.nextInt(30);
+        if (rand.nextInt(3) == 0) {
+          grouped.flag(row, col);
+          flooded.flag(row, col);
+        }
+        else if (!grouped.board.isMine(row, col)) {
+          same = same && new HashSet<Coord>(grouped.reveal(row, col))
+              .equals(new HashSet<Coord>(flooded.reveal(row, col)));
+        }
+        same = same && this.sameGame(grouped, flooded);
+      }
+    }
+    t.checkExpect(same, true);
   }
 
-  //test isAllRevealed
-  boolean testIsAllRevealed(Tester t) {
-    this.initConditions();
-    this.ms.board.get(0).get(0).revealed = true;
-    this.ms.board.get(0).get(1).revealed = true;
-    this.ms.board.get(0).get(2).revealed = true;
-    this.ms.board.get(1).get(2).revealed = true;
-    this.ms.board.get(3).get(0).revealed = true;
+  // PACKEDBOARD BITSET METHODS
+  // returns whether board's bitsets hold the same bits as its cells
+  boolean bitsMatch(PackedBoard board) {
+    PackedBoard fresh = new PackedBoard(board.rows, board.cols);
+    fresh.cells = board.cells;
+    fresh.syncBits();
+    return Arrays.equals(board.mineBits, fresh.mineBits)
+        && Arrays.equals(board.revealedBits, fresh.revealedBits)
+        && Arrays.equals(board.flaggedBits, fresh.flaggedBits);
+  }
 
-    return t.checkExpect(new Utils().isAllRevealed(this.ms), true)
-        && t.checkExpect(new Utils().isAllRevealed(this.ms2), false);
+  // test that the bitsets follow every change to the board
+  void testBoardBits(Tester t) {
+    PackedBoard board = new PackedBoard(3, 45);
+    t.checkExpect(board.mineBits.length, 3);
+    t.checkExpect(board.lastWordMask(), (1L << 7) - 1);
+    t.checkExpect(new PackedBoard(2, 32).lastWordMask(), -1L);
+    board.placeMine(0, 0);
+    board.placeMine(2, 44);
+    board.revealCell(1, 20);
+    board.placeFlag(1, 19);
+    t.checkExpect(board.mineBits[0], 1L);
+    t.checkExpect(board.mineBits[2], 1L << 6);
+    t.checkExpect(board.revealedBits[1], 1L << 1);
+    t.checkExpect(board.flaggedBits[1], 1L);
+    t.checkExpect(board.bits(PackedBoard.FLAGGED) == board.flaggedBits, true);
+    t.checkException(new IllegalArgumentException("Not a single state bit: 3"),
+        board, "bits", 3);
+    board.removeFlag(1, 19);
+    board.moveMine(0, 0, 0, 1);
+    t.checkExpect(this.bitsMatch(board), true);
+    t.checkExpect(board.flagCount(), 0);
+
+    GameEngine game = new GameEngine(30, 41, 100);
+    game.debug = true;
+    game.setMine(new Utils().randomGen(100, 30, 41, new Random(3)));
+    Random rand = new Random(4);
+    for (int i = 0; i < 60; i++) {
+      game.flag(rand.nextInt(30), rand.nextInt(41));
+      if (!game.board.isMine(i % 30, i % 41)) {
+        game.reveal(i % 30, i % 41);
+      }
+    }
+    t.checkExpect(this.bitsMatch(game.board), true);
+    t.checkExpect(game.board.countRevealedSafe(), new Utils().countRevealedSafe(game.board));
+    t.checkExpect(game.board.countRevealedSafe(), game.board.revealedSafe);
+    int flags = 0;
+    for (int idx = 0; idx < game.board.cells.length; idx++) {
+      if (game.board.has(idx, PackedBoard.FLAGGED)) {
+        flags++;
+      }
+    }
+    t.checkExpect(game.board.flagCount(), flags);
+    game.board.wipe();
+    t.checkExpect(this.bitsMatch(game.board), true);
+    t.checkExpect(game.board.revealedBits, new long[20]);
   }
 
-  //test floodfill
-  void testFloodfill(Tester t) {
-    this.initConditions();
+  // test the word-at-a-time whole-board checks
+  void testBoardBitsBulk(Tester t) {
+    PackedBoard board = new PackedBoard(5, 27);
+    board.placeMine(0, 3);
+    board.placeMine(4, 26);
+    board.revealCell(2, 2);
+    DirtyCells dirty = board.trackChanges();
+    t.checkExpect(board.allSafeRevealed(), false);
+    board.revealAll();
+    t.checkExpect(board.revealedSafe, 133);
+    t.checkExpect(dirty.count, 134);
+    t.checkExpect(this.bitsMatch(board), true);
+    t.checkExpect(board.revealedBits[2], (1L << 7) - 1);
+    t.checkExpect(board.allSafeRevealed(), true);
+
+    // every safe cell revealed, the mines still hidden
+    PackedBoard cleared = new PackedBoard(5, 27);
+    cleared.placeMine(0, 3);
+    cleared.placeMine(4, 26);
+    for (int idx = 0; idx < cleared.cells.length; idx++) {
+      if (!cleared.has(idx, PackedBoard.MINE)) {
+        cleared.set(idx, PackedBoard.REVEALED);
+      }
+    }
+    t.checkExpect(cleared.allSafeRevealed(), true);
+    cleared.clear(70, PackedBoard.REVEALED);
+    t.checkExpect(cleared.allSafeRevealed(), false);
+  }
 
-    t.checkExpect(this.exampleCell1.neighbors.get(0).revealed, true);
-    t.checkExpect(this.exampleCell1.neighbors.get(1).revealed, true);
-    t.checkExpect(this.exampleCell1.neighbors.get(2).revealed, false);
-    t.checkExpect(this.exampleCell1.neighbors.get(3).revealed, true);
+  // CHORD METHODS
+  // test that a chord is one flood matching a reveal of each cell around the number
+  void testChordBatch(Tester t) {
+    boolean same = true;
+    boolean chorded = false;
+    for (int seed = 0; seed < 30; seed++) {
+      ArrayList<Coord> mines = new Utils().randomGen(40, 16, 30, new Random(seed));
+      GameEngine batched = new GameEngine(16, 30, 40);
+      batched.setMine(mines);
+      GameEngine oneByOne = new GameEngine(16, 30, 40);
+      oneByOne.setMine(mines);
+      GameEngine parallel = new GameEngine(16, 30, 40);
+      parallel.setMine(mines);
+      parallel.parallelAbove = 0;
+      // a solver made before the chord has to hear about every cell it revealed
+      batched.startSolver();
+
+      // chord the first number that has a mine around it, with its mines flagged
+      int[] around = new int[8];
+      boolean done = false;
+      for (int idx = 0; idx < 480 && !done; idx++) {
+        if (!batched.board.has(idx, PackedBoard.MINE) && batched.board.count(idx) > 0) {
+          int row = idx / 30;
+          int col = idx % 30;
+          batched.board.revealCell(row, col);
+          oneByOne.board.revealCell(row, col);
+          parallel.board.revealCell(row, col);
+          int n = batched.board.neighbors(idx, around);
+          for (int i = 0; i < n; i++) {
+            if (batched.board.has(around[i], PackedBoard.MINE)) {
+              batched.flag(around[i] / 30, around[i] % 30);
+              oneByOne.flag(around[i] / 30, around[i] % 30);
+              parallel.flag(around[i] / 30, around[i] % 30);
+            }
+          }
+          ArrayList<Coord> delta = batched.chord(row, col);
+          ArrayList<Coord> each = new ArrayList<Coord>();
+          for (int i = 0; i < n; i++) {
+            each.addAll(oneByOne.reveal(around[i] / 30, around[i] % 30));
+          }
+          same = same && delta.size() == new HashSet<Coord>(delta).size()
+              && new HashSet<Coord>(delta).equals(new HashSet<Coord>(each))
+              && new HashSet<Coord>(parallel.chord(row, col)).equals(new HashSet<Coord>(each))
+              && this.sameGame(batched, oneByOne) && this.sameGame(parallel, oneByOne);
+          // the solver's hint is about a hidden cell and is right
+          Hint hint = batched.hint();
+          same = same && (hint == null 
+              || (!batched.board.isRevealed(hint.cell.row, hint.cell.col)
+                  && hint.mine == batched.board.isMine(hint.cell.row, hint.cell.col)));
+          chorded = chorded || delta.size() > 8;
+          done = true;
+        }
+      }
+    }
+    t.checkExpect(same, true);
+    // at least one chord opened up more than the cells around the number
+    t.checkExpect(chorded, true);
+  }
 
-    new Utils().floodfill(this.exampleCell1.neighbors);
+  // test that a chord with a wrong flag loses
+  void testChordWrongFlag(Tester t) {
+    ArrayList<Coord> mines = new ArrayList<Coord>();
+    mines.add(new Coord(0, 0));
+    mines.add(new Coord(2, 2));
+    GameEngine game = new GameEngine(3, 3, 2);
+    game.setMine(mines);
+    game.reveal(1, 1);
+    game.flag(0, 0);
+    game.flag(0, 1);
+    ArrayList<Coord> hit = new ArrayList<Coord>();
+    hit.add(new Coord(2, 2));
+    t.checkExpect(game.chord(1, 1), hit);
+    t.checkExpect(game.status(), GameStatus.LOST);
+    t.checkExpect(game.board.isRevealed(2, 0), true);
+    t.checkExpect(game.chord(1, 1), new ArrayList<Coord>());
+  }
 
-    t.checkExpect(this.exampleCell1.neighbors.get(0).revealed, true);
-    t.checkExpect(this.exampleCell1.neighbors.get(1).revealed, true);
-    t.checkExpect(this.exampleCell1.neighbors.get(2).revealed, true);
-    t.checkExpect(this.exampleCell1.neighbors.get(3).revealed, true);
-    // revealed, mine, flag
+  // test chording with the middle button, and replaying it
+  void testMiddleClickChord(Tester t) throws IOException {
+    ArrayList<Coord> mines = new ArrayList<Coord>();
+    mines.add(new Coord(0, 0));
+    mines.add(new Coord(0, 2));
+    Minesweeper game = new Minesweeper(3, 3, 2, 10, new Random(1));
+    game.engine.setMine(mines);
+    Path path = Files.createTempFile("minesweeper", ".journal");
+    game.startJournal(path, 100);
+    this.click(game, 1, 1, "LeftButton");
+    this.click(game, 0, 0, "RightButton");
+    this.click(game, 0, 2, "RightButton");
+    this.click(game, 1, 1, "MiddleButton");
+    t.checkExpect(game.engine.status(), GameStatus.WON);
+    Replayer replayer = new Replayer(path);
+    t.checkExpect(replayer.moveCount(), 4);
+    t.checkExpect(this.sameGame(replayer.replay(4), game.engine), true);
+    game.journal.close();
+    Files.delete(game.journal.snapshotPath(0));
+    Files.delete(path);
   }
 
   //GAME EXAMPLE 